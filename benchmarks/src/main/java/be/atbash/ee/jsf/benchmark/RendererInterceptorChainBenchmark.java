@@ -0,0 +1,166 @@
+/*
+ * Copyright 2014-2020 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.ee.jsf.benchmark;
+
+import be.atbash.ee.jsf.jerry.interceptor.AbstractRendererInterceptor;
+import be.atbash.ee.jsf.jerry.interceptor.RendererInterceptor;
+import be.atbash.ee.jsf.jerry.interceptor.RendererInterceptorChains;
+import be.atbash.ee.jsf.jerry.interceptor.RendererInterceptorHook;
+import org.openjdk.jmh.annotations.*;
+
+import javax.faces.component.UIComponent;
+import javax.faces.context.FacesContext;
+import javax.faces.render.Renderer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of calling the interceptors for all hooks of one component (encode and postback), comparing calling every
+ * interceptor for each hook (the broadcast as before) and calling only the interceptors which implement the hook.
+ * The interceptors mimic the default setup of Valerie where each interceptor implements a single hook.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RendererInterceptorChainBenchmark {
+
+    private List<RendererInterceptor> rendererInterceptors;
+
+    private RendererInterceptor[] beforeDecode;
+    private RendererInterceptor[] beforeEncodeBegin;
+    private RendererInterceptor[] beforeEncodeChildren;
+    private RendererInterceptor[] beforeEncodeEnd;
+    private RendererInterceptor[] beforeGetConvertedValue;
+    private RendererInterceptor[] afterDecode;
+    private RendererInterceptor[] afterEncodeBegin;
+    private RendererInterceptor[] afterEncodeChildren;
+    private RendererInterceptor[] afterEncodeEnd;
+    private RendererInterceptor[] afterGetConvertedValue;
+
+    @Setup
+    public void setup() {
+        rendererInterceptors = new ArrayList<>();
+        rendererInterceptors.add(new BeforeEncodeBeginInterceptor());  // like MetaDataInterceptor
+        rendererInterceptors.add(new AfterGetConvertedValueInterceptor());  // like RecordingInterceptor
+        rendererInterceptors.add(new BeforeEncodeBeginInterceptor());  // like InterceptorComponentInitializer
+
+        RendererInterceptorChains chains = new RendererInterceptorChains(rendererInterceptors);
+        beforeDecode = chains.getChain(RendererInterceptorHook.BEFORE_DECODE);
+        beforeEncodeBegin = chains.getChain(RendererInterceptorHook.BEFORE_ENCODE_BEGIN);
+        beforeEncodeChildren = chains.getChain(RendererInterceptorHook.BEFORE_ENCODE_CHILDREN);
+        beforeEncodeEnd = chains.getChain(RendererInterceptorHook.BEFORE_ENCODE_END);
+        beforeGetConvertedValue = chains.getChain(RendererInterceptorHook.BEFORE_GET_CONVERTED_VALUE);
+        afterDecode = chains.getChain(RendererInterceptorHook.AFTER_DECODE);
+        afterEncodeBegin = chains.getChain(RendererInterceptorHook.AFTER_ENCODE_BEGIN);
+        afterEncodeChildren = chains.getChain(RendererInterceptorHook.AFTER_ENCODE_CHILDREN);
+        afterEncodeEnd = chains.getChain(RendererInterceptorHook.AFTER_ENCODE_END);
+        afterGetConvertedValue = chains.getChain(RendererInterceptorHook.AFTER_GET_CONVERTED_VALUE);
+    }
+
+    @Benchmark
+    public int broadcast() throws Exception {
+        for (RendererInterceptor interceptor : rendererInterceptors) {
+            interceptor.beforeDecode(null, null, null);
+        }
+        for (RendererInterceptor interceptor : rendererInterceptors) {
+            interceptor.afterDecode(null, null, null);
+        }
+        for (RendererInterceptor interceptor : rendererInterceptors) {
+            interceptor.beforeGetConvertedValue(null, null, null, null);
+        }
+        for (RendererInterceptor interceptor : rendererInterceptors) {
+            interceptor.afterGetConvertedValue(null, null, null, null, null);
+        }
+        for (RendererInterceptor interceptor : rendererInterceptors) {
+            interceptor.beforeEncodeBegin(null, null, null);
+        }
+        for (RendererInterceptor interceptor : rendererInterceptors) {
+            interceptor.afterEncodeBegin(null, null, null);
+        }
+        for (RendererInterceptor interceptor : rendererInterceptors) {
+            interceptor.beforeEncodeChildren(null, null, null);
+        }
+        for (RendererInterceptor interceptor : rendererInterceptors) {
+            interceptor.afterEncodeChildren(null, null, null);
+        }
+        for (RendererInterceptor interceptor : rendererInterceptors) {
+            interceptor.beforeEncodeEnd(null, null, null);
+        }
+        for (RendererInterceptor interceptor : rendererInterceptors) {
+            interceptor.afterEncodeEnd(null, null, null);
+        }
+        return CountingInterceptor.calls;
+    }
+
+    @Benchmark
+    public int perHookChains() throws Exception {
+        for (RendererInterceptor interceptor : beforeDecode) {
+            interceptor.beforeDecode(null, null, null);
+        }
+        for (RendererInterceptor interceptor : afterDecode) {
+            interceptor.afterDecode(null, null, null);
+        }
+        for (RendererInterceptor interceptor : beforeGetConvertedValue) {
+            interceptor.beforeGetConvertedValue(null, null, null, null);
+        }
+        for (RendererInterceptor interceptor : afterGetConvertedValue) {
+            interceptor.afterGetConvertedValue(null, null, null, null, null);
+        }
+        for (RendererInterceptor interceptor : beforeEncodeBegin) {
+            interceptor.beforeEncodeBegin(null, null, null);
+        }
+        for (RendererInterceptor interceptor : afterEncodeBegin) {
+            interceptor.afterEncodeBegin(null, null, null);
+        }
+        for (RendererInterceptor interceptor : beforeEncodeChildren) {
+            interceptor.beforeEncodeChildren(null, null, null);
+        }
+        for (RendererInterceptor interceptor : afterEncodeChildren) {
+            interceptor.afterEncodeChildren(null, null, null);
+        }
+        for (RendererInterceptor interceptor : beforeEncodeEnd) {
+            interceptor.beforeEncodeEnd(null, null, null);
+        }
+        for (RendererInterceptor interceptor : afterEncodeEnd) {
+            interceptor.afterEncodeEnd(null, null, null);
+        }
+        return CountingInterceptor.calls;
+    }
+
+    private abstract static class CountingInterceptor extends AbstractRendererInterceptor {
+        static int calls;
+    }
+
+    private static class BeforeEncodeBeginInterceptor extends CountingInterceptor {
+
+        @Override
+        public void beforeEncodeBegin(FacesContext facesContext, UIComponent uiComponent, Renderer wrapped) {
+            calls++;
+        }
+    }
+
+    private static class AfterGetConvertedValueInterceptor extends CountingInterceptor {
+
+        @Override
+        public void afterGetConvertedValue(FacesContext facesContext, UIComponent uiComponent, Object submittedValue, Object convertedValue, Renderer wrapped) {
+            calls++;
+        }
+    }
+}
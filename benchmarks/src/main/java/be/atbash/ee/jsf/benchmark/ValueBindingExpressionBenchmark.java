@@ -0,0 +1,78 @@
+/*
+ * Copyright 2014-2020 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.ee.jsf.benchmark;
+
+import be.atbash.ee.jsf.valerie.el.ValueBindingExpression;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of parsing value expressions with {@link ValueBindingExpression} and of the operations used for cross-field
+ * lookups (walking the base expressions, replacing the property and comparing expressions), for nested properties,
+ * map keys and dynamic brackets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValueBindingExpressionBenchmark {
+
+    @Param({"#{order.customer.address.zip}", "#{bean.values['key'].name}", "#{bean[provider.names['first']].name}"})
+    private String expressionString;
+
+    private ValueBindingExpression expression;
+    private ValueBindingExpression other;
+
+    @Setup
+    public void setup() {
+        expression = new ValueBindingExpression(expressionString);
+        other = new ValueBindingExpression(expressionString);
+    }
+
+    @Benchmark
+    public int parse() {
+        ValueBindingExpression result = new ValueBindingExpression(expressionString);
+        int length = 0;
+        while (result != null) {
+            length += result.getProperty().length();
+            result = result.getBaseExpression();
+        }
+        return length;
+    }
+
+    @Benchmark
+    public ValueBindingExpression parseShared() {
+        return ValueBindingExpression.of(expressionString);
+    }
+
+    @Benchmark
+    public String expressionString() {
+        return expression.getExpressionString();
+    }
+
+    @Benchmark
+    public boolean equalsAndHashCode() {
+        return expression.hashCode() == other.hashCode() && expression.equals(other);
+    }
+
+    @Benchmark
+    public ValueBindingExpression replaceProperty() {
+        return ValueBindingExpression.replaceProperty(expression, "other");
+    }
+}
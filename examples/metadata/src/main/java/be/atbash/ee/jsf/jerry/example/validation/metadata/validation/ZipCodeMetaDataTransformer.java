@@ -20,8 +20,10 @@ import be.atbash.ee.jsf.jerry.metadata.MetaDataEntry;
 import be.atbash.ee.jsf.jerry.metadata.MetaDataTransformer;
 
 import javax.enterprise.context.ApplicationScoped;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 /**
  *
@@ -31,11 +33,20 @@ public class ZipCodeMetaDataTransformer implements MetaDataTransformer {
     @Override
     public Map<String, Object> convertMetaData(MetaDataEntry metaData) {
         Map<String, Object> result = new HashMap<>();
-        if (ZipCode.class.getName().equals(metaData.getKey())) {
-            result.put(CommonMetaDataKeys.REQUIRED.getKey(), Boolean.TRUE);
-            result.put(CommonMetaDataKeys.SIZE.getKey(), 4);
-            result.put(ZipCode.class.getName(), Boolean.TRUE);
-        }
+        convertMetaData(metaData, result);
         return result;
     }
+
+    @Override
+    public void convertMetaData(MetaDataEntry metaData, Map<String, Object> result) {
+        // Only called for @ZipCode, see getHandledTypes()
+        result.put(CommonMetaDataKeys.REQUIRED.getKey(), Boolean.TRUE);
+        result.put(CommonMetaDataKeys.SIZE.getKey(), 4);
+        result.put(ZipCode.class.getName(), Boolean.TRUE);
+    }
+
+    @Override
+    public Set<Class<?>> getHandledTypes() {
+        return Collections.<Class<?>>singleton(ZipCode.class);
+    }
 }
@@ -17,11 +17,11 @@ package be.atbash.ee.jsf.jerry.component;
 
 import be.atbash.ee.jsf.jerry.storage.ComponentStorage;
 import be.atbash.ee.jsf.jerry.utils.InvocationOrderedArtifactsProvider;
+import be.atbash.ee.jsf.jerry.utils.RepeatedComponentUtils;
 
 import javax.annotation.PostConstruct;
 import javax.enterprise.context.ApplicationScoped;
 import javax.faces.component.UIComponent;
-import javax.faces.component.UIData;
 import javax.faces.context.FacesContext;
 import javax.inject.Inject;
 import java.util.List;
@@ -69,7 +69,7 @@ public class ComponentInitializerManager {
             result = checkRepeatedComponentFlag(uiComponent);
             if (!result) {
                 // Determine the RepeatedComponent stuff
-                result = checkRepeatedComponent(uiComponent);
+                result = RepeatedComponentUtils.isRepeatedComponent(uiComponent);
                 if (result) {
                     // Keep the flag for further reference.
                     setRepeatedComponentFlag(uiComponent);
@@ -80,15 +80,6 @@ public class ComponentInitializerManager {
         return result;
     }
 
-    private boolean checkRepeatedComponent(UIComponent uiComponent) {
-        boolean result = uiComponent.getClass().getName().endsWith(".UIRepeat")
-                || (uiComponent instanceof UIData);
-        if (!result && uiComponent.getParent() != null) {
-            result = checkRepeatedComponent(uiComponent.getParent());
-        }
-        return result;
-    }
-
     private void setInitialized(UIComponent uiComponent) {
         uiComponent.getAttributes().put(ComponentInitializer.class.getName(), Boolean.TRUE);
     }
@@ -99,7 +90,7 @@ public class ComponentInitializerManager {
 
     private boolean performInit(FacesContext facesContext, UIComponent uiComponent) {
         String viewId = facesContext.getViewRoot().getViewId();
-        String clientId = uiComponent.getClientId(facesContext);
+        String clientId = RepeatedComponentUtils.getStorageClientId(facesContext, uiComponent);
 
         Map<String, Object> componentInfo = componentStorage.getComponentInfo(viewId, clientId);
 
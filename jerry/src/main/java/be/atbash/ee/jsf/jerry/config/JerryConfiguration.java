@@ -49,4 +49,37 @@ public class JerryConfiguration extends AbstractConfiguration implements ModuleC
         return renderKitWrapperClass;
     }
 
+    @ConfigEntry
+    public int getStorageMaxEntriesPerView() {
+        return getNonNegativeValue("jerry.storage.max.entries.per.view");
+    }
+
+    @ConfigEntry
+    public int getStorageMaxEntries() {
+        return getNonNegativeValue("jerry.storage.max.entries");
+    }
+
+    /**
+     * In seconds.
+     */
+    @ConfigEntry
+    public int getStorageExpireAfterAccess() {
+        return getNonNegativeValue("jerry.storage.expire.after.access");
+    }
+
+    /**
+     * File where the snapshot of the ComponentStorage is kept between restarts, empty means no snapshot.
+     */
+    @ConfigEntry
+    public String getStorageSnapshotFile() {
+        return getOptionalValue("jerry.storage.snapshot.file", "", String.class);
+    }
+
+    private int getNonNegativeValue(String parameter) {
+        Integer result = getOptionalValue(parameter, 0, Integer.class);
+        if (result < 0) {
+            throw new ConfigurationException(String.format("Parameter '%s' must be zero (no limit) or a positive number", parameter));
+        }
+        return result;
+    }
 }
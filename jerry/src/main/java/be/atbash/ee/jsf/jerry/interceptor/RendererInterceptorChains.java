@@ -0,0 +1,54 @@
+/*
+ * Copyright 2014-2020 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.ee.jsf.jerry.interceptor;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The interceptors, in invocation order, which need to be called for each {@link RendererInterceptorHook}. Interceptors
+ * which don't implement a hook are not part of the chain for that hook.
+ */
+public final class RendererInterceptorChains {
+
+    private static final RendererInterceptor[] EMPTY = new RendererInterceptor[0];
+
+    private final Map<RendererInterceptorHook, RendererInterceptor[]> chains = new EnumMap<>(RendererInterceptorHook.class);
+
+    /**
+     * @param rendererInterceptors The interceptors, already sorted in invocation order.
+     */
+    public RendererInterceptorChains(List<RendererInterceptor> rendererInterceptors) {
+        for (RendererInterceptorHook hook : RendererInterceptorHook.values()) {
+            List<RendererInterceptor> chain = new ArrayList<>();
+            for (RendererInterceptor interceptor : rendererInterceptors) {
+                if (hook.isImplementedBy(interceptor)) {
+                    chain.add(interceptor);
+                }
+            }
+            chains.put(hook, chain.isEmpty() ? EMPTY : chain.toArray(new RendererInterceptor[0]));
+        }
+    }
+
+    /**
+     * The returned array is shared and must not be modified.
+     */
+    public RendererInterceptor[] getChain(RendererInterceptorHook hook) {
+        return chains.get(hook);
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2014-2020 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.ee.jsf.jerry.interceptor;
+
+import be.atbash.util.ProxyUtils;
+
+import javax.faces.component.UIComponent;
+import javax.faces.context.FacesContext;
+import javax.faces.render.Renderer;
+
+/**
+ * The hooks (methods) of a {@link RendererInterceptor}, used to determine which of them are actually implemented by an interceptor.
+ */
+public enum RendererInterceptorHook {
+
+    BEFORE_DECODE("beforeDecode", FacesContext.class, UIComponent.class, Renderer.class),
+    BEFORE_ENCODE_BEGIN("beforeEncodeBegin", FacesContext.class, UIComponent.class, Renderer.class),
+    BEFORE_ENCODE_CHILDREN("beforeEncodeChildren", FacesContext.class, UIComponent.class, Renderer.class),
+    BEFORE_ENCODE_END("beforeEncodeEnd", FacesContext.class, UIComponent.class, Renderer.class),
+    BEFORE_GET_CONVERTED_VALUE("beforeGetConvertedValue", FacesContext.class, UIComponent.class, Object.class, Renderer.class),
+    AFTER_DECODE("afterDecode", FacesContext.class, UIComponent.class, Renderer.class),
+    AFTER_ENCODE_BEGIN("afterEncodeBegin", FacesContext.class, UIComponent.class, Renderer.class),
+    AFTER_ENCODE_CHILDREN("afterEncodeChildren", FacesContext.class, UIComponent.class, Renderer.class),
+    AFTER_ENCODE_END("afterEncodeEnd", FacesContext.class, UIComponent.class, Renderer.class),
+    AFTER_GET_CONVERTED_VALUE("afterGetConvertedValue", FacesContext.class, UIComponent.class, Object.class, Object.class, Renderer.class);
+
+    private final String methodName;
+    private final Class<?>[] parameterTypes;
+
+    RendererInterceptorHook(String methodName, Class<?>... parameterTypes) {
+        this.methodName = methodName;
+        this.parameterTypes = parameterTypes;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    /**
+     * Determines if the interceptor has an implementation of this hook. The empty methods of
+     * {@link AbstractRendererInterceptor} are not considered as an implementation. When the hook can't be determined,
+     * the interceptor is assumed to implement it.
+     *
+     * @param interceptor The interceptor to check, can be a CDI proxy.
+     * @return true when the hook needs to be called for the interceptor.
+     */
+    public boolean isImplementedBy(RendererInterceptor interceptor) {
+        Class<?> interceptorClass = ProxyUtils.getUnproxiedClass(interceptor.getClass());
+        try {
+            return interceptorClass.getMethod(methodName, parameterTypes).getDeclaringClass() != AbstractRendererInterceptor.class;
+        } catch (NoSuchMethodException e) {
+            // Should not happen as the method is defined by the RendererInterceptor interface.
+            return true;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2014-2020 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.ee.jsf.jerry.metadata;
+
+import be.atbash.util.PublicAPI;
+
+import javax.enterprise.inject.Vetoed;
+import java.util.*;
+
+/**
+ * Immutable result of the {@link MetaDataTransformer}s for a component. The {@link CommonMetaDataKeys} are kept as
+ * flags and a primitive size, other keys in a small array, so that the information cached for each component of
+ * each view stays compact. It is a read-only {@code Map} for the existing {@code ComponentInitializer}s.
+ */
+@Vetoed
+@PublicAPI
+public final class ComponentInfo extends AbstractMap<String, Object> {
+
+    public static final ComponentInfo EMPTY = new ComponentInfo((byte) 0, -1, new Object[0]);
+
+    private static final byte REQUIRED = 1;
+    private static final byte PAST = 2;
+    private static final byte FUTURE = 4;
+
+    private final byte flags;
+    private final int size;  // -1 when there is no size
+    private final Object[] others;  // key, value, key, value, ...
+
+    private ComponentInfo(byte flags, int size, Object[] others) {
+        this.flags = flags;
+        this.size = size;
+        this.others = others;
+    }
+
+    /**
+     * Creates the compact representation of the meta-data information. The values of the {@link CommonMetaDataKeys}
+     * are only kept as flag (or primitive size) when they have the value set by the transformers
+     * ({@code Boolean.TRUE} or an {@code Integer}), other values are kept as is.
+     *
+     * @param info The information as created by the transformers.
+     * @return The immutable information.
+     */
+    public static ComponentInfo from(Map<String, Object> info) {
+        if (info instanceof ComponentInfo) {
+            return (ComponentInfo) info;
+        }
+        if (info.isEmpty()) {
+            return EMPTY;
+        }
+        byte flags = 0;
+        int size = -1;
+        List<Object> others = new ArrayList<>();
+        for (Map.Entry<String, Object> entry : info.entrySet()) {
+            byte flag = flagFor(entry.getKey());
+            if (flag != 0 && Boolean.TRUE.equals(entry.getValue())) {
+                flags |= flag;
+            } else if (CommonMetaDataKeys.SIZE.getKey().equals(entry.getKey()) && entry.getValue() instanceof Integer && (Integer) entry.getValue() >= 0) {
+                size = (Integer) entry.getValue();
+            } else {
+                others.add(entry.getKey());
+                others.add(entry.getValue());
+            }
+        }
+        return new ComponentInfo(flags, size, others.toArray());
+    }
+
+    private static byte flagFor(String key) {
+        if (CommonMetaDataKeys.REQUIRED.getKey().equals(key)) {
+            return REQUIRED;
+        }
+        if (CommonMetaDataKeys.PAST.getKey().equals(key)) {
+            return PAST;
+        }
+        if (CommonMetaDataKeys.FUTURE.getKey().equals(key)) {
+            return FUTURE;
+        }
+        return 0;
+    }
+
+    public boolean isRequired() {
+        return (flags & REQUIRED) != 0;
+    }
+
+    public boolean isPast() {
+        return (flags & PAST) != 0;
+    }
+
+    public boolean isFuture() {
+        return (flags & FUTURE) != 0;
+    }
+
+    public boolean hasSize() {
+        return size >= 0;
+    }
+
+    /**
+     * Returns the maximum size of the component.
+     *
+     * @return The size or -1 when no size is defined.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public Object get(Object key) {
+        byte flag = key instanceof String ? flagFor((String) key) : 0;
+        if (flag != 0 && (flags & flag) != 0) {
+            return Boolean.TRUE;
+        }
+        if (hasSize() && CommonMetaDataKeys.SIZE.getKey().equals(key)) {
+            return size;
+        }
+        int idx = indexOf(key);
+        return idx < 0 ? null : others[idx + 1];
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        byte flag = key instanceof String ? flagFor((String) key) : 0;
+        if (flag != 0 && (flags & flag) != 0) {
+            return true;
+        }
+        if (hasSize() && CommonMetaDataKeys.SIZE.getKey().equals(key)) {
+            return true;
+        }
+        return indexOf(key) >= 0;
+    }
+
+    private int indexOf(Object key) {
+        for (int i = 0; i < others.length; i += 2) {
+            if (Objects.equals(others[i], key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int size() {
+        return Integer.bitCount(flags) + (hasSize() ? 1 : 0) + others.length / 2;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        // Only created on request, as initializers only use get() and containsKey().
+        Set<Entry<String, Object>> result = new LinkedHashSet<>();
+        if (isRequired()) {
+            result.add(new SimpleImmutableEntry<>(CommonMetaDataKeys.REQUIRED.getKey(), Boolean.TRUE));
+        }
+        if (hasSize()) {
+            result.add(new SimpleImmutableEntry<>(CommonMetaDataKeys.SIZE.getKey(), size));
+        }
+        if (isPast()) {
+            result.add(new SimpleImmutableEntry<>(CommonMetaDataKeys.PAST.getKey(), Boolean.TRUE));
+        }
+        if (isFuture()) {
+            result.add(new SimpleImmutableEntry<>(CommonMetaDataKeys.FUTURE.getKey(), Boolean.TRUE));
+        }
+        for (int i = 0; i < others.length; i += 2) {
+            result.add(new SimpleImmutableEntry<>((String) others[i], others[i + 1]));
+        }
+        return Collections.unmodifiableSet(result);
+    }
+}
@@ -20,6 +20,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.enterprise.inject.Vetoed;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
@@ -30,11 +31,23 @@ import java.util.Objects;
 @Vetoed
 @PublicAPI
 public class MetaDataEntry {
-    protected final Logger logger = LoggerFactory.getLogger(this.getClass());
+    // An entry is created for each meta-data of each component, the logger is looked up only once per class.
+    private static final ClassValue<Logger> LOGGERS = new ClassValue<Logger>() {
+        @Override
+        protected Logger computeValue(Class<?> type) {
+            return LoggerFactory.getLogger(type);
+        }
+    };
+
+    // Shared until a property is set, the properties are mostly replaced by those of the PropertyInformation.
+    private static final Map<String, Object> NO_PROPERTIES = Collections.emptyMap();
+
+    protected final Logger logger = LOGGERS.get(this.getClass());
 
     private String key;
+    private Class<?> type;
     private Object value;
-    private Map<String, Object> properties = new HashMap<>();
+    private Map<String, Object> properties = NO_PROPERTIES;
 
     /**
      * Returns the key which identifies the meta-data.
@@ -58,6 +71,25 @@ public class MetaDataEntry {
         this.key = key;
     }
 
+    /**
+     * Returns the type of the meta-data, like the annotation type for a constraint, when known.
+     *
+     * @return type of the meta-data or null.
+     */
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * Sets the type of the meta-data, so that it doesn't need to be determined from the value or the key. Transformers
+     * with handled types are selected on this type, see {@link MetaDataTransformer#getHandledTypes()}.
+     *
+     * @param type type of the meta-data, like the annotation type for a constraint.
+     */
+    public void setType(Class<?> type) {
+        this.type = type;
+    }
+
     /**
      * Returns the meta-data or a data-structure which represents the meta-data.
      *
@@ -133,6 +165,9 @@ public class MetaDataEntry {
         if (logger.isTraceEnabled()) {
             logger.trace("new property added key: " + key + " value: " + value + " for metadata-key: " + this.key);
         }
+        if (this.properties == NO_PROPERTIES) {
+            this.properties = new HashMap<>();
+        }
         this.properties.put(key, value);
     }
 
@@ -15,6 +15,9 @@
  */
 package be.atbash.ee.jsf.jerry.metadata;
 
+import java.util.Collections;
+import java.util.Set;
+
 /**
  * The {@link be.atbash.ee.jsf.jerry.storage.ComponentStorage} is only aware of objects which are implementing this interface.
  * A plugin to Jerry can use any object structure as long as it follows the contracts of the MetaDataHolder.
@@ -29,4 +32,14 @@ public interface MetaDataHolder {
      */
     MetaDataEntry[] getMetaDataEntries();
 
+    /**
+     * Returns the classes on which the meta-data is based, like the class containing the property and its super
+     * classes. Used to verify if a snapshot of the {@link be.atbash.ee.jsf.jerry.storage.ComponentStorage} is still
+     * valid.
+     *
+     * @return the classes on which the meta-data is based.
+     */
+    default Set<Class<?>> getInvolvedClasses() {
+        return Collections.emptySet();
+    }
 }
@@ -17,7 +17,9 @@ package be.atbash.ee.jsf.jerry.metadata;
 
 import be.atbash.util.PublicAPI;
 
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * {@link be.atbash.ee.jsf.jerry.metadata.MetaDataTransformer MetaDataTransformers}
@@ -32,6 +34,10 @@ import java.util.Map;
  * to initialize JSF components based on the found meta-data.
  * <p/>
  * {@link be.atbash.ee.jsf.jerry.metadata.CommonMetaDataKeys} provides the keys used by Jerry and Valerie.
+ * <p/>
+ * A transformer which declares the types it handles ({@link #getHandledTypes()}) is only called for the
+ * {@link MetaDataEntry MetaDataEntries} with one of these types as type ({@link MetaDataEntry#getType()}). For entries
+ * without type, the type of the annotation which is the value or otherwise the key (as name of the type) is used.
  */
 //*Transformer instead of *Converter to avoid naming confusion
 @PublicAPI
@@ -43,4 +49,26 @@ public interface MetaDataTransformer {
      * @return Map with the converted information. Return an empty map and not null.
      */
     Map<String, Object> convertMetaData(MetaDataEntry metaData);
+
+    /**
+     * Converts the information of a {@link MetaDataEntry} into an independent format, directly into the result of
+     * all transformers. Override to avoid the creation of a Map for each entry.
+     *
+     * @param metaData The meta-data which should be converted.
+     * @param result   Map with the converted information of the component.
+     */
+    default void convertMetaData(MetaDataEntry metaData, Map<String, Object> result) {
+        result.putAll(convertMetaData(metaData));
+    }
+
+    /**
+     * The types, like annotation types, handled by this transformer. The transformer is only called for entries with
+     * one of these types as type, entries without a type are only passed to the transformers without handled types.
+     * An empty set (default) means that the transformer is called for all entries.
+     *
+     * @return The handled types, or an empty set for all entries.
+     */
+    default Set<Class<?>> getHandledTypes() {
+        return Collections.emptySet();
+    }
 }
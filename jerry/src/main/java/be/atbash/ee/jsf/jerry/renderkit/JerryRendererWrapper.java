@@ -16,6 +16,7 @@
 package be.atbash.ee.jsf.jerry.renderkit;
 
 import be.atbash.ee.jsf.jerry.interceptor.RendererInterceptor;
+import be.atbash.ee.jsf.jerry.interceptor.RendererInterceptorHook;
 import be.atbash.ee.jsf.jerry.interceptor.exception.SkipAfterInterceptorsException;
 import be.atbash.ee.jsf.jerry.interceptor.exception.SkipBeforeInterceptorsException;
 import be.atbash.ee.jsf.jerry.interceptor.exception.SkipRendererDelegationException;
@@ -28,7 +29,6 @@ import javax.faces.context.FacesContext;
 import javax.faces.convert.ConverterException;
 import javax.faces.render.Renderer;
 import java.io.IOException;
-import java.util.List;
 
 /**
  *
@@ -37,11 +37,31 @@ public class JerryRendererWrapper extends Renderer {
     protected Logger logger = LoggerFactory.getLogger(this.getClass());
 
     protected Renderer wrapped;
-    private List<RendererInterceptor> rendererInterceptors;
+
+    // Per hook only the interceptors which implement it, so that phases without interceptors are skipped.
+    private final RendererInterceptor[] beforeDecodeInterceptors;
+    private final RendererInterceptor[] beforeEncodeBeginInterceptors;
+    private final RendererInterceptor[] beforeEncodeChildrenInterceptors;
+    private final RendererInterceptor[] beforeEncodeEndInterceptors;
+    private final RendererInterceptor[] beforeGetConvertedValueInterceptors;
+    private final RendererInterceptor[] afterDecodeInterceptors;
+    private final RendererInterceptor[] afterEncodeBeginInterceptors;
+    private final RendererInterceptor[] afterEncodeChildrenInterceptors;
+    private final RendererInterceptor[] afterEncodeEndInterceptors;
+    private final RendererInterceptor[] afterGetConvertedValueInterceptors;
 
     public JerryRendererWrapper(Renderer renderer) {
         this.wrapped = renderer;
-        rendererInterceptors = InvocationOrderedArtifactsProvider.getRendererInterceptors();
+        beforeDecodeInterceptors = InvocationOrderedArtifactsProvider.getRendererInterceptors(RendererInterceptorHook.BEFORE_DECODE);
+        beforeEncodeBeginInterceptors = InvocationOrderedArtifactsProvider.getRendererInterceptors(RendererInterceptorHook.BEFORE_ENCODE_BEGIN);
+        beforeEncodeChildrenInterceptors = InvocationOrderedArtifactsProvider.getRendererInterceptors(RendererInterceptorHook.BEFORE_ENCODE_CHILDREN);
+        beforeEncodeEndInterceptors = InvocationOrderedArtifactsProvider.getRendererInterceptors(RendererInterceptorHook.BEFORE_ENCODE_END);
+        beforeGetConvertedValueInterceptors = InvocationOrderedArtifactsProvider.getRendererInterceptors(RendererInterceptorHook.BEFORE_GET_CONVERTED_VALUE);
+        afterDecodeInterceptors = InvocationOrderedArtifactsProvider.getRendererInterceptors(RendererInterceptorHook.AFTER_DECODE);
+        afterEncodeBeginInterceptors = InvocationOrderedArtifactsProvider.getRendererInterceptors(RendererInterceptorHook.AFTER_ENCODE_BEGIN);
+        afterEncodeChildrenInterceptors = InvocationOrderedArtifactsProvider.getRendererInterceptors(RendererInterceptorHook.AFTER_ENCODE_CHILDREN);
+        afterEncodeEndInterceptors = InvocationOrderedArtifactsProvider.getRendererInterceptors(RendererInterceptorHook.AFTER_ENCODE_END);
+        afterGetConvertedValueInterceptors = InvocationOrderedArtifactsProvider.getRendererInterceptors(RendererInterceptorHook.AFTER_GET_CONVERTED_VALUE);
     }
 
     @Override
@@ -49,7 +69,7 @@ public class JerryRendererWrapper extends Renderer {
         boolean delegateToWrappedRenderer = true;
 
         try {
-            for (RendererInterceptor interceptor : rendererInterceptors) {
+            for (RendererInterceptor interceptor : beforeDecodeInterceptors) {
                 try {
                     interceptor.beforeDecode(facesContext, uiComponent, this.wrapped);
                 } catch (SkipRendererDelegationException e) {
@@ -75,7 +95,7 @@ public class JerryRendererWrapper extends Renderer {
         }
 
         try {
-            for (RendererInterceptor interceptor : rendererInterceptors) {
+            for (RendererInterceptor interceptor : afterDecodeInterceptors) {
                 interceptor.afterDecode(facesContext, uiComponent, this.wrapped);
             }
         } catch (SkipAfterInterceptorsException e) {
@@ -91,7 +111,7 @@ public class JerryRendererWrapper extends Renderer {
         boolean delegateToWrappedRenderer = true;
 
         try {
-            for (RendererInterceptor interceptor : rendererInterceptors) {
+            for (RendererInterceptor interceptor : beforeEncodeBeginInterceptors) {
                 try {
                     interceptor.beforeEncodeBegin(facesContext, uiComponent, this.wrapped);
                 } catch (SkipRendererDelegationException e) {
@@ -117,7 +137,7 @@ public class JerryRendererWrapper extends Renderer {
         }
 
         try {
-            for (RendererInterceptor interceptor : rendererInterceptors) {
+            for (RendererInterceptor interceptor : afterEncodeBeginInterceptors) {
                 interceptor.afterEncodeBegin(facesContext, uiComponent, this.wrapped);
             }
         } catch (SkipAfterInterceptorsException e) {
@@ -134,7 +154,7 @@ public class JerryRendererWrapper extends Renderer {
         boolean delegateToWrappedRenderer = true;
 
         try {
-            for (RendererInterceptor interceptor : rendererInterceptors) {
+            for (RendererInterceptor interceptor : beforeEncodeChildrenInterceptors) {
                 try {
                     interceptor.beforeEncodeChildren(facesContext, uiComponent, this.wrapped);
                 } catch (SkipRendererDelegationException e) {
@@ -160,7 +180,7 @@ public class JerryRendererWrapper extends Renderer {
         }
 
         try {
-            for (RendererInterceptor interceptor : rendererInterceptors) {
+            for (RendererInterceptor interceptor : afterEncodeChildrenInterceptors) {
                 interceptor.afterEncodeChildren(facesContext, uiComponent, this.wrapped);
             }
         } catch (SkipAfterInterceptorsException e) {
@@ -177,7 +197,7 @@ public class JerryRendererWrapper extends Renderer {
         boolean delegateToWrappedRenderer = true;
 
         try {
-            for (RendererInterceptor interceptor : rendererInterceptors) {
+            for (RendererInterceptor interceptor : beforeEncodeEndInterceptors) {
                 try {
                     interceptor.beforeEncodeEnd(facesContext, uiComponent, this.wrapped);
                 } catch (SkipRendererDelegationException e) {
@@ -203,7 +223,7 @@ public class JerryRendererWrapper extends Renderer {
         }
 
         try {
-            for (RendererInterceptor interceptor : rendererInterceptors) {
+            for (RendererInterceptor interceptor : afterEncodeEndInterceptors) {
                 interceptor.afterEncodeEnd(facesContext, uiComponent, this.wrapped);
             }
         } catch (SkipAfterInterceptorsException e) {
@@ -231,7 +251,7 @@ public class JerryRendererWrapper extends Renderer {
         Object convertedObject = null;
 
         try {
-            for (RendererInterceptor interceptor : rendererInterceptors) {
+            for (RendererInterceptor interceptor : beforeGetConvertedValueInterceptors) {
                 try {
                     interceptor.beforeGetConvertedValue(facesContext, uiComponent, o, this.wrapped);
                 } catch (SkipRendererDelegationException e) {
@@ -256,7 +276,7 @@ public class JerryRendererWrapper extends Renderer {
         }
 
         try {
-            for (RendererInterceptor interceptor : rendererInterceptors) {
+            for (RendererInterceptor interceptor : afterGetConvertedValueInterceptors) {
                 interceptor.afterGetConvertedValue(facesContext, uiComponent, o, convertedObject, this.wrapped);
             }
         } catch (SkipAfterInterceptorsException e) {
@@ -15,176 +15,751 @@
  */
 package be.atbash.ee.jsf.jerry.storage;
 
+import be.atbash.ee.jsf.jerry.config.JerryConfiguration;
 import be.atbash.ee.jsf.jerry.metadata.*;
+import be.atbash.ee.jsf.jerry.storage.ComponentStorageSnapshot.SnapshotEntry;
 import be.atbash.util.CDIUtils;
+import be.atbash.util.ProxyUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.io.*;
+import java.lang.annotation.Annotation;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
- *
+ * Stores the meta data of the components of the views. Since this is an application wide storage, accessed by all
+ * request threads, only concurrent structures are used.
+ * The storage is indexed by view id and then by client id so that the information of a component, and all components
+ * of a view, can be retrieved directly.
+ * The number of components and the time they are kept can be limited through the configuration. When a limit is
+ * exceeded, the least recently used components are removed in batch.
+ * The transformed component info and recording information can be kept in a snapshot file between restarts of the
+ * application, see {@link #exportSnapshot(Path)}.
  */
 @ApplicationScoped
 public class ComponentStorage {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(ComponentStorage.class);
+
+    // Marks within the holders of a component that the entry isn't available.
+    private static final MetaDataHolder NOT_AVAILABLE = new MetaDataHolder() {
+        @Override
+        public MetaDataEntry[] getMetaDataEntries() {
+            return new MetaDataEntry[0];
+        }
+    };
+
     private List<MetaDataEnhancer> enhancers;
     private List<MetaDataTransformer> transformers;
 
-    private Map<StorageKey, MetaDataHolder> cache = new HashMap<>();
-    private Set<StorageKey> entryPossible = new HashSet<>();
-    private Map<ComponentKey, Map<String, Object>> componentInfo = new HashMap<>();
+    // Transformers to call for the key of an entry, and the transformers for all other keys.
+    private Map<Class<?>, MetaDataTransformer[]> transformersByType;
+    private Map<String, MetaDataTransformer[]> transformersByName;
+    private MetaDataTransformer[] generalTransformers;
+
+    @Inject
+    private JerryConfiguration jerryConfiguration;
+
+    private ConcurrentMap<String, ViewStorage> views = new ConcurrentHashMap<>();
+
+    // Limits, 0 means no limit.
+    private int maxEntriesPerView;
+    private int maxEntries;
+    private long expireAfterAccess;  // nanoseconds
+    private boolean trackAccess;
+
+    private final AtomicInteger entryCount = new AtomicInteger();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private volatile long nextExpiration;
+
+    private String snapshotFile;
+    // The hash of the view resources is only needed for the snapshot.
+    private boolean snapshotEnabled;
+
+    // Hash of the view resource, null when it can't be determined.
+    private Function<String, byte[]> viewDigester = ComponentStorageSnapshot::digestView;
 
     @PostConstruct
     public void init() {
         transformers = CDIUtils.retrieveInstances(MetaDataTransformer.class);
         enhancers = CDIUtils.retrieveInstances(MetaDataEnhancer.class);
+        defineTransformerDispatch();
+
+        maxEntriesPerView = jerryConfiguration.getStorageMaxEntriesPerView();
+        maxEntries = jerryConfiguration.getStorageMaxEntries();
+        expireAfterAccess = TimeUnit.SECONDS.toNanos(jerryConfiguration.getStorageExpireAfterAccess());
+        trackAccess = maxEntriesPerView > 0 || maxEntries > 0 || expireAfterAccess > 0;
+        nextExpiration = System.nanoTime() + expireAfterAccess;
+
+        snapshotFile = jerryConfiguration.getStorageSnapshotFile();
+        snapshotEnabled = !snapshotFile.isEmpty();
+        if (snapshotEnabled && Files.exists(Paths.get(snapshotFile))) {
+            try {
+                importSnapshot(Paths.get(snapshotFile));
+            } catch (IOException e) {
+                LOGGER.warn(String.format("Unable to read the snapshot %s of the component storage : %s", snapshotFile, e.getMessage()));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(String.format("Component storage at shutdown : %s", getStatistics()));
+        }
+        if (snapshotFile != null && !snapshotFile.isEmpty()) {
+            try {
+                exportSnapshot(Paths.get(snapshotFile));
+            } catch (IOException e) {
+                LOGGER.warn(String.format("Unable to write the snapshot %s of the component storage : %s", snapshotFile, e.getMessage()));
+            }
+        }
     }
 
     public boolean containsEntry(String viewId, String clientId, Class<? extends MetaDataHolder> key) {
-        return cache.containsKey(new StorageKey(viewId, clientId, key));
+        MetaDataHolder holder = getHolder(viewId, clientId, key);
+        return holder != null && holder != NOT_AVAILABLE;
     }
 
     public void storeEntry(String viewId, String clientId, MetaDataHolder value) {
+        enhance(value);
+        ComponentEntry entry = getOrCreateComponentEntry(viewId, clientId);
+        synchronized (entry) {
+            entry.holders.put(value.getClass(), value);
+            entry.holdersChanged();
+        }
+    }
+
+    /**
+     * Returns the entry for the component, and when there is none yet, determines it with the supplier and stores it
+     * under the key. The supplier is called at most once for a component, even when multiple threads request the
+     * entry at the same time. When the supplier returns null, the entry is marked as not available (see
+     * {@link #isEntryPossibleFor(String, String, Class)}) and null is returned.
+     *
+     * @param viewId   The view id.
+     * @param clientId The client id of the component.
+     * @param key      The type of the entry, used as key.
+     * @param supplier Determines the entry, can return null.
+     * @param <T>      The type of the entry.
+     * @return The stored entry or null when not available for the component (or only the component info and
+     * recording information are available since the entry is restored from a snapshot).
+     */
+    public <T extends MetaDataHolder> T computeEntryIfAbsent(String viewId, String clientId, Class<T> key, Supplier<? extends T> supplier) {
+        ComponentEntry entry = getOrCreateComponentEntry(viewId, clientId);
+        MetaDataHolder holder = entry.holders.get(key);
+        if (holder == null) {
+            synchronized (entry) {
+                holder = entry.holders.get(key);
+                if (holder == null) {
+                    missCount.increment();
+                    T value = supplier.get();
+                    if (value == null) {
+                        holder = NOT_AVAILABLE;
+                    } else {
+                        enhance(value);
+                        holder = value;
+                    }
+                    entry.holders.put(key, holder);
+                    entry.holdersChanged();
+                } else {
+                    hitCount.increment();
+                }
+            }
+        } else {
+            hitCount.increment();
+        }
+        return key.isInstance(holder) ? key.cast(holder) : null;
+    }
+
+    private void enhance(MetaDataHolder value) {
         for (MetaDataEnhancer enhancer : enhancers) {
             enhancer.enhanceData(value);
         }
-        cache.put(new StorageKey(viewId, clientId, value.getClass()), value);
     }
 
     public <T extends MetaDataHolder> T getEntry(String viewId, String clientId, Class<T> key) {
-        return (T) cache.get(new StorageKey(viewId, clientId, key));
+        MetaDataHolder holder = getHolder(viewId, clientId, key);
+        if (holder == null || holder == NOT_AVAILABLE) {
+            missCount.increment();
+            return null;
+        }
+        hitCount.increment();
+        return key.isInstance(holder) ? key.cast(holder) : null;
     }
 
     public boolean isEntryPossibleFor(String viewId, String clientId, Class<? extends MetaDataHolder> key) {
-        return !entryPossible.contains(new StorageKey(viewId, clientId, key));
+        return getHolder(viewId, clientId, key) != NOT_AVAILABLE;
     }
 
     public void setNotAvailable(String viewId, String clientId, Class<? extends MetaDataHolder> key) {
-        entryPossible.add(new StorageKey(viewId, clientId, key));
+        ComponentEntry entry = getOrCreateComponentEntry(viewId, clientId);
+        synchronized (entry) {
+            entry.holders.put(key, NOT_AVAILABLE);
+            entry.holdersChanged();
+        }
     }
 
-    public Map<String, Object> getComponentInfo(String viewId, String clientId) {
-        ComponentKey key = new ComponentKey(viewId, clientId);
-        Map<String, Object> result = componentInfo.get(key);
+    public ComponentInfo getComponentInfo(String viewId, String clientId) {
+        ComponentEntry entry = getComponentEntry(viewId, clientId);
+        if (entry == null) {
+            return ComponentInfo.EMPTY;
+        }
+        ComponentInfo result = entry.componentInfo;
         if (result == null) {
-
-            result = transformMetaData(getAllMetaDataHolders(key));
-            componentInfo.put(key, result);
+            synchronized (entry) {
+                result = entry.componentInfo;
+                if (result == null) {
+                    result = transformMetaData(entry.holders.values());
+                    entry.componentInfo = result;
+                }
+            }
         }
         return result;
     }
 
-    private Map<String, Object> transformMetaData(List<MetaDataHolder> allMetaDataHolders) {
+    /**
+     * Determines, for each type handled by a transformer, the transformers to call (in the order of the transformers,
+     * including those without handled types). Other entries are only passed to the transformers without handled types.
+     * The transformers can also be found by the name of the type, for entries which only have the key.
+     */
+    private void defineTransformerDispatch() {
+        Set<Class<?>> handledTypes = new HashSet<>();
+        List<MetaDataTransformer> general = new ArrayList<>();
+        for (MetaDataTransformer transformer : transformers) {
+            Set<Class<?>> types = transformer.getHandledTypes();
+            if (types.isEmpty()) {
+                general.add(transformer);
+            }
+            handledTypes.addAll(types);
+        }
+
+        Map<Class<?>, MetaDataTransformer[]> dispatch = new HashMap<>();
+        Map<String, MetaDataTransformer[]> dispatchByName = new HashMap<>();
+        for (Class<?> handledType : handledTypes) {
+            List<MetaDataTransformer> typeTransformers = new ArrayList<>();
+            for (MetaDataTransformer transformer : transformers) {
+                Set<Class<?>> types = transformer.getHandledTypes();
+                if (types.isEmpty() || types.contains(handledType)) {
+                    typeTransformers.add(transformer);
+                }
+            }
+            MetaDataTransformer[] dispatchTransformers = typeTransformers.toArray(new MetaDataTransformer[0]);
+            dispatch.put(handledType, dispatchTransformers);
+            dispatchByName.put(handledType.getName(), dispatchTransformers);
+        }
+        transformersByType = dispatch;
+        transformersByName = dispatchByName;
+        generalTransformers = general.toArray(new MetaDataTransformer[0]);
+    }
+
+    private ComponentInfo transformMetaData(Collection<MetaDataHolder> metaDataHolders) {
         Map<String, Object> result = new HashMap<>();
-        for (MetaDataHolder holder : allMetaDataHolders) {
+        for (MetaDataHolder holder : metaDataHolders) {
+            if (holder instanceof RestoredMetaDataHolder) {
+                result.putAll(((RestoredMetaDataHolder) holder).getComponentInfo());
+                continue;
+            }
             for (MetaDataEntry entry : holder.getMetaDataEntries()) {
-                for (MetaDataTransformer transformer : transformers) {
+                for (MetaDataTransformer transformer : getTransformers(entry)) {
+                    transformer.convertMetaData(entry, result);
+                }
+            }
+        }
+        return ComponentInfo.from(result);
+    }
 
-                    result.putAll(transformer.convertMetaData(entry));
+    /**
+     * The transformers for the type of the entry. Entries without type (like those of other extractors or restored
+     * from a snapshot) use the type of the annotation which is the value, or otherwise the key as name of the type.
+     */
+    private MetaDataTransformer[] getTransformers(MetaDataEntry entry) {
+        Class<?> type = entry.getType();
+        if (type == null && entry.getValue() instanceof Annotation) {
+            type = ((Annotation) entry.getValue()).annotationType();
+        }
+        MetaDataTransformer[] result;
+        if (type != null) {
+            result = transformersByType.get(type);
+        } else {
+            result = entry.getKey() == null ? null : transformersByName.get(entry.getKey());
+        }
+        return result == null ? generalTransformers : result;
+    }
+
+    /**
+     * Returns the recording information of the component. The information is collected once for the component, and
+     * again only after its entries are changed, so that components without recording information only cost a lookup.
+     */
+    public List<?> getRecordingInformation(String viewId, String clientId) {
+        ComponentEntry entry = getComponentEntry(viewId, clientId);
+        if (entry == null) {
+            return Collections.emptyList();
+        }
+        List<?> result = entry.recordingInformation;
+        if (result == null) {
+            synchronized (entry) {
+                result = entry.recordingInformation;
+                if (result == null) {
+                    List<Object> componentInformation = new ArrayList<>();
+                    for (MetaDataHolder holder : entry.holders.values()) {
+                        addRecordingInformation(holder, componentInformation);
+                    }
+                    result = componentInformation.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(componentInformation);
+                    entry.recordingInformation = result;
                 }
             }
         }
         return result;
     }
 
-    private List<MetaDataHolder> getAllMetaDataHolders(ComponentKey key) {
-        List<MetaDataHolder> result = new ArrayList<>();
-        for (Map.Entry<StorageKey, MetaDataHolder> entry : cache.entrySet()) {
-            if (entry.getKey().isMatchingComponentKey(key)) {
-                result.add(entry.getValue());
+    private static void addRecordingInformation(MetaDataHolder holder, List<Object> result) {
+        for (MetaDataEntry entry : holder.getMetaDataEntries()) {
+            List<?> property = entry.getProperty(PropertyInformationKeys.RECORDING_INFORMATION, List.class);
+            if (property != null) {
+                result.addAll(property);
             }
         }
-        return result;
     }
 
-    public List<?> getRecordingInformation(String viewId, String clientId) {
-        List<?> result = new ArrayList<>();
-        ComponentKey key = new ComponentKey(viewId, clientId);
-        List<MetaDataHolder> allMetaDataHolders = getAllMetaDataHolders(key);
-        for (MetaDataHolder holder : allMetaDataHolders) {
-            for (MetaDataEntry entry : holder.getMetaDataEntries()) {
-                List property = entry.getProperty(PropertyInformationKeys.RECORDING_INFORMATION, List.class);
-                if (property != null) {
-                    result.addAll(property);
-                }
+    /**
+     * Writes the transformed component info and the recording information of all components to the file. Components
+     * with values which can't be written (no basic type, List, Map or {@link SnapshotValue}) are skipped, as are the
+     * components of a view of which the view resource couldn't be read.
+     *
+     * @param file The snapshot file.
+     * @return The number of components written.
+     * @throws IOException When writing fails.
+     */
+    public int exportSnapshot(Path file) throws IOException {
+        List<SnapshotEntry> entries = new ArrayList<>();
+        for (Map.Entry<String, ViewStorage> view : views.entrySet()) {
+            byte[] viewDigest = view.getValue().getViewDigest();
+            if (viewDigest == null) {
+                // Not determined when the view was stored (no snapshot file configured or view resource not readable)
+                viewDigest = viewDigester.apply(view.getKey());
             }
+            for (Map.Entry<String, ComponentEntry> component : view.getValue().components.entrySet()) {
+                entries.add(createSnapshotEntry(view.getKey(), viewDigest, component.getKey(), component.getValue()));
+            }
+        }
+
+        ComponentStorageSnapshot snapshot = new ComponentStorageSnapshot(getClassLoader());
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        int result;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tempFile))) {
+            result = snapshot.write(out, getGlobalClasses(), entries);
         }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+
+        LOGGER.info(String.format("Snapshot of the component storage written to %s, %s components (%s skipped)", file, result, snapshot.getSkippedCount()));
         return result;
     }
 
-    private static class ComponentKey {
-        private String viewId;
-        private String clientId;
+    private SnapshotEntry createSnapshotEntry(String viewId, byte[] viewDigest, String clientId, ComponentEntry entry) {
+        Map<Class<? extends MetaDataHolder>, RestoredMetaDataHolder> holders = new LinkedHashMap<>();
+        synchronized (entry) {
+            for (Map.Entry<Class<? extends MetaDataHolder>, MetaDataHolder> holder : entry.holders.entrySet()) {
+                holders.put(holder.getKey(), createRestoredHolder(holder.getValue()));
+            }
+        }
+        return new SnapshotEntry(viewId, viewDigest, clientId, holders);
+    }
 
-        public ComponentKey(String viewId, String clientId) {
-            this.viewId = viewId;
-            this.clientId = clientId;
+    private RestoredMetaDataHolder createRestoredHolder(MetaDataHolder holder) {
+        if (holder == NOT_AVAILABLE) {
+            return null;
+        }
+        if (holder instanceof RestoredMetaDataHolder) {
+            return (RestoredMetaDataHolder) holder;
         }
+        List<Object> recordingInformation = new ArrayList<>();
+        addRecordingInformation(holder, recordingInformation);
+
+        Set<Class<?>> involvedClasses = new HashSet<>(holder.getInvolvedClasses());
+        involvedClasses.add(holder.getClass());
+        for (MetaDataEntry metaDataEntry : holder.getMetaDataEntries()) {
+            if (metaDataEntry.getValue() instanceof Annotation) {
+                involvedClasses.add(((Annotation) metaDataEntry.getValue()).annotationType());
+            }
+        }
+        return new RestoredMetaDataHolder(transformMetaData(Collections.singletonList(holder)), recordingInformation, involvedClasses);
+    }
 
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) {
-                return true;
+    /**
+     * Restores the components from a snapshot written by {@link #exportSnapshot(Path)}. Components of which one of
+     * the involved classes or the view resource is changed are not restored, nor any component when the transformers
+     * or enhancers are changed. When the view resource can't be read yet (no active request), the restored components
+     * of the view are verified at the first access within a request and removed when the view is changed.
+     * Restored components only have the component info and recording information, not the original meta-data.
+     * Components already in the storage are not overwritten.
+     *
+     * @param file The snapshot file.
+     * @return The number of components restored.
+     * @throws IOException When reading fails or the file is no snapshot.
+     */
+    public int importSnapshot(Path file) throws IOException {
+        ComponentStorageSnapshot snapshot = new ComponentStorageSnapshot(getClassLoader());
+        List<SnapshotEntry> entries;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            entries = snapshot.read(in, getGlobalClasses());
+        }
+
+        Map<String, Boolean> validViews = new HashMap<>();
+        int result = 0;
+        for (SnapshotEntry snapshotEntry : entries) {
+            String viewId = snapshotEntry.getViewId();
+            byte[] snapshotDigest = snapshotEntry.getViewDigest();
+            if (!validViews.computeIfAbsent(viewId, id -> isViewUnchanged(id, snapshotDigest))) {
+                continue;
             }
-            if (!(o instanceof ComponentKey)) {
-                return false;
+            ComponentEntry entry = getOrCreateComponentEntry(viewId, snapshotEntry.getClientId());
+            entry.viewStorage.setSnapshotDigest(snapshotDigest);
+            synchronized (entry) {
+                for (Map.Entry<Class<? extends MetaDataHolder>, RestoredMetaDataHolder> holder : snapshotEntry.getHolders().entrySet()) {
+                    entry.holders.putIfAbsent(holder.getKey(), holder.getValue() == null ? NOT_AVAILABLE : holder.getValue());
+                }
+                entry.holdersChanged();
             }
+            result++;
+        }
+
+        LOGGER.info(String.format("Snapshot of the component storage read from %s, %s components restored (%s skipped)", file, result, snapshot.getSkippedCount() + entries.size() - result));
+        return result;
+    }
+
+    /**
+     * Unchanged, or unknown when the view resource can't be read yet.
+     */
+    private boolean isViewUnchanged(String viewId, byte[] snapshotDigest) {
+        ViewStorage viewStorage = views.get(viewId);
+        byte[] digest = viewStorage == null || viewStorage.viewDigest == null ? viewDigester.apply(viewId) : viewStorage.viewDigest;
+        return digest == null || MessageDigest.isEqual(digest, snapshotDigest);
+    }
+
+    /**
+     * The classes which determine the information of all components.
+     */
+    private Set<Class<?>> getGlobalClasses() {
+        Set<Class<?>> result = new HashSet<>();
+        for (MetaDataTransformer transformer : transformers) {
+            result.add(ProxyUtils.getUnproxiedClass(transformer.getClass()));
+        }
+        for (MetaDataEnhancer enhancer : enhancers) {
+            result.add(ProxyUtils.getUnproxiedClass(enhancer.getClass()));
+        }
+        return result;
+    }
 
-            ComponentKey that = (ComponentKey) o;
+    private static ClassLoader getClassLoader() {
+        ClassLoader result = Thread.currentThread().getContextClassLoader();
+        return result == null ? ComponentStorage.class.getClassLoader() : result;
+    }
+
+    /**
+     * Returns the ids of the views which have information stored.
+     */
+    public Set<String> getViewIds() {
+        return Collections.unmodifiableSet(views.keySet());
+    }
+
+    /**
+     * Returns the client ids of the components of the view which have information stored.
+     */
+    public Set<String> getClientIds(String viewId) {
+        ViewStorage viewStorage = getViewStorage(viewId);
+        if (viewStorage == null) {
+            return Collections.emptySet();
+        }
+        return Collections.unmodifiableSet(viewStorage.components.keySet());
+    }
+
+    /**
+     * Removes all information of the components of the view.
+     */
+    public void evictView(String viewId) {
+        ViewStorage viewStorage = views.remove(viewId);
+        if (viewStorage != null) {
+            removeComponents(viewStorage);
+        }
+    }
 
-            if (!clientId.equals(that.clientId)) {
-                return false;
+    /**
+     * Removes the components of a view storage which is removed from the views. Components are counted one by one, as
+     * other threads can still add a component to the view storage they just retrieved (see
+     * {@link #getOrCreateComponentEntry(String, String)}).
+     */
+    private void removeComponents(ViewStorage viewStorage) {
+        viewStorage.removed = true;
+        for (Map.Entry<String, ComponentEntry> entry : viewStorage.components.entrySet()) {
+            if (viewStorage.components.remove(entry.getKey(), entry.getValue())) {
+                entryCount.decrementAndGet();
             }
-            return viewId.equals(that.viewId);
+        }
+    }
 
+    /**
+     * Removes all stored information.
+     */
+    public void evictAll() {
+        for (String viewId : views.keySet()) {
+            evictView(viewId);
         }
+    }
 
-        @Override
-        public int hashCode() {
-            int result = viewId.hashCode();
-            result = 31 * result + clientId.hashCode();
-            return result;
+    /**
+     * Returns a snapshot of the hit, miss and eviction counters and the current size of the storage.
+     */
+    public StorageStatistics getStatistics() {
+        return new StorageStatistics(hitCount.sum(), missCount.sum(), evictionCount.sum(), entryCount.get(), views.size());
+    }
+
+    private MetaDataHolder getHolder(String viewId, String clientId, Class<? extends MetaDataHolder> key) {
+        ComponentEntry entry = getComponentEntry(viewId, clientId);
+        return entry == null ? null : entry.holders.get(key);
+    }
+
+    private ComponentEntry getComponentEntry(String viewId, String clientId) {
+        ViewStorage viewStorage = getViewStorage(viewId);
+        ComponentEntry entry = viewStorage == null ? null : viewStorage.components.get(clientId);
+        if (entry != null && trackAccess) {
+            touch(entry);
         }
+        return entry;
     }
 
-    private static class StorageKey extends ComponentKey {
+    private ComponentEntry getOrCreateComponentEntry(String viewId, String clientId) {
+        ViewStorage existing = getViewStorage(viewId);
+        ViewStorage viewStorage = existing != null ? existing : createViewStorage(viewId);
+        ComponentEntry entry = viewStorage.components.get(clientId);
+        if (entry == null) {
+            entry = viewStorage.components.computeIfAbsent(clientId, id -> {
+                entryCount.incrementAndGet();
+                return new ComponentEntry(viewStorage);
+            });
+            // The view storage is removed in the meantime, removed here when not yet by removeComponents.
+            if (viewStorage.removed && viewStorage.components.remove(clientId, entry)) {
+                entryCount.decrementAndGet();
+            }
+            if (trackAccess) {
+                long now = touch(entry);
+                if (isLimitExceeded(viewStorage)) {
+                    evict(now);
+                }
+            }
+        } else if (trackAccess) {
+            touch(entry);
+        }
+        return entry;
+    }
 
-        private Class<? extends MetaDataHolder> key;
+    /**
+     * The hash of the view resource is determined while the view is certainly available (during a request), but only
+     * when a snapshot file is configured and outside the lock of the map. When another thread created the view storage
+     * in the meantime, that one is used.
+     */
+    private ViewStorage createViewStorage(String viewId) {
+        ViewStorage created = new ViewStorage(snapshotEnabled ? viewDigester.apply(viewId) : null);
+        ViewStorage existing = views.putIfAbsent(viewId, created);
+        return existing == null ? created : existing;
+    }
 
-        public StorageKey(String viewId, String clientId, Class<? extends MetaDataHolder> key) {
-            super(viewId, clientId);
-            this.key = key;
+    private ViewStorage getViewStorage(String viewId) {
+        ViewStorage viewStorage = views.get(viewId);
+        if (viewStorage != null && viewStorage.snapshotDigest != null) {
+            return verifySnapshotView(viewId, viewStorage);
         }
+        return viewStorage;
+    }
 
-        public boolean isMatchingComponentKey(ComponentKey componentKey) {
-            return super.equals(componentKey);
+    /**
+     * The view resource of restored components couldn't be read at the time of the import. Once it can be read, the
+     * view is removed when changed since the snapshot was written.
+     */
+    private ViewStorage verifySnapshotView(String viewId, ViewStorage viewStorage) {
+        byte[] digest = viewDigester.apply(viewId);
+        if (digest == null) {
+            return viewStorage;
         }
+        byte[] snapshotDigest;
+        synchronized (viewStorage) {
+            snapshotDigest = viewStorage.snapshotDigest;
+            viewStorage.viewDigest = digest;
+            viewStorage.snapshotDigest = null;
+        }
+        if (snapshotDigest == null || MessageDigest.isEqual(digest, snapshotDigest)) {
+            return viewStorage;
+        }
+        if (views.remove(viewId, viewStorage)) {
+            removeComponents(viewStorage);
+        }
+        return null;
+    }
 
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) {
-                return true;
+    private long touch(ComponentEntry entry) {
+        long now = System.nanoTime();
+        entry.lastAccess = now;
+        if (expireAfterAccess > 0 && now - nextExpiration >= 0) {
+            evict(now);
+        }
+        return now;
+    }
+
+    private boolean isLimitExceeded(ViewStorage viewStorage) {
+        return (maxEntriesPerView > 0 && viewStorage.components.size() > maxEntriesPerView)
+                || (maxEntries > 0 && entryCount.get() > maxEntries);
+    }
+
+    /**
+     * Removes the expired components and, when a limit is exceeded, the least recently used ones. To avoid an eviction
+     * for each new component, a batch is removed so that the storage drops below the limit. Only one thread performs
+     * the eviction, others just continue.
+     */
+    private void evict(long now) {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            if (expireAfterAccess > 0) {
+                nextExpiration = now + expireAfterAccess / 4;
+                for (ViewStorage viewStorage : views.values()) {
+                    for (Map.Entry<String, ComponentEntry> entry : viewStorage.components.entrySet()) {
+                        if (now - entry.getValue().lastAccess > expireAfterAccess) {
+                            removeEntry(viewStorage, entry.getKey(), entry.getValue());
+                        }
+                    }
+                }
             }
-            if (!(o instanceof StorageKey)) {
-                return false;
+
+            if (maxEntriesPerView > 0) {
+                for (ViewStorage viewStorage : views.values()) {
+                    if (viewStorage.components.size() > maxEntriesPerView) {
+                        List<EvictionCandidate> candidates = new ArrayList<>();
+                        addEvictionCandidates(candidates, viewStorage);
+                        removeLeastRecentlyUsed(candidates, viewStorage.components.size() - lowWaterMark(maxEntriesPerView));
+                    }
+                }
             }
-            if (!super.equals(o)) {
-                return false;
+
+            if (maxEntries > 0 && entryCount.get() > maxEntries) {
+                List<EvictionCandidate> candidates = new ArrayList<>();
+                for (ViewStorage viewStorage : views.values()) {
+                    addEvictionCandidates(candidates, viewStorage);
+                }
+                removeLeastRecentlyUsed(candidates, entryCount.get() - lowWaterMark(maxEntries));
+            }
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug(String.format("Component storage after eviction : %s", getStatistics()));
             }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
 
-            StorageKey that = (StorageKey) o;
+    // At least 1, so that the most recently used component (the one just stored or read) is never removed.
+    private static int lowWaterMark(int limit) {
+        return Math.max(1, limit - Math.max(1, limit / 10));
+    }
 
-            return key.equals(that.key);
+    private static void addEvictionCandidates(List<EvictionCandidate> candidates, ViewStorage viewStorage) {
+        for (Map.Entry<String, ComponentEntry> entry : viewStorage.components.entrySet()) {
+            candidates.add(new EvictionCandidate(viewStorage, entry.getKey(), entry.getValue()));
+        }
+    }
 
+    private void removeLeastRecentlyUsed(List<EvictionCandidate> candidates, int count) {
+        candidates.sort(Comparator.comparingLong(c -> c.lastAccess));
+        for (int i = 0; i < count && i < candidates.size(); i++) {
+            EvictionCandidate candidate = candidates.get(i);
+            removeEntry(candidate.viewStorage, candidate.clientId, candidate.entry);
         }
+    }
 
-        @Override
-        public int hashCode() {
-            int result = super.hashCode();
-            result = 31 * result + key.hashCode();
-            return result;
+    private void removeEntry(ViewStorage viewStorage, String clientId, ComponentEntry entry) {
+        if (viewStorage.components.remove(clientId, entry)) {
+            entryCount.decrementAndGet();
+            evictionCount.increment();
+        }
+    }
+
+    private static final class ViewStorage {
+        private final ConcurrentMap<String, ComponentEntry> components = new ConcurrentHashMap<>();
+        // Removed from the views, components added afterwards are removed again.
+        private volatile boolean removed;
+        // Hash of the view resource, null when unknown.
+        private volatile byte[] viewDigest;
+        // Hash of the view resource in the snapshot of the restored components, as long as not verified.
+        private volatile byte[] snapshotDigest;
+
+        private ViewStorage(byte[] viewDigest) {
+            this.viewDigest = viewDigest;
+        }
+
+        private synchronized void setSnapshotDigest(byte[] digest) {
+            if (viewDigest == null) {
+                snapshotDigest = digest;
+            }
+        }
+
+        private byte[] getViewDigest() {
+            byte[] result = viewDigest;
+            return result == null ? snapshotDigest : result;
+        }
+    }
+
+    private static final class ComponentEntry {
+        private final ViewStorage viewStorage;
+        // Only modified while holding the monitor of the entry, so that componentInfo and recordingInformation are in sync
+        // with the holders.
+        private final Map<Class<? extends MetaDataHolder>, MetaDataHolder> holders = new ConcurrentHashMap<>(4);
+        private volatile ComponentInfo componentInfo;
+        private volatile List<?> recordingInformation;
+        // Only maintained when a limit is configured.
+        private volatile long lastAccess;
+
+        private ComponentEntry(ViewStorage viewStorage) {
+            this.viewStorage = viewStorage;
         }
 
+        private void holdersChanged() {
+            componentInfo = null;
+            recordingInformation = null;
+        }
+    }
+
+    private static final class EvictionCandidate {
+        private final ViewStorage viewStorage;
+        private final String clientId;
+        private final ComponentEntry entry;
+        // Snapshot, so that the sort order is stable while other threads access the entry.
+        private final long lastAccess;
+
+        private EvictionCandidate(ViewStorage viewStorage, String clientId, ComponentEntry entry) {
+            this.viewStorage = viewStorage;
+            this.clientId = clientId;
+            this.entry = entry;
+            this.lastAccess = entry.lastAccess;
+        }
     }
 }
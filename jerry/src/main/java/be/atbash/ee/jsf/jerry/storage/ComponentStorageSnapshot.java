@@ -0,0 +1,500 @@
+/*
+ * Copyright 2014-2018 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.ee.jsf.jerry.storage;
+
+import be.atbash.ee.jsf.jerry.metadata.MetaDataHolder;
+
+import javax.faces.context.FacesContext;
+import java.io.*;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Binary format of the snapshot of the {@link ComponentStorage}.
+ * <p>
+ * The snapshot starts with a table of all involved classes and the SHA-256 hash of their class file. Each component
+ * refers to the classes on which its information is based, when one of them is changed (or no longer available) the
+ * component isn't restored. The same is true for all components when the transformers or enhancers are changed.
+ * Each component also has the SHA-256 hash of its view resource, so that the caller can drop the components of a view
+ * which is changed.
+ * Values are written with a type tag, other values must be a {@link SnapshotValue} which is written as its class and
+ * constructor arguments. Java serialization isn't used, so reading a snapshot never instantiates arbitrary classes.
+ */
+final class ComponentStorageSnapshot {
+
+    private static final int MAGIC = 0x4A534E50;  // JSNP
+    private static final int VERSION = 2;
+
+    private static final byte TAG_NULL = 0;
+    private static final byte TAG_BOOLEAN = 1;
+    private static final byte TAG_INTEGER = 2;
+    private static final byte TAG_LONG = 3;
+    private static final byte TAG_DOUBLE = 4;
+    private static final byte TAG_STRING = 5;
+    private static final byte TAG_DATE = 6;
+    private static final byte TAG_CLASS = 7;
+    private static final byte TAG_LIST = 8;
+    private static final byte TAG_MAP = 9;
+    private static final byte TAG_SNAPSHOT_VALUE = 10;
+
+    private final ClassLoader classLoader;
+
+    private int skippedCount;
+
+    // Writing
+    private final Map<Class<?>, Integer> classIndexes = new LinkedHashMap<>();
+
+    // Reading
+    private final List<String> classNames = new ArrayList<>();
+    private final List<byte[]> classDigests = new ArrayList<>();
+    private final Map<Integer, Class<?>> validatedClasses = new HashMap<>();
+
+    ComponentStorageSnapshot(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * Number of components which were not written (value without a type tag which isn't a SnapshotValue or the hash
+     * of the view is unknown) or not read (changed classes).
+     */
+    int getSkippedCount() {
+        return skippedCount;
+    }
+
+    /**
+     * Writes the components and returns the number of components written.
+     */
+    int write(OutputStream outputStream, Set<Class<?>> globalClasses, List<SnapshotEntry> entries) throws IOException {
+        List<byte[]> encodedEntries = new ArrayList<>();
+        for (SnapshotEntry entry : entries) {
+            if (entry.getViewDigest() == null) {
+                // Can't be verified when read.
+                skippedCount++;
+                continue;
+            }
+            try {
+                encodedEntries.add(encodeEntry(entry));
+            } catch (NotSerializableException e) {
+                skippedCount++;
+            }
+        }
+
+        DataOutputStream out = new DataOutputStream(outputStream);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+
+        int[] globalIndexes = getClassIndexes(globalClasses);
+
+        out.writeInt(classIndexes.size());
+        for (Class<?> clazz : classIndexes.keySet()) {
+            out.writeUTF(clazz.getName());
+            byte[] digest = digest(clazz);
+            out.writeInt(digest.length);
+            out.write(digest);
+        }
+
+        writeIndexes(out, globalIndexes);
+
+        out.writeInt(encodedEntries.size());
+        for (byte[] encodedEntry : encodedEntries) {
+            out.writeInt(encodedEntry.length);
+            out.write(encodedEntry);
+        }
+        out.flush();
+        return encodedEntries.size();
+    }
+
+    private byte[] encodeEntry(SnapshotEntry entry) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeUTF(entry.getViewId());
+        out.writeInt(entry.getViewDigest().length);
+        out.write(entry.getViewDigest());
+        out.writeUTF(entry.getClientId());
+
+        Set<Class<?>> involvedClasses = new HashSet<>();
+        for (Map.Entry<Class<? extends MetaDataHolder>, RestoredMetaDataHolder> holder : entry.getHolders().entrySet()) {
+            involvedClasses.add(holder.getKey());
+            if (holder.getValue() != null) {
+                involvedClasses.addAll(holder.getValue().getInvolvedClasses());
+            }
+        }
+        writeIndexes(out, getClassIndexes(involvedClasses));
+
+        out.writeInt(entry.getHolders().size());
+        for (Map.Entry<Class<? extends MetaDataHolder>, RestoredMetaDataHolder> holder : entry.getHolders().entrySet()) {
+            out.writeInt(getClassIndex(holder.getKey()));
+            RestoredMetaDataHolder value = holder.getValue();
+            out.writeBoolean(value != null);
+            if (value != null) {
+                writeValue(out, value.getComponentInfo());
+                writeValue(out, value.getRecordingInformation());
+                writeIndexes(out, getClassIndexes(value.getInvolvedClasses()));
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(TAG_NULL);
+        } else if (value instanceof Boolean) {
+            out.writeByte(TAG_BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(TAG_INTEGER);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(TAG_LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Double) {
+            out.writeByte(TAG_DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof String) {
+            out.writeByte(TAG_STRING);
+            writeString(out, (String) value);
+        } else if (value.getClass() == Date.class) {
+            out.writeByte(TAG_DATE);
+            out.writeLong(((Date) value).getTime());
+        } else if (value instanceof Class) {
+            out.writeByte(TAG_CLASS);
+            out.writeInt(getClassIndex((Class<?>) value));
+        } else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            out.writeByte(TAG_LIST);
+            out.writeInt(list.size());
+            for (Object item : list) {
+                writeValue(out, item);
+            }
+        } else if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            out.writeByte(TAG_MAP);
+            out.writeInt(map.size());
+            for (Map.Entry<?, ?> item : map.entrySet()) {
+                writeValue(out, item.getKey());
+                writeValue(out, item.getValue());
+            }
+        } else if (value instanceof SnapshotValue) {
+            Object[] arguments = ((SnapshotValue) value).getSnapshotArguments();
+            out.writeByte(TAG_SNAPSHOT_VALUE);
+            out.writeInt(getClassIndex(value.getClass()));
+            out.writeInt(arguments.length);
+            for (Object argument : arguments) {
+                writeValue(out, argument);
+            }
+        } else {
+            throw new NotSerializableException(value.getClass().getName());
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeIndexes(DataOutputStream out, int[] indexes) throws IOException {
+        out.writeInt(indexes.length);
+        for (int index : indexes) {
+            out.writeInt(index);
+        }
+    }
+
+    private int[] getClassIndexes(Set<Class<?>> classes) {
+        int[] result = new int[classes.size()];
+        int idx = 0;
+        for (Class<?> clazz : classes) {
+            result[idx++] = getClassIndex(clazz);
+        }
+        return result;
+    }
+
+    private int getClassIndex(Class<?> clazz) {
+        return classIndexes.computeIfAbsent(clazz, c -> classIndexes.size());
+    }
+
+    /**
+     * Reads the components which are still valid.
+     */
+    List<SnapshotEntry> read(InputStream inputStream, Set<Class<?>> globalClasses) throws IOException {
+        DataInputStream in = new DataInputStream(inputStream);
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Not a snapshot of the ComponentStorage or unsupported version");
+        }
+
+        int classCount = in.readInt();
+        for (int i = 0; i < classCount; i++) {
+            classNames.add(in.readUTF());
+            byte[] digest = new byte[in.readInt()];
+            in.readFully(digest);
+            classDigests.add(digest);
+        }
+
+        boolean globalValid = isGlobalValid(readIndexes(in), globalClasses);
+
+        List<SnapshotEntry> result = new ArrayList<>();
+        int entryCount = in.readInt();
+        for (int i = 0; i < entryCount; i++) {
+            byte[] encodedEntry = new byte[in.readInt()];
+            in.readFully(encodedEntry);
+
+            SnapshotEntry entry = globalValid ? decodeEntry(encodedEntry) : null;
+            if (entry == null) {
+                skippedCount++;
+            } else {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    private boolean isGlobalValid(int[] indexes, Set<Class<?>> globalClasses) {
+        Set<String> names = new HashSet<>();
+        for (int index : indexes) {
+            if (getValidatedClass(index) == null) {
+                return false;
+            }
+            names.add(classNames.get(index));
+        }
+        Set<String> currentNames = new HashSet<>();
+        for (Class<?> globalClass : globalClasses) {
+            currentNames.add(globalClass.getName());
+        }
+        return names.equals(currentNames);
+    }
+
+    private SnapshotEntry decodeEntry(byte[] encodedEntry) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(encodedEntry));
+        String viewId = in.readUTF();
+        byte[] viewDigest = new byte[in.readInt()];
+        in.readFully(viewDigest);
+        String clientId = in.readUTF();
+
+        for (int index : readIndexes(in)) {
+            if (getValidatedClass(index) == null) {
+                return null;
+            }
+        }
+
+        Map<Class<? extends MetaDataHolder>, RestoredMetaDataHolder> holders = new LinkedHashMap<>();
+        int holderCount = in.readInt();
+        try {
+            for (int i = 0; i < holderCount; i++) {
+                Class<?> key = getValidatedClass(in.readInt());
+                if (key == null || !MetaDataHolder.class.isAssignableFrom(key)) {
+                    return null;
+                }
+                RestoredMetaDataHolder holder = null;
+                if (in.readBoolean()) {
+                    Map<String, Object> componentInfo = (Map<String, Object>) readValue(in);
+                    List<?> recordingInformation = (List<?>) readValue(in);
+                    Set<Class<?>> involvedClasses = new HashSet<>();
+                    for (int index : readIndexes(in)) {
+                        involvedClasses.add(getValidatedClass(index));
+                    }
+                    holder = new RestoredMetaDataHolder(componentInfo, recordingInformation, involvedClasses);
+                }
+                holders.put((Class<? extends MetaDataHolder>) key, holder);
+            }
+        } catch (ClassNotFoundException | ClassCastException e) {
+            return null;
+        }
+        return new SnapshotEntry(viewId, viewDigest, clientId, holders);
+    }
+
+    private Object readValue(DataInputStream in) throws IOException, ClassNotFoundException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case TAG_NULL:
+                return null;
+            case TAG_BOOLEAN:
+                return in.readBoolean();
+            case TAG_INTEGER:
+                return in.readInt();
+            case TAG_LONG:
+                return in.readLong();
+            case TAG_DOUBLE:
+                return in.readDouble();
+            case TAG_STRING:
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                return new String(bytes, StandardCharsets.UTF_8);
+            case TAG_DATE:
+                return new Date(in.readLong());
+            case TAG_CLASS:
+                Class<?> clazz = getValidatedClass(in.readInt());
+                if (clazz == null) {
+                    throw new ClassNotFoundException();
+                }
+                return clazz;
+            case TAG_LIST:
+                int size = in.readInt();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in));
+                }
+                return list;
+            case TAG_MAP:
+                int mapSize = in.readInt();
+                Map<Object, Object> map = new HashMap<>();
+                for (int i = 0; i < mapSize; i++) {
+                    map.put(readValue(in), readValue(in));
+                }
+                return map;
+            case TAG_SNAPSHOT_VALUE:
+                Class<?> valueClass = getValidatedClass(in.readInt());
+                if (valueClass == null) {
+                    throw new ClassNotFoundException();
+                }
+                Object[] arguments = new Object[in.readInt()];
+                for (int i = 0; i < arguments.length; i++) {
+                    arguments[i] = readValue(in);
+                }
+                return createSnapshotValue(valueClass, arguments);
+            default:
+                throw new IOException("Unknown type tag in snapshot " + tag);
+        }
+    }
+
+    private static Object createSnapshotValue(Class<?> valueClass, Object[] arguments) throws IOException {
+        if (!SnapshotValue.class.isAssignableFrom(valueClass)) {
+            throw new InvalidClassException(valueClass.getName(), "Not a SnapshotValue");
+        }
+        for (Constructor<?> constructor : valueClass.getConstructors()) {
+            if (constructor.getParameterCount() == arguments.length) {
+                try {
+                    return constructor.newInstance(arguments);
+                } catch (InstantiationException | IllegalAccessException | InvocationTargetException | IllegalArgumentException e) {
+                    throw new InvalidClassException(valueClass.getName(), e.getMessage());
+                }
+            }
+        }
+        throw new InvalidClassException(valueClass.getName(), "No public constructor with " + arguments.length + " parameters");
+    }
+
+    private static int[] readIndexes(DataInputStream in) throws IOException {
+        int[] result = new int[in.readInt()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = in.readInt();
+        }
+        return result;
+    }
+
+    /**
+     * Returns the class when its class file is the same as when the snapshot was written, otherwise null.
+     */
+    private Class<?> getValidatedClass(int index) {
+        if (validatedClasses.containsKey(index)) {
+            return validatedClasses.get(index);
+        }
+        Class<?> result;
+        try {
+            result = Class.forName(classNames.get(index), false, classLoader);
+            if (!MessageDigest.isEqual(classDigests.get(index), digest(result))) {
+                result = null;
+            }
+        } catch (ClassNotFoundException | LinkageError | IOException e) {
+            result = null;
+        }
+        validatedClasses.put(index, result);
+        return result;
+    }
+
+    private static byte[] digest(Class<?> clazz) throws IOException {
+        ClassLoader loader = clazz.getClassLoader();
+        String resource = clazz.getName().replace('.', '/') + ".class";
+        try (InputStream classFile = loader == null ? ClassLoader.getSystemResourceAsStream(resource) : loader.getResourceAsStream(resource)) {
+            if (classFile == null) {
+                // Generated or JDK class, only the name is relevant.
+                return new byte[0];
+            }
+            return digest(classFile);
+        }
+    }
+
+    /**
+     * Returns the SHA-256 hash of the view resource (an empty array when the resource doesn't exist), or null when it
+     * can't be determined since there is no active request.
+     */
+    static byte[] digestView(String viewId) {
+        FacesContext facesContext = FacesContext.getCurrentInstance();
+        if (facesContext == null) {
+            return null;
+        }
+        try (InputStream view = facesContext.getExternalContext().getResourceAsStream(viewId)) {
+            return view == null ? new byte[0] : digest(view);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static byte[] digest(InputStream inputStream) throws IOException {
+        MessageDigest messageDigest;
+        try {
+            messageDigest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            messageDigest.update(buffer, 0, read);
+        }
+        return messageDigest.digest();
+    }
+
+    /**
+     * The information of a component in the snapshot. A null holder means that the entry isn't available for the
+     * component.
+     */
+    static final class SnapshotEntry {
+        private final String viewId;
+        private final byte[] viewDigest;
+        private final String clientId;
+        private final Map<Class<? extends MetaDataHolder>, RestoredMetaDataHolder> holders;
+
+        SnapshotEntry(String viewId, byte[] viewDigest, String clientId, Map<Class<? extends MetaDataHolder>, RestoredMetaDataHolder> holders) {
+            this.viewId = viewId;
+            this.viewDigest = viewDigest;
+            this.clientId = clientId;
+            this.holders = holders;
+        }
+
+        String getViewId() {
+            return viewId;
+        }
+
+        /**
+         * The hash of the view resource, null when unknown.
+         */
+        byte[] getViewDigest() {
+            return viewDigest;
+        }
+
+        String getClientId() {
+            return clientId;
+        }
+
+        Map<Class<? extends MetaDataHolder>, RestoredMetaDataHolder> getHolders() {
+            return holders;
+        }
+    }
+}
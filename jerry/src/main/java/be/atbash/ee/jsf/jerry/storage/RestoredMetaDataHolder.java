@@ -0,0 +1,71 @@
+/*
+ * Copyright 2014-2018 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.ee.jsf.jerry.storage;
+
+import be.atbash.ee.jsf.jerry.metadata.ComponentInfo;
+import be.atbash.ee.jsf.jerry.metadata.MetaDataEntry;
+import be.atbash.ee.jsf.jerry.metadata.MetaDataHolder;
+import be.atbash.ee.jsf.jerry.metadata.PropertyInformationKeys;
+
+import java.util.*;
+
+/**
+ * Holder restored from a snapshot of the {@link ComponentStorage}. It contains the result of the transformers and
+ * the recording information of the original holder, not the original meta-data.
+ */
+final class RestoredMetaDataHolder implements MetaDataHolder {
+
+    private final ComponentInfo componentInfo;
+    private final List<?> recordingInformation;
+    private final Set<Class<?>> involvedClasses;
+    private final MetaDataEntry[] metaDataEntries;
+
+    RestoredMetaDataHolder(Map<String, Object> componentInfo, List<?> recordingInformation, Set<Class<?>> involvedClasses) {
+        this.componentInfo = ComponentInfo.from(componentInfo);
+        this.recordingInformation = Collections.unmodifiableList(recordingInformation);
+        this.involvedClasses = Collections.unmodifiableSet(involvedClasses);
+
+        if (recordingInformation.isEmpty()) {
+            metaDataEntries = new MetaDataEntry[0];
+        } else {
+            // So that the recording information is found as for the original holder.
+            MetaDataEntry entry = new MetaDataEntry();
+            entry.setKey(PropertyInformationKeys.RECORDING_INFORMATION);
+            Map<String, Object> properties = new HashMap<>();
+            properties.put(PropertyInformationKeys.RECORDING_INFORMATION, this.recordingInformation);
+            entry.setProperties(properties);
+            metaDataEntries = new MetaDataEntry[]{entry};
+        }
+    }
+
+    Map<String, Object> getComponentInfo() {
+        return componentInfo;
+    }
+
+    List<?> getRecordingInformation() {
+        return recordingInformation;
+    }
+
+    @Override
+    public MetaDataEntry[] getMetaDataEntries() {
+        return metaDataEntries.clone();
+    }
+
+    @Override
+    public Set<Class<?>> getInvolvedClasses() {
+        return involvedClasses;
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2014-2018 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.ee.jsf.jerry.storage;
+
+/**
+ * A value of the component info or recording information which can be kept in the snapshot of the
+ * {@link ComponentStorage}. Values which aren't a String, number, Boolean, Date, Class, List or Map must implement this
+ * interface, no Java serialization is used for the snapshot.
+ * <p>
+ * The value is written as its class and the values returned by {@link #getSnapshotArguments()} (each of them one of
+ * the types above or a SnapshotValue). It is restored by calling the public constructor of the class with the same
+ * number of parameters.
+ */
+public interface SnapshotValue {
+
+    /**
+     * The arguments for the public constructor which creates an equal instance.
+     *
+     * @return The constructor arguments, in the order of the parameters.
+     */
+    Object[] getSnapshotArguments();
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2014-2020 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.ee.jsf.jerry.storage;
+
+/**
+ * Snapshot of the counters of the {@link ComponentStorage}.
+ */
+public final class StorageStatistics {
+
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final int entryCount;
+    private final int viewCount;
+
+    StorageStatistics(long hitCount, long missCount, long evictionCount, int entryCount, int viewCount) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.entryCount = entryCount;
+        this.viewCount = viewCount;
+    }
+
+    /**
+     * Number of requests for information of a component which was already available in the storage.
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Number of requests for information of a component which needed to be determined.
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Number of components removed from the storage because of the configured limits.
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Number of components with information in the storage.
+     */
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    public int getViewCount() {
+        return viewCount;
+    }
+
+    @Override
+    public String toString() {
+        return "StorageStatistics{" +
+                "hitCount=" + hitCount +
+                ", missCount=" + missCount +
+                ", evictionCount=" + evictionCount +
+                ", entryCount=" + entryCount +
+                ", viewCount=" + viewCount +
+                '}';
+    }
+}
@@ -17,6 +17,8 @@ package be.atbash.ee.jsf.jerry.utils;
 
 import be.atbash.ee.jsf.jerry.component.ComponentInitializer;
 import be.atbash.ee.jsf.jerry.interceptor.RendererInterceptor;
+import be.atbash.ee.jsf.jerry.interceptor.RendererInterceptorChains;
+import be.atbash.ee.jsf.jerry.interceptor.RendererInterceptorHook;
 import be.atbash.ee.jsf.jerry.ordering.InvocationOrderComparator;
 import be.atbash.util.CDIUtils;
 
@@ -31,7 +33,8 @@ public final class InvocationOrderedArtifactsProvider {
     private static final InvocationOrderedArtifactsProvider INSTANCE = new InvocationOrderedArtifactsProvider();
     private static final Object LOCK = new Object();
 
-    private List<RendererInterceptor> rendererInterceptors;
+    private volatile List<RendererInterceptor> rendererInterceptors;
+    private RendererInterceptorChains rendererInterceptorChains;
     private List<ComponentInitializer> initializers;
 
     private InvocationOrderedArtifactsProvider() {
@@ -39,19 +42,37 @@ public final class InvocationOrderedArtifactsProvider {
 
     private void prepareRendererInterceptors() {
         // CDIUtils.retrieveInstances returns unmodifiable List.
-        rendererInterceptors = new ArrayList<>(CDIUtils.retrieveInstances(RendererInterceptor.class));
-        rendererInterceptors.sort(new InvocationOrderComparator<>());
+        List<RendererInterceptor> interceptors = new ArrayList<>(CDIUtils.retrieveInstances(RendererInterceptor.class));
+        interceptors.sort(new InvocationOrderComparator<>());
+
+        // The chains are derived from the interceptors, so assign them first as rendererInterceptors signals that all is prepared.
+        rendererInterceptorChains = new RendererInterceptorChains(interceptors);
+        rendererInterceptors = interceptors;
     }
 
-    public static List<RendererInterceptor> getRendererInterceptors() {
+    private static void checkRendererInterceptors() {
         if (INSTANCE.rendererInterceptors == null) {
             synchronized (LOCK) {
-                INSTANCE.prepareRendererInterceptors();
+                if (INSTANCE.rendererInterceptors == null) {
+                    INSTANCE.prepareRendererInterceptors();
+                }
             }
         }
+    }
+
+    public static List<RendererInterceptor> getRendererInterceptors() {
+        checkRendererInterceptors();
         return INSTANCE.rendererInterceptors;
     }
 
+    /**
+     * Returns the interceptors which implement the hook, in invocation order. The returned array must not be modified.
+     */
+    public static RendererInterceptor[] getRendererInterceptors(RendererInterceptorHook hook) {
+        checkRendererInterceptors();
+        return INSTANCE.rendererInterceptorChains.getChain(hook);
+    }
+
     private void prepareInitializers() {
         // CDIUtils.retrieveInstances returns unmodifiable List.
         initializers = new ArrayList<>(CDIUtils.retrieveInstances(ComponentInitializer.class));
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2014-2020 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.ee.jsf.jerry.utils;
+
+import javax.faces.component.UIComponent;
+import javax.faces.component.UIData;
+import javax.faces.component.UINamingContainer;
+import javax.faces.context.FacesContext;
+
+/**
+ * Helpers for components which are repeated for each row of a UIData or ui:repeat component.
+ */
+public final class RepeatedComponentUtils {
+
+    private static final ClassValue<Boolean> REPEATING_COMPONENT = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return type.getName().endsWith(".UIRepeat") || UIData.class.isAssignableFrom(type);
+        }
+    };
+
+    private RepeatedComponentUtils() {
+    }
+
+    /**
+     * Is the component a UIData or ui:repeat component, which renders its children for each row.
+     */
+    public static boolean isRepeatingComponent(UIComponent uiComponent) {
+        return REPEATING_COMPONENT.get(uiComponent.getClass());
+    }
+
+    /**
+     * Is the component, or one of its parents, a UIData or ui:repeat component.
+     */
+    public static boolean isRepeatedComponent(UIComponent uiComponent) {
+        UIComponent current = uiComponent;
+        while (current != null) {
+            if (isRepeatingComponent(current)) {
+                return true;
+            }
+            current = current.getParent();
+        }
+        return false;
+    }
+
+    /**
+     * Returns the client id of the component without the row index segments of the UIData and ui:repeat parents
+     * (form:table:17:name becomes form:table:name), so that all rows share the same key in the
+     * {@link be.atbash.ee.jsf.jerry.storage.ComponentStorage}. For components which are not repeated, this is the
+     * client id.
+     */
+    public static String getStorageClientId(FacesContext facesContext, UIComponent uiComponent) {
+        String result = uiComponent.getClientId(facesContext);
+        if (result == null) {
+            return null;
+        }
+        char separator = 0;
+        // From the inner most to the outer most, so that the client id of the parent is still a prefix of the result.
+        UIComponent parent = uiComponent.getParent();
+        while (parent != null) {
+            if (isRepeatingComponent(parent)) {
+                if (separator == 0) {
+                    separator = UINamingContainer.getSeparatorChar(facesContext);
+                }
+                // The client id of a UIData contains its current row index (form:table:17), ui:repeat doesn't.
+                result = removeRowIndex(result, removeOwnRowIndex(parent.getClientId(facesContext), separator), separator);
+            }
+            parent = parent.getParent();
+        }
+        return result;
+    }
+
+    /**
+     * Removes the trailing row index segment of the client id of a repeating component. A segment of only digits is
+     * always a row index since the id of a component must start with a letter or underscore.
+     */
+    static String removeOwnRowIndex(String clientId, char separator) {
+        if (clientId == null) {
+            return null;
+        }
+        int idx = clientId.lastIndexOf(separator);
+        if (idx <= 0 || idx == clientId.length() - 1) {
+            return clientId;
+        }
+        for (int i = idx + 1; i < clientId.length(); i++) {
+            if (!Character.isDigit(clientId.charAt(i))) {
+                return clientId;
+            }
+        }
+        return clientId.substring(0, idx);
+    }
+
+    static String removeRowIndex(String clientId, String parentClientId, char separator) {
+        if (parentClientId == null) {
+            return clientId;
+        }
+        int prefixLength = parentClientId.length();
+        if (clientId.length() > prefixLength + 1 && clientId.charAt(prefixLength) == separator && clientId.startsWith(parentClientId)) {
+            int start = prefixLength + 1;
+            int end = start;
+            while (end < clientId.length() && Character.isDigit(clientId.charAt(end))) {
+                end++;
+            }
+            if (end > start && end < clientId.length() && clientId.charAt(end) == separator) {
+                return clientId.substring(0, prefixLength) + clientId.substring(end);
+            }
+        }
+        return clientId;
+    }
+}
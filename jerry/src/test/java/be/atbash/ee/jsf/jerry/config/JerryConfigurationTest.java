@@ -67,4 +67,28 @@ public class JerryConfigurationTest {
 
         configuration.getRenderKitWrapperClass();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void getStorageMaxEntriesPerView() {
+        assertThat(configuration.getStorageMaxEntriesPerView()).isEqualTo(0);
+    }
+
+    @Test
+    public void getStorageMaxEntriesPerView_defined() {
+        TestConfig.addConfigValue("jerry.storage.max.entries.per.view", "500");
+        assertThat(configuration.getStorageMaxEntriesPerView()).isEqualTo(500);
+    }
+
+    @Test(expected = ConfigurationException.class)
+    public void getStorageMaxEntries_negative() {
+        TestConfig.addConfigValue("jerry.storage.max.entries", "-1");
+
+        configuration.getStorageMaxEntries();
+    }
+
+    @Test
+    public void getStorageExpireAfterAccess() {
+        TestConfig.addConfigValue("jerry.storage.expire.after.access", "3600");
+        assertThat(configuration.getStorageExpireAfterAccess()).isEqualTo(3600);
+    }
+}
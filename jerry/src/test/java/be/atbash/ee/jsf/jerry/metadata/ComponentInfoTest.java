@@ -0,0 +1,80 @@
+/*
+ * Copyright 2014-2020 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.ee.jsf.jerry.metadata;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ComponentInfoTest {
+
+    @Test
+    public void from_commonKeys() {
+        Map<String, Object> info = new HashMap<>();
+        info.put(CommonMetaDataKeys.REQUIRED.getKey(), Boolean.TRUE);
+        info.put(CommonMetaDataKeys.SIZE.getKey(), 10);
+        info.put(CommonMetaDataKeys.FUTURE.getKey(), Boolean.TRUE);
+
+        ComponentInfo componentInfo = ComponentInfo.from(info);
+
+        assertThat(componentInfo.isRequired()).isTrue();
+        assertThat(componentInfo.isPast()).isFalse();
+        assertThat(componentInfo.isFuture()).isTrue();
+        assertThat(componentInfo.hasSize()).isTrue();
+        assertThat(componentInfo.getSize()).isEqualTo(10);
+
+        assertThat(componentInfo).isEqualTo(info);
+        assertThat(componentInfo.size()).isEqualTo(3);
+        assertThat(componentInfo.containsKey(CommonMetaDataKeys.PAST.getKey())).isFalse();
+        assertThat(componentInfo.get(CommonMetaDataKeys.SIZE.getKey())).isEqualTo(10);
+    }
+
+    @Test
+    public void from_customKeys() {
+        Map<String, Object> info = new HashMap<>();
+        info.put("custom", "value");
+        info.put(CommonMetaDataKeys.REQUIRED.getKey(), Boolean.FALSE);
+        info.put(CommonMetaDataKeys.SIZE.getKey(), "large");
+
+        ComponentInfo componentInfo = ComponentInfo.from(info);
+
+        assertThat(componentInfo.isRequired()).isFalse();
+        assertThat(componentInfo.hasSize()).isFalse();
+        assertThat(componentInfo.getSize()).isEqualTo(-1);
+
+        assertThat(componentInfo).isEqualTo(info);
+        assertThat(componentInfo.get("custom")).isEqualTo("value");
+        assertThat(componentInfo.get(CommonMetaDataKeys.REQUIRED.getKey())).isEqualTo(Boolean.FALSE);
+        assertThat(componentInfo.containsKey("other")).isFalse();
+    }
+
+    @Test
+    public void from_empty() {
+        assertThat(ComponentInfo.from(new HashMap<>())).isSameAs(ComponentInfo.EMPTY);
+        assertThat(ComponentInfo.EMPTY).isEmpty();
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void immutable() {
+        Map<String, Object> info = new HashMap<>();
+        info.put("custom", "value");
+
+        ComponentInfo.from(info).put("key", "value");
+    }
+}
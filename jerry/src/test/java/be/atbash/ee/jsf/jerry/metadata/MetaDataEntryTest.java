@@ -0,0 +1,58 @@
+/*
+ * Copyright 2014-2020 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.ee.jsf.jerry.metadata;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MetaDataEntryTest {
+
+    @Test
+    public void setProperty_withoutProperties() {
+        MetaDataEntry entry = new MetaDataEntry();
+        entry.setProperty("key", "value");
+
+        assertThat(entry.getProperty("key")).isEqualTo("value");
+        assertThat(new MetaDataEntry().getProperty("key")).isNull();
+    }
+
+    @Test
+    public void setProperty_sharedProperties() {
+        Map<String, Object> properties = new HashMap<>();
+        MetaDataEntry entry = new MetaDataEntry();
+        entry.setProperties(properties);
+
+        entry.setProperty("key", "value");
+
+        assertThat(properties).containsEntry("key", "value");
+    }
+
+    @Test
+    public void equals_noPropertiesSet() {
+        MetaDataEntry entry = new MetaDataEntry();
+        entry.setKey("key");
+        MetaDataEntry other = new MetaDataEntry();
+        other.setKey("key");
+        other.setProperties(new HashMap<>());
+
+        assertThat(entry).isEqualTo(other);
+        assertThat(entry.hashCode()).isEqualTo(other.hashCode());
+    }
+}
@@ -15,14 +15,26 @@
  */
 package be.atbash.ee.jsf.jerry.storage;
 
+import be.atbash.config.test.TestConfig;
+import be.atbash.ee.jsf.jerry.config.JerryConfiguration;
 import be.atbash.ee.jsf.jerry.metadata.MetaDataEntry;
 import be.atbash.ee.jsf.jerry.metadata.MetaDataHolder;
 import be.atbash.ee.jsf.jerry.metadata.MetaDataTransformer;
+import be.atbash.ee.jsf.jerry.metadata.PropertyInformationKeys;
 import be.atbash.util.BeanManagerFake;
+import be.atbash.util.TestReflectionUtils;
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Test;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -40,10 +52,24 @@ public class ComponentStorageTest {
     private static final String OTHER_ENTRY_KEY = "otherEntryKey";
     private static final String OTHER_ENTRY_VALUE = "otherEntryValue";
 
+    private static final Function<String, byte[]> VIEW_DIGESTER = viewId -> viewId.getBytes(StandardCharsets.UTF_8);
+
     private BeanManagerFake beanManagerFake;
 
     private ComponentStorage componentStorage = new ComponentStorage();
 
+    @Before
+    public void setup() throws NoSuchFieldException, IllegalAccessException {
+        TestConfig.registerDefaultConverters();
+        TestReflectionUtils.setFieldValue(componentStorage, "jerryConfiguration", new JerryConfiguration());
+        TestReflectionUtils.setFieldValue(componentStorage, "viewDigester", VIEW_DIGESTER);
+    }
+
+    @After
+    public void teardown() {
+        TestConfig.resetConfig();
+    }
+
     @Test
     public void testContainsEntry() {
         // So that enhancers get initialized with empty list
@@ -199,6 +225,67 @@ public class ComponentStorageTest {
 
     }
 
+    @Test
+    public void testGetComponentInfo_handledTypes() {
+
+        beanManagerFake = new BeanManagerFake();
+        DummyMetaDataTransformer transformer = new DummyMetaDataTransformer();
+        TypedMetaDataTransformer typedTransformer = new TypedMetaDataTransformer();
+        beanManagerFake.registerBean(transformer, MetaDataTransformer.class);
+        beanManagerFake.registerBean(typedTransformer, MetaDataTransformer.class);
+        beanManagerFake.endRegistration();
+
+        componentStorage.init();
+
+        componentStorage.storeEntry(VIEW_ID, CLIENT_ID, new TestMetaDataHolder(ENTRY_KEY, ENTRY_KEY));
+        componentStorage.storeEntry(VIEW_ID, OTHER_CLIENT_ID, new TestMetaDataHolder(Deprecated.class, "typed"));
+        // Only the key and no type
+        componentStorage.storeEntry(VIEW_ID, CLIENT_ID + "Key", new TestMetaDataHolder(Deprecated.class.getName(), "untyped"));
+        // The annotation as value and no type
+        Deprecated annotation = DeprecatedModel.class.getAnnotation(Deprecated.class);
+        componentStorage.storeEntry(VIEW_ID, CLIENT_ID + "Annotation", new TestMetaDataHolder("deprecated", annotation));
+
+        Map<String, Object> componentInfo = componentStorage.getComponentInfo(VIEW_ID, CLIENT_ID);
+        assertThat(componentInfo.keySet()).containsExactly(ENTRY_TRANS_KEY);
+        assertThat(typedTransformer.getExecuted()).isEqualTo(0);
+
+        componentInfo = componentStorage.getComponentInfo(VIEW_ID, OTHER_CLIENT_ID);
+        assertThat(componentInfo).containsEntry(Deprecated.class.getName(), "typed");
+        assertThat(typedTransformer.getExecuted()).isEqualTo(1);
+        // Transformers without handled types are called for all entries.
+        assertThat(transformer.getExecuted()).isEqualTo(2);
+
+        // Without type, the transformer is selected on the key.
+        componentInfo = componentStorage.getComponentInfo(VIEW_ID, CLIENT_ID + "Key");
+        assertThat(componentInfo).containsEntry(Deprecated.class.getName(), "untyped");
+        assertThat(typedTransformer.getExecuted()).isEqualTo(2);
+
+        // Without type, the transformer is selected on the type of the annotation.
+        componentInfo = componentStorage.getComponentInfo(VIEW_ID, CLIENT_ID + "Annotation");
+        assertThat(componentInfo).containsEntry("deprecated", annotation);
+        assertThat(typedTransformer.getExecuted()).isEqualTo(3);
+        assertThat(transformer.getExecuted()).isEqualTo(4);
+    }
+
+    @Test
+    public void testGetComponentInfo_handledTypesUnknownType() {
+
+        beanManagerFake = new BeanManagerFake();
+        TypedMetaDataTransformer typedTransformer = new TypedMetaDataTransformer();
+        beanManagerFake.registerBean(typedTransformer, MetaDataTransformer.class);
+        beanManagerFake.endRegistration();
+
+        componentStorage.init();
+
+        // The type of the entry takes precedence over the key.
+        componentStorage.storeEntry(VIEW_ID, CLIENT_ID, new TestMetaDataHolder(Override.class, "typed"));
+        componentStorage.storeEntry(VIEW_ID, OTHER_CLIENT_ID, new TestMetaDataHolder(ENTRY_KEY, ENTRY_VALUE));
+
+        assertThat(componentStorage.getComponentInfo(VIEW_ID, CLIENT_ID)).isEmpty();
+        assertThat(componentStorage.getComponentInfo(VIEW_ID, OTHER_CLIENT_ID)).isEmpty();
+        assertThat(typedTransformer.getExecuted()).isEqualTo(0);
+    }
+
     @Test
     public void testGetComponentInfo_NoEntryStored() {
         Map<String, Object> componentInfo = componentStorage.getComponentInfo(VIEW_ID, CLIENT_ID);
@@ -206,26 +293,699 @@ public class ComponentStorageTest {
         assertThat(componentInfo.entrySet()).isEmpty();
     }
 
+    @Test
+    public void testGetComponentInfo_RefreshedAfterStore() {
+        beanManagerFake = new BeanManagerFake();
+        beanManagerFake.registerBean(new DummyMetaDataTransformer(), MetaDataTransformer.class);
+        beanManagerFake.endRegistration();
+
+        componentStorage.init();
+
+        componentStorage.storeEntry(VIEW_ID, CLIENT_ID, new OtherTestMetaDataHolder());
+        assertThat(componentStorage.getComponentInfo(VIEW_ID, CLIENT_ID).keySet()).isEmpty();
+
+        componentStorage.storeEntry(VIEW_ID, CLIENT_ID, new TestMetaDataHolder(ENTRY_KEY, ENTRY_VALUE));
+        assertThat(componentStorage.getComponentInfo(VIEW_ID, CLIENT_ID).keySet()).containsExactly(ENTRY_TRANS_KEY);
+    }
+
+    @Test
+    public void testGetViewIds() {
+        initializeEmptyBeanManager();
+
+        componentStorage.storeEntry(VIEW_ID, CLIENT_ID, new TestMetaDataHolder(ENTRY_KEY, ENTRY_VALUE));
+        componentStorage.storeEntry(VIEW_ID, OTHER_CLIENT_ID, new TestMetaDataHolder(ENTRY_KEY, ENTRY_VALUE));
+        componentStorage.setNotAvailable(OTHER_VIEW_ID, CLIENT_ID, TestMetaDataHolder.class);
+
+        assertThat(componentStorage.getViewIds()).containsOnly(VIEW_ID, OTHER_VIEW_ID);
+        assertThat(componentStorage.getClientIds(VIEW_ID)).containsOnly(CLIENT_ID, OTHER_CLIENT_ID);
+        assertThat(componentStorage.getClientIds(OTHER_VIEW_ID)).containsOnly(CLIENT_ID);
+        assertThat(componentStorage.getClientIds("unknown")).isEmpty();
+    }
+
+    @Test
+    public void testEvictView() {
+        initializeEmptyBeanManager();
+
+        componentStorage.storeEntry(VIEW_ID, CLIENT_ID, new TestMetaDataHolder(ENTRY_KEY, ENTRY_VALUE));
+        componentStorage.storeEntry(OTHER_VIEW_ID, CLIENT_ID, new TestMetaDataHolder(ENTRY_KEY, ENTRY_VALUE));
+        componentStorage.setNotAvailable(VIEW_ID, OTHER_CLIENT_ID, TestMetaDataHolder.class);
+
+        componentStorage.evictView(VIEW_ID);
+
+        assertThat(componentStorage.containsEntry(VIEW_ID, CLIENT_ID, TestMetaDataHolder.class)).isFalse();
+        assertThat(componentStorage.isEntryPossibleFor(VIEW_ID, OTHER_CLIENT_ID, TestMetaDataHolder.class)).isTrue();
+        assertThat(componentStorage.containsEntry(OTHER_VIEW_ID, CLIENT_ID, TestMetaDataHolder.class)).isTrue();
+        assertThat(componentStorage.getViewIds()).containsOnly(OTHER_VIEW_ID);
+        assertThat(componentStorage.getStatistics().getEntryCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testEvictView_ConcurrentStore() throws InterruptedException {
+        initializeEmptyBeanManager();
+
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            String prefix = "thread" + i;
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 2000; j++) {
+                    componentStorage.setNotAvailable(VIEW_ID, prefix + (j % 50), TestMetaDataHolder.class);
+                    if (j % 10 == 0) {
+                        componentStorage.evictView(VIEW_ID);
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // The count matches the components in the storage.
+        assertThat(componentStorage.getStatistics().getEntryCount()).isEqualTo(componentStorage.getClientIds(VIEW_ID).size());
+        componentStorage.evictAll();
+        assertThat(componentStorage.getStatistics().getEntryCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testComputeEntryIfAbsent() {
+        initializeEmptyBeanManager();
+
+        TestMetaDataHolder value = new TestMetaDataHolder(ENTRY_KEY, ENTRY_VALUE);
+        TestMetaDataHolder entry = componentStorage.computeEntryIfAbsent(VIEW_ID, CLIENT_ID, TestMetaDataHolder.class, () -> value);
+        assertThat(entry).isSameAs(value);
+
+        assertThat(componentStorage.containsEntry(VIEW_ID, CLIENT_ID, TestMetaDataHolder.class)).isTrue();
+        assertThat(componentStorage.getEntry(VIEW_ID, CLIENT_ID, TestMetaDataHolder.class)).isSameAs(value);
+
+        // Supplier not called again
+        entry = componentStorage.computeEntryIfAbsent(VIEW_ID, CLIENT_ID, TestMetaDataHolder.class, () -> new TestMetaDataHolder(OTHER_ENTRY_KEY, OTHER_ENTRY_VALUE));
+        assertThat(entry).isSameAs(value);
+    }
+
+    @Test
+    public void testComputeEntryIfAbsent_NotAvailable() {
+        initializeEmptyBeanManager();
+
+        AtomicInteger calls = new AtomicInteger();
+        TestMetaDataHolder entry = componentStorage.computeEntryIfAbsent(VIEW_ID, CLIENT_ID, TestMetaDataHolder.class, () -> {
+            calls.incrementAndGet();
+            return null;
+        });
+        assertThat(entry).isNull();
+        assertThat(componentStorage.containsEntry(VIEW_ID, CLIENT_ID, TestMetaDataHolder.class)).isFalse();
+        assertThat(componentStorage.isEntryPossibleFor(VIEW_ID, CLIENT_ID, TestMetaDataHolder.class)).isFalse();
+
+        componentStorage.computeEntryIfAbsent(VIEW_ID, CLIENT_ID, TestMetaDataHolder.class, () -> {
+            calls.incrementAndGet();
+            return null;
+        });
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testComputeEntryIfAbsent_Concurrent() throws InterruptedException, ExecutionException {
+        initializeEmptyBeanManager();
+
+        int threads = 16;
+        int components = 500;
+
+        Map<String, AtomicInteger> extractions = new ConcurrentHashMap<>();
+        for (int i = 0; i < components; i++) {
+            extractions.put(CLIENT_ID + i, new AtomicInteger());
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<TestMetaDataHolder>>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    List<TestMetaDataHolder> result = new ArrayList<>();
+                    for (int i = 0; i < components; i++) {
+                        String clientId = CLIENT_ID + i;
+                        result.add(componentStorage.computeEntryIfAbsent(VIEW_ID, clientId, TestMetaDataHolder.class, () -> {
+                            extractions.get(clientId).incrementAndGet();
+                            return new TestMetaDataHolder(ENTRY_KEY, clientId);
+                        }));
+                    }
+                    return result;
+                }));
+            }
+            start.countDown();
+
+            List<TestMetaDataHolder> first = futures.get(0).get();
+            for (Future<List<TestMetaDataHolder>> future : futures) {
+                List<TestMetaDataHolder> entries = future.get();
+                for (int i = 0; i < components; i++) {
+                    // All threads see the same entry
+                    assertThat(entries.get(i)).isSameAs(first.get(i));
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (int i = 0; i < components; i++) {
+            // Extracted once and not lost
+            assertThat(extractions.get(CLIENT_ID + i).get()).isEqualTo(1);
+            assertThat(componentStorage.containsEntry(VIEW_ID, CLIENT_ID + i, TestMetaDataHolder.class)).isTrue();
+        }
+    }
+
+    @Test
+    public void testStoreEntry_Concurrent() throws InterruptedException, ExecutionException {
+        initializeEmptyBeanManager();
+
+        int threads = 16;
+        int components = 500;
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                String viewId = VIEW_ID + t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < components; i++) {
+                        componentStorage.storeEntry(viewId, CLIENT_ID + i, new TestMetaDataHolder(ENTRY_KEY, ENTRY_VALUE));
+                        componentStorage.setNotAvailable(viewId, CLIENT_ID + i, OtherTestMetaDataHolder.class);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // No lost writes
+        for (int t = 0; t < threads; t++) {
+            for (int i = 0; i < components; i++) {
+                assertThat(componentStorage.containsEntry(VIEW_ID + t, CLIENT_ID + i, TestMetaDataHolder.class)).isTrue();
+                assertThat(componentStorage.isEntryPossibleFor(VIEW_ID + t, CLIENT_ID + i, OtherTestMetaDataHolder.class)).isFalse();
+            }
+        }
+    }
+
+    @Test
+    public void testMaxEntriesPerView() {
+        TestConfig.addConfigValue("jerry.storage.max.entries.per.view", "10");
+        initializeEmptyBeanManager();
+
+        for (int i = 0; i < 25; i++) {
+            componentStorage.storeEntry(VIEW_ID, CLIENT_ID + i, new TestMetaDataHolder(ENTRY_KEY, ENTRY_VALUE));
+            componentStorage.storeEntry(OTHER_VIEW_ID, CLIENT_ID + i, new TestMetaDataHolder(ENTRY_KEY, ENTRY_VALUE));
+        }
+
+        assertThat(componentStorage.getClientIds(VIEW_ID).size()).isLessThanOrEqualTo(10);
+        assertThat(componentStorage.getClientIds(OTHER_VIEW_ID).size()).isLessThanOrEqualTo(10);
+        // Most recent one is kept
+        assertThat(componentStorage.containsEntry(VIEW_ID, CLIENT_ID + 24, TestMetaDataHolder.class)).isTrue();
+        assertThat(componentStorage.containsEntry(VIEW_ID, CLIENT_ID + 0, TestMetaDataHolder.class)).isFalse();
+
+        StorageStatistics statistics = componentStorage.getStatistics();
+        assertThat(statistics.getEntryCount()).isLessThanOrEqualTo(20);
+        assertThat(statistics.getEvictionCount()).isEqualTo(50 - statistics.getEntryCount());
+    }
+
+    @Test
+    public void testMaxEntriesPerView_LeastRecentlyUsedEvicted() throws InterruptedException {
+        TestConfig.addConfigValue("jerry.storage.max.entries.per.view", "10");
+        initializeEmptyBeanManager();
+
+        for (int i = 0; i < 10; i++) {
+            componentStorage.storeEntry(VIEW_ID, CLIENT_ID + i, new TestMetaDataHolder(ENTRY_KEY, ENTRY_VALUE));
+        }
+        Thread.sleep(5);
+        // Access the first one so that it isn't evicted.
+        assertThat(componentStorage.containsEntry(VIEW_ID, CLIENT_ID + 0, TestMetaDataHolder.class)).isTrue();
+
+        componentStorage.storeEntry(VIEW_ID, CLIENT_ID + 10, new TestMetaDataHolder(ENTRY_KEY, ENTRY_VALUE));
+
+        assertThat(componentStorage.containsEntry(VIEW_ID, CLIENT_ID + 0, TestMetaDataHolder.class)).isTrue();
+        assertThat(componentStorage.containsEntry(VIEW_ID, CLIENT_ID + 1, TestMetaDataHolder.class)).isFalse();
+        assertThat(componentStorage.containsEntry(VIEW_ID, CLIENT_ID + 10, TestMetaDataHolder.class)).isTrue();
+    }
+
+    @Test
+    public void testMaxEntriesPerView_EvictedBeforePostback() {
+        TestConfig.addConfigValue("jerry.storage.max.entries.per.view", "2");
+        initializeEmptyBeanManager();
+
+        // Render
+        componentStorage.computeEntryIfAbsent(VIEW_ID, CLIENT_ID, RecordingTestMetaDataHolder.class,
+                () -> new RecordingTestMetaDataHolder(Collections.singletonList("value")));
+        for (int i = 0; i < 5; i++) {
+            componentStorage.storeEntry(VIEW_ID, OTHER_CLIENT_ID + i, new TestMetaDataHolder(ENTRY_KEY, ENTRY_VALUE));
+        }
+        assertThat(componentStorage.getRecordingInformation(VIEW_ID, CLIENT_ID)).isEmpty();
+
+        // Postback, the entry is determined again as it is evicted.
+        AtomicInteger supplierCalls = new AtomicInteger();
+        componentStorage.computeEntryIfAbsent(VIEW_ID, CLIENT_ID, RecordingTestMetaDataHolder.class, () -> {
+            supplierCalls.incrementAndGet();
+            return new RecordingTestMetaDataHolder(Collections.singletonList("value"));
+        });
+
+        assertThat(supplierCalls.get()).isEqualTo(1);
+        assertThat(componentStorage.getRecordingInformation(VIEW_ID, CLIENT_ID)).containsExactly("value");
+    }
+
+    @Test
+    public void testMaxEntriesPerView_MostRecentKept() {
+        TestConfig.addConfigValue("jerry.storage.max.entries.per.view", "1");
+        initializeEmptyBeanManager();
+
+        componentStorage.storeEntry(VIEW_ID, CLIENT_ID, new TestMetaDataHolder(ENTRY_KEY, ENTRY_VALUE));
+        componentStorage.storeEntry(VIEW_ID, OTHER_CLIENT_ID, new TestMetaDataHolder(ENTRY_KEY, ENTRY_VALUE));
+
+        assertThat(componentStorage.getClientIds(VIEW_ID)).containsExactly(OTHER_CLIENT_ID);
+        assertThat(componentStorage.containsEntry(VIEW_ID, OTHER_CLIENT_ID, TestMetaDataHolder.class)).isTrue();
+    }
+
+    @Test
+    public void testMaxEntries() {
+        TestConfig.addConfigValue("jerry.storage.max.entries", "30");
+        initializeEmptyBeanManager();
+
+        for (int i = 0; i < 25; i++) {
+            componentStorage.storeEntry(VIEW_ID, CLIENT_ID + i, new TestMetaDataHolder(ENTRY_KEY, ENTRY_VALUE));
+            componentStorage.storeEntry(OTHER_VIEW_ID, CLIENT_ID + i, new TestMetaDataHolder(ENTRY_KEY, ENTRY_VALUE));
+        }
+
+        int entries = componentStorage.getClientIds(VIEW_ID).size() + componentStorage.getClientIds(OTHER_VIEW_ID).size();
+        assertThat(entries).isLessThanOrEqualTo(30);
+
+        StorageStatistics statistics = componentStorage.getStatistics();
+        assertThat(statistics.getEntryCount()).isEqualTo(entries);
+        assertThat(statistics.getEvictionCount()).isEqualTo(50 - entries);
+    }
+
+    @Test
+    public void testExpireAfterAccess() throws InterruptedException {
+        TestConfig.addConfigValue("jerry.storage.expire.after.access", "1");
+        initializeEmptyBeanManager();
+
+        componentStorage.storeEntry(VIEW_ID, CLIENT_ID, new TestMetaDataHolder(ENTRY_KEY, ENTRY_VALUE));
+        assertThat(componentStorage.containsEntry(VIEW_ID, CLIENT_ID, TestMetaDataHolder.class)).isTrue();
+
+        Thread.sleep(1100);
+
+        componentStorage.storeEntry(VIEW_ID, OTHER_CLIENT_ID, new TestMetaDataHolder(ENTRY_KEY, ENTRY_VALUE));
+
+        assertThat(componentStorage.containsEntry(VIEW_ID, CLIENT_ID, TestMetaDataHolder.class)).isFalse();
+        assertThat(componentStorage.containsEntry(VIEW_ID, OTHER_CLIENT_ID, TestMetaDataHolder.class)).isTrue();
+        assertThat(componentStorage.getStatistics().getEvictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testNoLimits() {
+        initializeEmptyBeanManager();
+
+        for (int i = 0; i < 1000; i++) {
+            componentStorage.storeEntry(VIEW_ID, CLIENT_ID + i, new TestMetaDataHolder(ENTRY_KEY, ENTRY_VALUE));
+        }
+
+        StorageStatistics statistics = componentStorage.getStatistics();
+        assertThat(statistics.getEntryCount()).isEqualTo(1000);
+        assertThat(statistics.getEvictionCount()).isEqualTo(0);
+        assertThat(statistics.getViewCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testStatistics_HitAndMiss() {
+        initializeEmptyBeanManager();
+
+        componentStorage.computeEntryIfAbsent(VIEW_ID, CLIENT_ID, TestMetaDataHolder.class, () -> new TestMetaDataHolder(ENTRY_KEY, ENTRY_VALUE));
+        componentStorage.computeEntryIfAbsent(VIEW_ID, CLIENT_ID, TestMetaDataHolder.class, () -> new TestMetaDataHolder(ENTRY_KEY, ENTRY_VALUE));
+        componentStorage.getEntry(VIEW_ID, CLIENT_ID, TestMetaDataHolder.class);
+        componentStorage.getEntry(VIEW_ID, OTHER_CLIENT_ID, TestMetaDataHolder.class);
+
+        StorageStatistics statistics = componentStorage.getStatistics();
+        assertThat(statistics.getHitCount()).isEqualTo(2);
+        assertThat(statistics.getMissCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testSnapshot_ExportImport() throws IOException, NoSuchFieldException, IllegalAccessException {
+        beanManagerFake = new BeanManagerFake();
+        beanManagerFake.registerBean(new DummyMetaDataTransformer(), MetaDataTransformer.class);
+        beanManagerFake.endRegistration();
+
+        componentStorage.init();
+
+        componentStorage.storeEntry(VIEW_ID, CLIENT_ID, new TestMetaDataHolder(ENTRY_KEY, ENTRY_VALUE));
+        componentStorage.setNotAvailable(VIEW_ID, OTHER_CLIENT_ID, TestMetaDataHolder.class);
+
+        Path file = Files.createTempFile("storage", ".snapshot");
+        try {
+            assertThat(componentStorage.exportSnapshot(file)).isEqualTo(2);
+
+            ComponentStorage restored = createComponentStorage();
+            assertThat(restored.importSnapshot(file)).isEqualTo(2);
+
+            assertThat(restored.getComponentInfo(VIEW_ID, CLIENT_ID)).containsEntry(ENTRY_TRANS_KEY, ENTRY_VALUE);
+            assertThat(restored.containsEntry(VIEW_ID, CLIENT_ID, TestMetaDataHolder.class)).isTrue();
+            assertThat(restored.isEntryPossibleFor(VIEW_ID, OTHER_CLIENT_ID, TestMetaDataHolder.class)).isFalse();
+
+            // The original meta-data isn't restored, but the entry isn't determined again.
+            TestMetaDataHolder entry = restored.computeEntryIfAbsent(VIEW_ID, CLIENT_ID, TestMetaDataHolder.class, () -> {
+                throw new IllegalStateException("Entry is restored from snapshot");
+            });
+            assertThat(entry).isNull();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testGetRecordingInformation() {
+        initializeEmptyBeanManager();
+
+        componentStorage.storeEntry(VIEW_ID, CLIENT_ID, new TestMetaDataHolder(ENTRY_KEY, ENTRY_VALUE));
+        assertThat(componentStorage.getRecordingInformation(VIEW_ID, CLIENT_ID)).isEmpty();
+        assertThat(componentStorage.getRecordingInformation(VIEW_ID, OTHER_CLIENT_ID)).isEmpty();
+        assertThat(componentStorage.getRecordingInformation(OTHER_VIEW_ID, CLIENT_ID)).isEmpty();
+
+        // Information of the component must be determined again
+        componentStorage.storeEntry(VIEW_ID, OTHER_CLIENT_ID, new RecordingTestMetaDataHolder(Collections.singletonList("value")));
+        assertThat(componentStorage.getRecordingInformation(VIEW_ID, OTHER_CLIENT_ID)).containsExactly("value");
+        assertThat(componentStorage.getRecordingInformation(VIEW_ID, CLIENT_ID)).isEmpty();
+
+        componentStorage.storeEntry(VIEW_ID, OTHER_CLIENT_ID, new RecordingTestMetaDataHolder(Collections.singletonList("updated")));
+        assertThat(componentStorage.getRecordingInformation(VIEW_ID, OTHER_CLIENT_ID)).containsExactly("updated");
+
+        componentStorage.evictView(VIEW_ID);
+        assertThat(componentStorage.getRecordingInformation(VIEW_ID, OTHER_CLIENT_ID)).isEmpty();
+    }
+
+    @Test
+    public void testGetRecordingInformation_OtherComponentChanged() {
+        initializeEmptyBeanManager();
+
+        componentStorage.storeEntry(VIEW_ID, CLIENT_ID, new RecordingTestMetaDataHolder(Collections.singletonList("value")));
+        List<?> information = componentStorage.getRecordingInformation(VIEW_ID, CLIENT_ID);
+
+        // Only the information of the changed component is determined again
+        componentStorage.storeEntry(VIEW_ID, OTHER_CLIENT_ID, new RecordingTestMetaDataHolder(Collections.singletonList("other")));
+        assertThat(componentStorage.getRecordingInformation(VIEW_ID, CLIENT_ID)).isSameAs(information);
+        assertThat(componentStorage.getRecordingInformation(VIEW_ID, OTHER_CLIENT_ID)).containsExactly("other");
+    }
+
+    @Test
+    public void testSnapshot_RecordingInformation() throws IOException, NoSuchFieldException, IllegalAccessException {
+        initializeEmptyBeanManager();
+
+        componentStorage.storeEntry(VIEW_ID, CLIENT_ID, new RecordingTestMetaDataHolder(Arrays.asList("first", 2, new Date(1000L))));
+
+        Path file = Files.createTempFile("storage", ".snapshot");
+        try {
+            componentStorage.exportSnapshot(file);
+
+            ComponentStorage restored = createComponentStorage();
+            restored.importSnapshot(file);
+
+            assertThat(restored.getRecordingInformation(VIEW_ID, CLIENT_ID)).containsExactly("first", 2, new Date(1000L));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testSnapshot_NotSerializableSkipped() throws IOException, NoSuchFieldException, IllegalAccessException {
+        initializeEmptyBeanManager();
+
+        componentStorage.storeEntry(VIEW_ID, CLIENT_ID, new RecordingTestMetaDataHolder(Collections.singletonList(new Object())));
+        componentStorage.storeEntry(VIEW_ID, OTHER_CLIENT_ID, new RecordingTestMetaDataHolder(Collections.singletonList("value")));
+
+        Path file = Files.createTempFile("storage", ".snapshot");
+        try {
+            assertThat(componentStorage.exportSnapshot(file)).isEqualTo(1);
+
+            ComponentStorage restored = createComponentStorage();
+            assertThat(restored.importSnapshot(file)).isEqualTo(1);
+            assertThat(restored.getClientIds(VIEW_ID)).containsExactly(OTHER_CLIENT_ID);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testSnapshot_TransformersChanged() throws IOException, NoSuchFieldException, IllegalAccessException {
+        beanManagerFake = new BeanManagerFake();
+        beanManagerFake.registerBean(new DummyMetaDataTransformer(), MetaDataTransformer.class);
+        beanManagerFake.endRegistration();
+
+        componentStorage.init();
+
+        componentStorage.storeEntry(VIEW_ID, CLIENT_ID, new TestMetaDataHolder(ENTRY_KEY, ENTRY_VALUE));
+
+        Path file = Files.createTempFile("storage", ".snapshot");
+        try {
+            componentStorage.exportSnapshot(file);
+
+            beanManagerFake.deregistration();
+            beanManagerFake = new BeanManagerFake();
+            beanManagerFake.endRegistration();
+
+            ComponentStorage restored = createComponentStorage();
+            assertThat(restored.importSnapshot(file)).isEqualTo(0);
+            assertThat(restored.getViewIds()).isEmpty();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testSnapshot_SnapshotValue() throws IOException, NoSuchFieldException, IllegalAccessException {
+        initializeEmptyBeanManager();
+
+        componentStorage.storeEntry(VIEW_ID, CLIENT_ID, new RecordingTestMetaDataHolder(Collections.singletonList(new TestSnapshotValue(String.class, "value", 3))));
+
+        Path file = Files.createTempFile("storage", ".snapshot");
+        try {
+            assertThat(componentStorage.exportSnapshot(file)).isEqualTo(1);
+
+            ComponentStorage restored = createComponentStorage();
+            assertThat(restored.importSnapshot(file)).isEqualTo(1);
+            assertThat(restored.getRecordingInformation(VIEW_ID, CLIENT_ID)).containsExactly(new TestSnapshotValue(String.class, "value", 3));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testSnapshot_SerializableSkipped() throws IOException, NoSuchFieldException, IllegalAccessException {
+        initializeEmptyBeanManager();
+
+        // Serializable isn't enough, no Java serialization is used.
+        componentStorage.storeEntry(VIEW_ID, CLIENT_ID, new RecordingTestMetaDataHolder(Collections.singletonList(new StringBuilder("value"))));
+
+        Path file = Files.createTempFile("storage", ".snapshot");
+        try {
+            assertThat(componentStorage.exportSnapshot(file)).isEqualTo(0);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testSnapshot_ViewChanged() throws IOException, NoSuchFieldException, IllegalAccessException {
+        initializeEmptyBeanManager();
+
+        componentStorage.storeEntry(VIEW_ID, CLIENT_ID, new RecordingTestMetaDataHolder(Collections.singletonList("value")));
+        componentStorage.storeEntry(OTHER_VIEW_ID, CLIENT_ID, new RecordingTestMetaDataHolder(Collections.singletonList("other")));
+
+        Path file = Files.createTempFile("storage", ".snapshot");
+        try {
+            assertThat(componentStorage.exportSnapshot(file)).isEqualTo(2);
+
+            ComponentStorage restored = createComponentStorage(viewId -> VIEW_ID.equals(viewId) ? new byte[]{1} : VIEW_DIGESTER.apply(viewId));
+            assertThat(restored.importSnapshot(file)).isEqualTo(1);
+            assertThat(restored.getViewIds()).containsOnly(OTHER_VIEW_ID);
+            assertThat(restored.getRecordingInformation(OTHER_VIEW_ID, CLIENT_ID)).containsExactly("other");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testSnapshot_ViewChangedVerifiedAtFirstAccess() throws IOException, NoSuchFieldException, IllegalAccessException {
+        initializeEmptyBeanManager();
+
+        componentStorage.storeEntry(VIEW_ID, CLIENT_ID, new RecordingTestMetaDataHolder(Collections.singletonList("value")));
+        componentStorage.storeEntry(OTHER_VIEW_ID, CLIENT_ID, new RecordingTestMetaDataHolder(Collections.singletonList("other")));
+
+        Path file = Files.createTempFile("storage", ".snapshot");
+        try {
+            componentStorage.exportSnapshot(file);
+
+            // View resources can't be read during the import, as outside a request.
+            ComponentStorage restored = createComponentStorage(viewId -> null);
+            assertThat(restored.importSnapshot(file)).isEqualTo(2);
+
+            TestReflectionUtils.setFieldValue(restored, "viewDigester", (Function<String, byte[]>) viewId -> VIEW_ID.equals(viewId) ? new byte[]{1} : VIEW_DIGESTER.apply(viewId));
+            assertThat(restored.getRecordingInformation(VIEW_ID, CLIENT_ID)).isEmpty();
+            assertThat(restored.getRecordingInformation(OTHER_VIEW_ID, CLIENT_ID)).containsExactly("other");
+            assertThat(restored.getViewIds()).containsOnly(OTHER_VIEW_ID);
+            assertThat(restored.getStatistics().getEntryCount()).isEqualTo(1);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testSnapshot_ViewUnknownSkipped() throws IOException, NoSuchFieldException, IllegalAccessException {
+        initializeEmptyBeanManager();
+        TestReflectionUtils.setFieldValue(componentStorage, "viewDigester", (Function<String, byte[]>) viewId -> null);
+
+        componentStorage.storeEntry(VIEW_ID, CLIENT_ID, new RecordingTestMetaDataHolder(Collections.singletonList("value")));
+
+        Path file = Files.createTempFile("storage", ".snapshot");
+        try {
+            assertThat(componentStorage.exportSnapshot(file)).isEqualTo(0);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testSnapshot_ViewDigestOnlyWithSnapshotFile() throws NoSuchFieldException, IllegalAccessException {
+        AtomicInteger digestCalls = new AtomicInteger();
+        TestReflectionUtils.setFieldValue(componentStorage, "viewDigester", (Function<String, byte[]>) viewId -> {
+            digestCalls.incrementAndGet();
+            return VIEW_DIGESTER.apply(viewId);
+        });
+        initializeEmptyBeanManager();
+
+        componentStorage.storeEntry(VIEW_ID, CLIENT_ID, new TestMetaDataHolder(ENTRY_KEY, ENTRY_VALUE));
+        assertThat(digestCalls.get()).isEqualTo(0);
+
+        TestConfig.addConfigValue("jerry.storage.snapshot.file", "target/unknown.snapshot");
+        componentStorage.init();
+
+        componentStorage.storeEntry(OTHER_VIEW_ID, CLIENT_ID, new TestMetaDataHolder(ENTRY_KEY, ENTRY_VALUE));
+        componentStorage.storeEntry(OTHER_VIEW_ID, OTHER_CLIENT_ID, new TestMetaDataHolder(ENTRY_KEY, ENTRY_VALUE));
+        // Once for the new view
+        assertThat(digestCalls.get()).isEqualTo(1);
+    }
+
+    @Test(expected = IOException.class)
+    public void testSnapshot_InvalidFile() throws IOException, NoSuchFieldException, IllegalAccessException {
+        initializeEmptyBeanManager();
+
+        Path file = Files.createTempFile("storage", ".snapshot");
+        try {
+            Files.write(file, "Not a snapshot".getBytes(StandardCharsets.UTF_8));
+
+            componentStorage.importSnapshot(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private ComponentStorage createComponentStorage() throws NoSuchFieldException, IllegalAccessException {
+        return createComponentStorage(VIEW_DIGESTER);
+    }
+
+    private ComponentStorage createComponentStorage(Function<String, byte[]> viewDigester) throws NoSuchFieldException, IllegalAccessException {
+        ComponentStorage result = new ComponentStorage();
+        TestReflectionUtils.setFieldValue(result, "jerryConfiguration", new JerryConfiguration());
+        TestReflectionUtils.setFieldValue(result, "viewDigester", viewDigester);
+        result.init();
+        return result;
+    }
+
     private static class TestMetaDataHolder implements MetaDataHolder {
 
         private String entryKey;
-        private String entryValue;
+        private Class<?> entryType;
+        private Object entryValue;
 
-        private TestMetaDataHolder(String entryKey, String entryValue) {
+        private TestMetaDataHolder(String entryKey, Object entryValue) {
             this.entryKey = entryKey;
             this.entryValue = entryValue;
         }
 
+        private TestMetaDataHolder(Class<?> entryType, String entryValue) {
+            this(entryType.getName(), entryValue);
+            this.entryType = entryType;
+        }
+
         // Jerry doesn't contain any of these, mainly designed for Valerie.
         @Override
         public MetaDataEntry[] getMetaDataEntries() {
             MetaDataEntry testEntry = new MetaDataEntry();
             testEntry.setKey(entryKey);
+            testEntry.setType(entryType);
             testEntry.setValue(entryValue);
             return new MetaDataEntry[]{testEntry};
         }
     }
 
+    private static class RecordingTestMetaDataHolder implements MetaDataHolder {
+
+        private List<?> recordingInformation;
+
+        private RecordingTestMetaDataHolder(List<?> recordingInformation) {
+            this.recordingInformation = recordingInformation;
+        }
+
+        @Override
+        public MetaDataEntry[] getMetaDataEntries() {
+            MetaDataEntry testEntry = new MetaDataEntry();
+            testEntry.setKey(ENTRY_KEY);
+            Map<String, Object> properties = new HashMap<>();
+            properties.put(PropertyInformationKeys.RECORDING_INFORMATION, recordingInformation);
+            testEntry.setProperties(properties);
+            return new MetaDataEntry[]{testEntry};
+        }
+    }
+
+    public static class TestSnapshotValue implements SnapshotValue {
+
+        private final Class<?> type;
+        private final String name;
+        private final Integer size;
+
+        public TestSnapshotValue(Class<?> type, String name, Integer size) {
+            this.type = type;
+            this.name = name;
+            this.size = size;
+        }
+
+        @Override
+        public Object[] getSnapshotArguments() {
+            return new Object[]{type, name, size};
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TestSnapshotValue)) {
+                return false;
+            }
+            TestSnapshotValue that = (TestSnapshotValue) o;
+            return type.equals(that.type) && name.equals(that.name) && size.equals(that.size);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, name, size);
+        }
+    }
+
+    @Deprecated
+    private static class DeprecatedModel {
+    }
+
     private static class OtherTestMetaDataHolder implements MetaDataHolder {
         // Jerry doesn't contain any of these, mainly designed for Valerie.
         @Override
@@ -254,4 +1014,31 @@ public class ComponentStorageTest {
             return executed;
         }
     }
-}
\ No newline at end of file
+
+    private static class TypedMetaDataTransformer implements MetaDataTransformer {
+
+        private int executed;
+
+        @Override
+        public Map<String, Object> convertMetaData(MetaDataEntry metaData) {
+            Map<String, Object> result = new HashMap<>();
+            convertMetaData(metaData, result);
+            return result;
+        }
+
+        @Override
+        public void convertMetaData(MetaDataEntry metaData, Map<String, Object> result) {
+            executed++;
+            result.put(metaData.getKey(), metaData.getValue());
+        }
+
+        @Override
+        public Set<Class<?>> getHandledTypes() {
+            return Collections.<Class<?>>singleton(Deprecated.class);
+        }
+
+        public int getExecuted() {
+            return executed;
+        }
+    }
+}
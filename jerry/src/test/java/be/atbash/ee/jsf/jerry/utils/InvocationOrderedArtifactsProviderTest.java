@@ -0,0 +1,108 @@
+/*
+ * Copyright 2014-2020 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.ee.jsf.jerry.utils;
+
+import be.atbash.ee.jsf.jerry.interceptor.AbstractRendererInterceptor;
+import be.atbash.ee.jsf.jerry.interceptor.RendererInterceptor;
+import be.atbash.ee.jsf.jerry.interceptor.RendererInterceptorHook;
+import be.atbash.ee.jsf.jerry.ordering.InvocationOrder;
+import be.atbash.ee.jsf.jerry.renderkit.model.SpyRendererInterceptor;
+import be.atbash.util.BeanManagerFake;
+import be.atbash.util.TestReflectionUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.faces.component.UIComponent;
+import javax.faces.context.FacesContext;
+import javax.faces.render.Renderer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InvocationOrderedArtifactsProviderTest {
+
+    private BeanManagerFake beanManagerFake;
+
+    @Before
+    public void setup() {
+        beanManagerFake = new BeanManagerFake();
+    }
+
+    @After
+    public void teardown() throws NoSuchFieldException, IllegalAccessException {
+        beanManagerFake.deregistration();
+
+        // reset
+        Object instance = TestReflectionUtils.getValueOf(InvocationOrderedArtifactsProvider.class, "INSTANCE");
+        TestReflectionUtils.resetOf(instance, "rendererInterceptors");
+    }
+
+    @Test
+    public void getRendererInterceptors_perHook() {
+        RendererInterceptor spyInterceptor = new SpyRendererInterceptor();
+        RendererInterceptor encodeBeginInterceptor = new EncodeBeginInterceptor();
+        RendererInterceptor convertedValueInterceptor = new ConvertedValueInterceptor();
+
+        beanManagerFake.registerBean(spyInterceptor, RendererInterceptor.class);
+        beanManagerFake.registerBean(convertedValueInterceptor, RendererInterceptor.class);
+        beanManagerFake.registerBean(encodeBeginInterceptor, RendererInterceptor.class);
+        beanManagerFake.endRegistration();
+
+        assertThat(InvocationOrderedArtifactsProvider.getRendererInterceptors(RendererInterceptorHook.BEFORE_ENCODE_BEGIN))
+                .containsExactly(encodeBeginInterceptor, spyInterceptor);
+        assertThat(InvocationOrderedArtifactsProvider.getRendererInterceptors(RendererInterceptorHook.AFTER_GET_CONVERTED_VALUE))
+                .containsExactly(convertedValueInterceptor, spyInterceptor);
+        assertThat(InvocationOrderedArtifactsProvider.getRendererInterceptors(RendererInterceptorHook.BEFORE_DECODE))
+                .containsExactly(spyInterceptor);
+
+        assertThat(InvocationOrderedArtifactsProvider.getRendererInterceptors())
+                .containsExactly(encodeBeginInterceptor, convertedValueInterceptor, spyInterceptor);
+    }
+
+    @Test
+    public void getRendererInterceptors_noImplementation() {
+        beanManagerFake.registerBean(new EncodeBeginInterceptor(), RendererInterceptor.class);
+        beanManagerFake.endRegistration();
+
+        assertThat(InvocationOrderedArtifactsProvider.getRendererInterceptors(RendererInterceptorHook.AFTER_ENCODE_END)).isEmpty();
+        assertThat(InvocationOrderedArtifactsProvider.getRendererInterceptors(RendererInterceptorHook.BEFORE_ENCODE_BEGIN)).hasSize(1);
+    }
+
+    @Test
+    public void getRendererInterceptors_noInterceptors() {
+        beanManagerFake.endRegistration();
+
+        for (RendererInterceptorHook hook : RendererInterceptorHook.values()) {
+            assertThat(InvocationOrderedArtifactsProvider.getRendererInterceptors(hook)).isEmpty();
+        }
+    }
+
+    @InvocationOrder(10)
+    private static class EncodeBeginInterceptor extends AbstractRendererInterceptor {
+
+        @Override
+        public void beforeEncodeBegin(FacesContext facesContext, UIComponent uiComponent, Renderer wrapped) {
+        }
+    }
+
+    @InvocationOrder(20)
+    private static class ConvertedValueInterceptor extends AbstractRendererInterceptor {
+
+        @Override
+        public void afterGetConvertedValue(FacesContext facesContext, UIComponent uiComponent, Object submittedValue, Object convertedValue, Renderer wrapped) {
+        }
+    }
+}
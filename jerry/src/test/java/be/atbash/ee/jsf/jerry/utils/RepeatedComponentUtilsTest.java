@@ -0,0 +1,150 @@
+/*
+ * Copyright 2014-2020 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.ee.jsf.jerry.utils;
+
+import org.junit.Test;
+
+import javax.faces.component.UIData;
+import javax.faces.component.UIForm;
+import javax.faces.component.UIInput;
+import javax.faces.component.UINamingContainer;
+import javax.faces.context.FacesContext;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RepeatedComponentUtilsTest {
+
+    @Test
+    public void removeRowIndex() {
+        assertThat(RepeatedComponentUtils.removeRowIndex("form:table:17:name", "form:table", ':')).isEqualTo("form:table:name");
+    }
+
+    @Test
+    public void removeRowIndex_notIterating() {
+        assertThat(RepeatedComponentUtils.removeRowIndex("form:table:name", "form:table", ':')).isEqualTo("form:table:name");
+    }
+
+    @Test
+    public void removeRowIndex_nonNumericSegment() {
+        assertThat(RepeatedComponentUtils.removeRowIndex("form:table:17a:name", "form:table", ':')).isEqualTo("form:table:17a:name");
+    }
+
+    @Test
+    public void removeRowIndex_otherParent() {
+        assertThat(RepeatedComponentUtils.removeRowIndex("form:tables:17:name", "form:table", ':')).isEqualTo("form:tables:17:name");
+    }
+
+    @Test
+    public void removeRowIndex_nested() {
+        // Inner most first
+        String clientId = RepeatedComponentUtils.removeRowIndex("form:outer:3:inner:5:name", "form:outer:3:inner", ':');
+        clientId = RepeatedComponentUtils.removeRowIndex(clientId, "form:outer", ':');
+        assertThat(clientId).isEqualTo("form:outer:inner:name");
+    }
+
+    @Test
+    public void removeRowIndex_otherSeparator() {
+        assertThat(RepeatedComponentUtils.removeRowIndex("form_table_17_name", "form_table", '_')).isEqualTo("form_table_name");
+    }
+
+    @Test
+    public void removeOwnRowIndex() {
+        assertThat(RepeatedComponentUtils.removeOwnRowIndex("form:table:17", ':')).isEqualTo("form:table");
+    }
+
+    @Test
+    public void removeOwnRowIndex_notIterating() {
+        assertThat(RepeatedComponentUtils.removeOwnRowIndex("form:table", ':')).isEqualTo("form:table");
+    }
+
+    @Test
+    public void removeOwnRowIndex_noSeparator() {
+        assertThat(RepeatedComponentUtils.removeOwnRowIndex("table", ':')).isEqualTo("table");
+        assertThat(RepeatedComponentUtils.removeOwnRowIndex(null, ':')).isNull();
+    }
+
+    @Test
+    public void getStorageClientId_UIData() {
+        FacesContext facesContext = mockFacesContext();
+
+        UIForm form = new UIForm();
+        form.setId("form");
+        form.setRendererType(null);
+
+        UIData table = new UIData();
+        table.setId("table");
+        table.setRendererType(null);
+        form.getChildren().add(table);
+
+        UIInput input = new UIInput();
+        input.setId("name");
+        input.setRendererType(null);
+        table.getChildren().add(input);
+
+        table.setRowIndex(17);
+
+        assertThat(table.getClientId(facesContext)).isEqualTo("form:table:17");
+        assertThat(input.getClientId(facesContext)).isEqualTo("form:table:17:name");
+        assertThat(RepeatedComponentUtils.getStorageClientId(facesContext, input)).isEqualTo("form:table:name");
+    }
+
+    @Test
+    public void getStorageClientId_nestedUIData() {
+        FacesContext facesContext = mockFacesContext();
+
+        UIForm form = new UIForm();
+        form.setId("form");
+        form.setRendererType(null);
+
+        UIData outer = new UIData();
+        outer.setId("outer");
+        outer.setRendererType(null);
+        form.getChildren().add(outer);
+
+        UIData inner = new UIData();
+        inner.setId("inner");
+        inner.setRendererType(null);
+        outer.getChildren().add(inner);
+
+        UIInput input = new UIInput();
+        input.setId("name");
+        input.setRendererType(null);
+        inner.getChildren().add(input);
+
+        outer.setRowIndex(3);
+        inner.setRowIndex(5);
+
+        assertThat(input.getClientId(facesContext)).isEqualTo("form:outer:3:inner:5:name");
+        assertThat(RepeatedComponentUtils.getStorageClientId(facesContext, input)).isEqualTo("form:outer:inner:name");
+    }
+
+    private static FacesContext mockFacesContext() {
+        FacesContext facesContext = mock(FacesContext.class);
+        Map<Object, Object> attributes = new HashMap<>();
+        attributes.put(UINamingContainer.SEPARATOR_CHAR_PARAM_NAME, ':');
+        when(facesContext.getAttributes()).thenReturn(attributes);
+        return facesContext;
+    }
+
+    @Test
+    public void isRepeatingComponent() {
+        assertThat(RepeatedComponentUtils.isRepeatingComponent(new UIData())).isTrue();
+    }
+}
@@ -0,0 +1,460 @@
+/*
+ * Copyright 2014-2020 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.ee.jsf.valerie.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.*;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Annotation processor which writes the meta-data index for Valerie (META-INF/valerie/metadata.index). For each
+ * class using Bean Validation constraints (on a field, getter or the class itself, also through super classes and
+ * interfaces) it lists the properties and the fields and getters which have annotations, in the same order as
+ * Valerie searches them at runtime. Valerie can then read the annotations directly from these members without
+ * searching the class hierarchy.
+ * <p>
+ * Format of the index, one entry per line:
+ * <pre>
+ * build &lt;build id&gt;
+ * class &lt;binary name of the class&gt;
+ * property &lt;name of the property&gt;
+ * method &lt;binary name of the declaring type&gt; &lt;name of the getter&gt;
+ * field &lt;binary name of the declaring type&gt; &lt;name of the field&gt;
+ * </pre>
+ * The method and field lines belong to the preceding property, the property lines to the preceding class.
+ * The build id identifies the compilation which wrote the index (hash of the entries), Valerie only uses an index with
+ * a build id.
+ * <p>
+ * With an incremental compilation, only some classes are processed. The classes of the index of the previous
+ * compilation are then described again (from their compiled version) so that changes in a super class or interface
+ * compiled now are reflected in all entries, and classes which no longer exist are removed. All entries of the index
+ * therefore always match the classes of the compilation which wrote it.
+ * <p>
+ * Repeated annotations are described by the annotations they contain and not by their container annotation.
+ */
+@SupportedAnnotationTypes("*")
+public class MetaDataIndexProcessor extends AbstractProcessor {
+
+    static final String INDEX_LOCATION = "META-INF/valerie/metadata.index";
+
+    private static final String CONSTRAINT_ANNOTATION = "javax.validation.Constraint";
+
+    // Per class the lines of the index, starting with the class line.
+    private final Map<String, List<String>> index = new TreeMap<>();
+
+    // All types processed by this compilation, also those without constraints.
+    private final Set<String> processedTypes = new HashSet<>();
+
+    private final Map<String, Boolean> constraintAnnotations = new HashMap<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeIndex();
+        } else {
+            for (TypeElement typeElement : ElementFilter.typesIn(roundEnv.getRootElements())) {
+                scanType(typeElement);
+            }
+        }
+        // We never claim the annotations, other processors can handle them also.
+        return false;
+    }
+
+    private void scanType(TypeElement typeElement) {
+        processedTypes.add(getBinaryName(typeElement));
+        List<String> lines = describeClass(typeElement);
+        if (lines != null) {
+            index.put(getBinaryName(typeElement), lines);
+        }
+
+        for (TypeElement nestedType : ElementFilter.typesIn(typeElement.getEnclosedElements())) {
+            scanType(nestedType);
+        }
+    }
+
+    /**
+     * The lines of the index for the class, null when it isn't a concrete class with constraints.
+     */
+    private List<String> describeClass(TypeElement typeElement) {
+        if (typeElement.getKind() != ElementKind.CLASS || typeElement.getModifiers().contains(Modifier.ABSTRACT)) {
+            return null;
+        }
+        List<TypeElement> hierarchy = getHierarchy(typeElement);
+        if (!hasConstraints(hierarchy)) {
+            return null;
+        }
+        List<String> lines = new ArrayList<>();
+        lines.add("class " + getBinaryName(typeElement));
+        lines.addAll(describeProperties(typeElement, hierarchy));
+        return lines;
+    }
+
+    /**
+     * All classes and interfaces which are searched for annotations by Valerie, starting from the class itself.
+     */
+    private List<TypeElement> getHierarchy(TypeElement typeElement) {
+        List<TypeElement> result = new ArrayList<>();
+        TypeElement currentType = typeElement;
+        while (currentType != null && !Object.class.getName().equals(currentType.getQualifiedName().toString())) {
+            result.add(currentType);
+            addInterfaces(currentType, result);
+            currentType = asTypeElement(currentType.getSuperclass());
+        }
+        return result;
+    }
+
+    private void addInterfaces(TypeElement typeElement, List<TypeElement> result) {
+        for (TypeMirror interfaceType : typeElement.getInterfaces()) {
+            TypeElement interfaceElement = asTypeElement(interfaceType);
+            if (interfaceElement != null) {
+                result.add(interfaceElement);
+                addInterfaces(interfaceElement, result);
+            }
+        }
+    }
+
+    private boolean hasConstraints(List<TypeElement> hierarchy) {
+        for (TypeElement typeElement : hierarchy) {
+            if (hasConstraint(typeElement)) {
+                return true;
+            }
+            for (Element member : typeElement.getEnclosedElements()) {
+                if ((member.getKind() == ElementKind.FIELD || member.getKind() == ElementKind.METHOD) && hasConstraint(member)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean hasConstraint(Element element) {
+        for (TypeElement annotationType : getAnnotationTypes(element)) {
+            if (isConstraint(annotationType, new HashSet<>())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The types of the annotations of the element, where the container of repeated annotations is replaced by the type
+     * of the annotations it contains (as it depends on the compiler and the source or class file which one is seen).
+     */
+    private List<TypeElement> getAnnotationTypes(Element element) {
+        List<TypeElement> result = new ArrayList<>();
+        for (AnnotationMirror annotationMirror : element.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) annotationMirror.getAnnotationType().asElement();
+            TypeElement repeatedType = getRepeatedType(annotationType);
+            result.add(repeatedType == null ? annotationType : repeatedType);
+        }
+        return result;
+    }
+
+    /**
+     * The repeatable annotation type of which the annotation type is the container, null when it is no container.
+     */
+    private TypeElement getRepeatedType(TypeElement annotationType) {
+        for (ExecutableElement method : ElementFilter.methodsIn(annotationType.getEnclosedElements())) {
+            if ("value".equals(method.getSimpleName().toString()) && method.getReturnType().getKind() == TypeKind.ARRAY) {
+                TypeElement componentType = asTypeElement(((ArrayType) method.getReturnType()).getComponentType());
+                if (componentType != null && componentType.getKind() == ElementKind.ANNOTATION_TYPE && isContainer(componentType, annotationType)) {
+                    return componentType;
+                }
+            }
+        }
+        return null;
+    }
+
+    private boolean isContainer(TypeElement repeatableType, TypeElement containerType) {
+        for (AnnotationMirror annotationMirror : repeatableType.getAnnotationMirrors()) {
+            if (Repeatable.class.getName().equals(((TypeElement) annotationMirror.getAnnotationType().asElement()).getQualifiedName().toString())) {
+                for (AnnotationValue value : annotationMirror.getElementValues().values()) {
+                    TypeElement valueType = value.getValue() instanceof TypeMirror ? asTypeElement((TypeMirror) value.getValue()) : null;
+                    return valueType != null && valueType.getQualifiedName().contentEquals(containerType.getQualifiedName());
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Is the annotation a constraint, directly or as a composed constraint.
+     */
+    private boolean isConstraint(TypeElement annotationType, Set<String> visited) {
+        String name = annotationType.getQualifiedName().toString();
+        Boolean result = constraintAnnotations.get(name);
+        if (result != null) {
+            return result;
+        }
+        if (CONSTRAINT_ANNOTATION.equals(name)) {
+            return true;
+        }
+        if (name.startsWith("java.lang.annotation.") || !visited.add(name)) {
+            return false;
+        }
+        result = false;
+        for (AnnotationMirror annotationMirror : annotationType.getAnnotationMirrors()) {
+            if (isConstraint((TypeElement) annotationMirror.getAnnotationType().asElement(), visited)) {
+                result = true;
+                break;
+            }
+        }
+        constraintAnnotations.put(name, result);
+        return result;
+    }
+
+    private List<String> describeProperties(TypeElement typeElement, List<TypeElement> hierarchy) {
+        List<String> result = new ArrayList<>();
+        for (String property : getPropertyNames(hierarchy)) {
+            result.add("property " + property);
+            describeMembers(typeElement, property, result);
+        }
+        return result;
+    }
+
+    private Set<String> getPropertyNames(List<TypeElement> hierarchy) {
+        Set<String> result = new TreeSet<>();
+        for (TypeElement typeElement : hierarchy) {
+            for (VariableElement field : ElementFilter.fieldsIn(typeElement.getEnclosedElements())) {
+                String name = field.getSimpleName().toString();
+                if (name.startsWith("_") && name.length() > 1) {
+                    name = name.substring(1);
+                }
+                result.add(name);
+            }
+            for (ExecutableElement method : ElementFilter.methodsIn(typeElement.getEnclosedElements())) {
+                String name = method.getSimpleName().toString();
+                if (method.getParameters().isEmpty()) {
+                    if (name.startsWith("get") && name.length() > 3) {
+                        result.add(decapitalize(name.substring(3)));
+                    }
+                    if (name.startsWith("is") && name.length() > 2) {
+                        result.add(decapitalize(name.substring(2)));
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Lists the annotated members of the property in the same order as AnnotationUtils of Valerie does; per class
+     * the getter, the field and then the getters of the interfaces.
+     */
+    private void describeMembers(TypeElement typeElement, String property, List<String> result) {
+        TypeElement currentType = typeElement;
+        while (currentType != null && !Object.class.getName().equals(currentType.getQualifiedName().toString())) {
+            describeGetter(currentType, property, result);
+            describeField(currentType, property, result);
+
+            describeInterfaceGetters(currentType, property, result);
+
+            currentType = asTypeElement(currentType.getSuperclass());
+        }
+    }
+
+    private void describeInterfaceGetters(TypeElement typeElement, String property, List<String> result) {
+        for (TypeMirror interfaceType : typeElement.getInterfaces()) {
+            TypeElement interfaceElement = asTypeElement(interfaceType);
+            if (interfaceElement != null) {
+                describeGetter(interfaceElement, property, result);
+
+                describeInterfaceGetters(interfaceElement, property, result);
+            }
+        }
+    }
+
+    private void describeGetter(TypeElement typeElement, String property, List<String> result) {
+        String capitalized = property.substring(0, 1).toUpperCase() + property.substring(1);
+        ExecutableElement getter = findGetter(typeElement, "is" + capitalized);
+        if (getter == null) {
+            getter = findGetter(typeElement, "get" + capitalized);
+        }
+        if (getter != null && hasRuntimeAnnotations(getter)) {
+            result.add("method " + getBinaryName(typeElement) + " " + getter.getSimpleName());
+        }
+    }
+
+    private ExecutableElement findGetter(TypeElement typeElement, String name) {
+        for (ExecutableElement method : ElementFilter.methodsIn(typeElement.getEnclosedElements())) {
+            if (method.getParameters().isEmpty() && name.equals(method.getSimpleName().toString())) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    private void describeField(TypeElement typeElement, String property, List<String> result) {
+        VariableElement field = findField(typeElement, property);
+        if (field == null) {
+            field = findField(typeElement, "_" + property);
+        }
+        if (field == null) {
+            if (property.length() > 1 && Character.isUpperCase(property.charAt(0)) && Character.isUpperCase(property.charAt(1))) {
+                field = findField(typeElement, property.substring(0, 1).toLowerCase() + property.substring(1));
+            } else {
+                field = findField(typeElement, decapitalize(property));
+            }
+        }
+        if (field != null && hasRuntimeAnnotations(field)) {
+            result.add("field " + getBinaryName(typeElement) + " " + field.getSimpleName());
+        }
+    }
+
+    private VariableElement findField(TypeElement typeElement, String name) {
+        for (VariableElement field : ElementFilter.fieldsIn(typeElement.getEnclosedElements())) {
+            if (name.equals(field.getSimpleName().toString())) {
+                return field;
+            }
+        }
+        return null;
+    }
+
+    private boolean hasRuntimeAnnotations(Element element) {
+        return !getRuntimeAnnotations(element).isEmpty();
+    }
+
+    private List<String> getRuntimeAnnotations(Element element) {
+        List<String> result = new ArrayList<>();
+        for (TypeElement annotationType : getAnnotationTypes(element)) {
+            Retention retention = annotationType.getAnnotation(Retention.class);
+            if (retention != null && retention.value() == RetentionPolicy.RUNTIME) {
+                result.add(getBinaryName(annotationType));
+            }
+        }
+        return result;
+    }
+
+    private static byte[] sha256(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder result = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            result.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return result.toString();
+    }
+
+    private TypeElement asTypeElement(TypeMirror typeMirror) {
+        if (typeMirror.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        return (TypeElement) ((DeclaredType) typeMirror).asElement();
+    }
+
+    private String getBinaryName(TypeElement typeElement) {
+        return processingEnv.getElementUtils().getBinaryName(typeElement).toString();
+    }
+
+    /**
+     * Same as java.beans.Introspector#decapitalize, which is not available in all compilation environments.
+     */
+    private static String decapitalize(String name) {
+        if (name.length() > 1 && Character.isUpperCase(name.charAt(1)) && Character.isUpperCase(name.charAt(0))) {
+            return name;
+        }
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private void writeIndex() {
+        Set<String> previousClasses = readPreviousIndex();
+        if (index.isEmpty() && previousClasses == null) {
+            return;
+        }
+        Map<String, List<String>> result = new TreeMap<>();
+        if (previousClasses != null) {
+            for (String previousClass : previousClasses) {
+                TypeElement typeElement = processedTypes.contains(previousClass) ? null : getTypeElement(previousClass);
+                List<String> lines = typeElement == null ? null : describeClass(typeElement);
+                if (lines != null) {
+                    result.put(previousClass, lines);
+                }
+            }
+        }
+        result.putAll(index);
+        List<String> content = new ArrayList<>();
+        for (List<String> lines : result.values()) {
+            content.addAll(lines);
+        }
+        try {
+            FileObject resource = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", INDEX_LOCATION);
+            try (PrintWriter writer = new PrintWriter(new OutputStreamWriter(resource.openOutputStream(), StandardCharsets.UTF_8))) {
+                writer.println("# Valerie meta-data index, generated by " + MetaDataIndexProcessor.class.getName());
+                writer.println("build " + toHex(sha256(String.join("\n", content))));
+                for (String line : content) {
+                    writer.println(line);
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "Unable to write the Valerie meta-data index " + INDEX_LOCATION + " : " + e.getMessage());
+        }
+    }
+
+    /**
+     * The classes of the index written by a previous compilation into the same output, null when there is none.
+     */
+    private Set<String> readPreviousIndex() {
+        Set<String> result = new TreeSet<>();
+        try {
+            FileObject resource = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", INDEX_LOCATION);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.openInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.startsWith("class ")) {
+                        result.add(line.split(" ")[1]);
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // No previous index.
+            return null;
+        }
+        return result;
+    }
+
+    private TypeElement getTypeElement(String binaryName) {
+        return processingEnv.getElementUtils().getTypeElement(binaryName.replace('$', '.'));
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2014-2020 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.ee.jsf.valerie.processor;
+
+import org.junit.Test;
+
+import javax.tools.*;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MetaDataIndexProcessorTest {
+
+    @Test
+    public void process() throws IOException, URISyntaxException {
+        Path output = compile(
+                source("demo.Named", "package demo; public interface Named { @javax.validation.constraints.NotNull String getName(); }"),
+                source("demo.Base", "package demo; public abstract class Base implements Named { " +
+                        "@javax.validation.constraints.Size(max = 5) private String code; " +
+                        "public String getCode() { return code; } }"),
+                source("demo.Person", "package demo; public class Person extends Base { " +
+                        "@Deprecated private String _name; " +
+                        "public String getName() { return _name; } " +
+                        "public static class Inner { @javax.validation.constraints.NotNull private String value; } }"),
+                source("demo.Plain", "package demo; public class Plain { @Deprecated private String value; }"));
+
+        List<String> lines = readIndex(output);
+
+        assertThat(lines).containsExactly(
+                "class demo.Person",
+                "property code",
+                "field demo.Base code",
+                "property name",
+                "field demo.Person _name",
+                "method demo.Named getName",
+                "class demo.Person$Inner",
+                "property value",
+                "field demo.Person$Inner value");
+    }
+
+    @Test
+    public void process_repeatable() throws IOException, URISyntaxException {
+        Path output = compile(
+                source("demo.Code", "package demo; " +
+                        "@javax.validation.Constraint(validatedBy = {}) @java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME) " +
+                        "@java.lang.annotation.Repeatable(Code.List.class) public @interface Code { " +
+                        "String message() default \"\"; Class<?>[] groups() default {}; Class<? extends javax.validation.Payload>[] payload() default {}; " +
+                        "@java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME) @interface List { Code[] value(); } }"),
+                source("demo.Product", "package demo; public class Product { @Code @Code private String code; }"));
+
+        assertThat(readIndex(output)).containsExactly(
+                "class demo.Product",
+                "property code",
+                "field demo.Product code");
+    }
+
+    @Test
+    public void process_build() throws IOException, URISyntaxException {
+        Path output = compile(source("demo.Person", "package demo; public class Person { @javax.validation.constraints.NotNull private String name; }"));
+        Path same = compile(source("demo.Person", "package demo; public class Person { @javax.validation.constraints.NotNull private String name; }"));
+        Path changed = compile(source("demo.Person", "package demo; public class Person { @javax.validation.constraints.NotNull private String name; " +
+                "@javax.validation.constraints.NotNull private String email; }"));
+
+        String buildLine = getBuildLine(output);
+        assertThat(buildLine.matches("build [0-9a-f]{64}")).isTrue();
+        assertThat(getBuildLine(same)).isEqualTo(buildLine);
+        assertThat(getBuildLine(changed)).isNotEqualTo(buildLine);
+    }
+
+    @Test
+    public void process_incremental() throws IOException, URISyntaxException {
+        Path output = Files.createTempDirectory("valerie-processor");
+        compile(output, false,
+                source("demo.Person", "package demo; public class Person { @javax.validation.constraints.NotNull private String name; }"),
+                source("demo.Address", "package demo; public class Address { @javax.validation.constraints.NotNull private String street; }"),
+                source("demo.Removed", "package demo; public class Removed { @javax.validation.constraints.NotNull private String value; }"));
+        Files.delete(output.resolve("demo/Removed.class"));
+
+        // Only Address is compiled again, it has no constraints anymore.
+        compile(output, false, source("demo.Address", "package demo; public class Address { private String street; }"));
+
+        assertThat(readIndex(output)).containsExactly(
+                "class demo.Person",
+                "property name",
+                "field demo.Person name");
+    }
+
+    @Test
+    public void process_incrementalSuperClass() throws IOException, URISyntaxException {
+        Path output = Files.createTempDirectory("valerie-processor");
+        compile(output, false,
+                source("demo.Base", "package demo; public class Base { @javax.validation.constraints.NotNull private String code; }"),
+                source("demo.Person", "package demo; public class Person extends Base { @javax.validation.constraints.NotNull private String name; }"));
+
+        // Only Base is compiled again, the entry of Person is described again with the new Base.
+        compile(output, false, source("demo.Base", "package demo; public class Base { private String code; " +
+                "@javax.validation.constraints.NotNull private String label; }"));
+
+        assertThat(readIndex(output)).containsExactly(
+                "class demo.Base",
+                "property code",
+                "property label",
+                "field demo.Base label",
+                "class demo.Person",
+                "property code",
+                "property label",
+                "field demo.Base label",
+                "property name",
+                "field demo.Person name");
+    }
+
+    @Test
+    public void process_noConstraints() throws IOException, URISyntaxException {
+        Path output = compile(source("demo.Plain", "package demo; public class Plain { @Deprecated private String value; }"));
+
+        assertThat(output.resolve(MetaDataIndexProcessor.INDEX_LOCATION).toFile().exists()).isFalse();
+    }
+
+    /**
+     * The lines of the index, without the comment and the build id.
+     */
+    private static List<String> readIndex(Path output) throws IOException {
+        List<String> result = new ArrayList<>();
+        for (String line : Files.readAllLines(output.resolve(MetaDataIndexProcessor.INDEX_LOCATION), StandardCharsets.UTF_8)) {
+            if (!line.startsWith("#") && !line.startsWith("build ")) {
+                result.add(line);
+            }
+        }
+        return result;
+    }
+
+    private static String getBuildLine(Path output) throws IOException {
+        for (String line : Files.readAllLines(output.resolve(MetaDataIndexProcessor.INDEX_LOCATION), StandardCharsets.UTF_8)) {
+            if (line.startsWith("build ")) {
+                return line;
+            }
+        }
+        return null;
+    }
+
+    private static Path compile(JavaFileObject... sources) throws IOException, URISyntaxException {
+        Path output = Files.createTempDirectory("valerie-processor");
+        compile(output, true, sources);
+        return output;
+    }
+
+    private static void compile(Path output, boolean processingOnly, JavaFileObject... sources) throws IOException, URISyntaxException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8);
+        fileManager.setLocation(StandardLocation.CLASS_OUTPUT, Collections.singletonList(output.toFile()));
+
+        // validation-api from the test classpath, and the classes of a previous compilation.
+        File validationApi = new File(javax.validation.Constraint.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        fileManager.setLocation(StandardLocation.CLASS_PATH, Arrays.asList(validationApi, output.toFile()));
+
+        List<String> options = new ArrayList<>();
+        if (processingOnly) {
+            options.add("-proc:only");
+        }
+        JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null, options, null, Arrays.asList(sources));
+        task.setProcessors(Collections.singletonList(new MetaDataIndexProcessor()));
+        assertThat(task.call()).isTrue();
+    }
+
+    private static JavaFileObject source(String className, String content) {
+        return new SimpleJavaFileObject(URI.create("string:///" + className.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return content;
+            }
+        };
+    }
+}
@@ -18,12 +18,12 @@ package be.atbash.ee.jsf.valerie.primefaces;
 import be.atbash.ee.jsf.jerry.component.ComponentInitializer;
 import be.atbash.ee.jsf.jerry.metadata.CommonMetaDataKeys;
 import be.atbash.ee.jsf.jerry.ordering.InvocationOrder;
+import be.atbash.ee.jsf.valerie.provider.DateProducer;
 import org.primefaces.component.calendar.Calendar;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.faces.component.UIComponent;
 import javax.faces.context.FacesContext;
-import java.util.Date;
 import java.util.Map;
 
 /**
@@ -39,11 +39,11 @@ public class CalendarInitializer implements ComponentInitializer {
         Calendar calendar = (Calendar) uiComponent;
 
         if (metaData.containsKey(CommonMetaDataKeys.PAST.getKey())) {
-            calendar.setMaxdate(new Date());
+            calendar.setMaxdate(DateProducer.now());
         }
 
         if (metaData.containsKey(CommonMetaDataKeys.FUTURE.getKey())) {
-            calendar.setMindate(new Date());
+            calendar.setMindate(DateProducer.now());
         }
 
     }
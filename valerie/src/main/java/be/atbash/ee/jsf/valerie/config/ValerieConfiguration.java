@@ -16,6 +16,7 @@
 package be.atbash.ee.jsf.valerie.config;
 
 import be.atbash.config.AbstractConfiguration;
+import be.atbash.config.exception.ConfigurationException;
 import be.atbash.config.logging.ConfigEntry;
 import be.atbash.config.logging.ModuleConfig;
 import be.atbash.config.logging.ModuleConfigName;
@@ -34,4 +35,31 @@ public class ValerieConfiguration extends AbstractConfiguration implements Modul
         return getOptionalValue("valerie.use.beaninfo", Boolean.FALSE, Boolean.class);
     }
 
+    @ConfigEntry
+    public boolean isWarmUpEnabled() {
+        return getOptionalValue("valerie.warmup.enabled", Boolean.FALSE, Boolean.class);
+    }
+
+    /**
+     * Comma separated list of view ids, or * for all views.
+     */
+    @ConfigEntry
+    public String getWarmUpViews() {
+        return getOptionalValue("valerie.warmup.views", "", String.class);
+    }
+
+    @ConfigEntry
+    public int getWarmUpThreads() {
+        Integer result = getOptionalValue("valerie.warmup.threads", 2, Integer.class);
+        if (result < 1) {
+            throw new ConfigurationException("Parameter 'valerie.warmup.threads' must be a positive number");
+        }
+        return result;
+    }
+
+    @ConfigEntry
+    public boolean verifyDateRange() {
+        return getOptionalValue("valerie.daterange.verify", Boolean.FALSE, Boolean.class);
+    }
+
 }
@@ -22,8 +22,7 @@ import be.atbash.ee.jsf.valerie.validation.BeanValidationMetaDataFilter;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
 
 /**
  *
@@ -31,36 +30,45 @@ import java.util.Map;
 @ApplicationScoped
 public class CustomValidationMetaDataTransformer implements MetaDataTransformer {
 
+    private static final Set<Class<?>> HANDLED_TYPES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            ValSize.class, ValPast.class, ValFuture.class)));
+
     @Inject
     private BeanValidationMetaDataFilter beanValidationMetaDataFilter;
 
     @Override
     public Map<String, Object> convertMetaData(MetaDataEntry metaData) {
         Map<String, Object> result = new HashMap<>();
+        convertMetaData(metaData, result);
+        return result;
+
+    }
 
+    @Override
+    public void convertMetaData(MetaDataEntry metaData, Map<String, Object> result) {
         if (beanValidationMetaDataFilter.isBeanValidationConstraint(metaData)) {
-            convert(metaData, result);
+            convert(metaData.getValue(), result);
         }
-        return result;
+    }
 
+    @Override
+    public Set<Class<?>> getHandledTypes() {
+        return HANDLED_TYPES;
     }
 
-    private void convert(MetaDataEntry metaData, Map<String, Object> result) {
-        if (ValSize.class.getName().equals(metaData.getKey())) {
-            ValSize size = (ValSize) metaData.getValue();
+    private void convert(Object constraint, Map<String, Object> result) {
+        if (constraint instanceof ValSize) {
+            ValSize size = (ValSize) constraint;
             if (size.min() > 0) {
                 result.put(CommonMetaDataKeys.REQUIRED.getKey(), Boolean.TRUE);
             }
             if (size.max() < Integer.MAX_VALUE) {
                 result.put(CommonMetaDataKeys.SIZE.getKey(), size.max());
             }
-        }
-        if (ValPast.class.getName().equals(metaData.getKey())) {
+        } else if (constraint instanceof ValPast) {
             result.put(CommonMetaDataKeys.PAST.getKey(), Boolean.TRUE);
             result.put(CommonMetaDataKeys.REQUIRED.getKey(), Boolean.TRUE);
-        }
-
-        if (ValFuture.class.getName().equals(metaData.getKey())) {
+        } else if (constraint instanceof ValFuture) {
             result.put(CommonMetaDataKeys.FUTURE.getKey(), Boolean.TRUE);
             result.put(CommonMetaDataKeys.REQUIRED.getKey(), Boolean.TRUE);
         }
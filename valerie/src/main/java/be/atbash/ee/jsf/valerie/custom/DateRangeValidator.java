@@ -21,20 +21,36 @@ import org.slf4j.LoggerFactory;
 
 import javax.validation.ConstraintValidator;
 import javax.validation.ConstraintValidatorContext;
-import java.lang.invoke.MethodHandle;
+import java.time.temporal.Temporal;
 import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
 
 /**
- *
+ * Validates that the end date comes after the start date. The properties can be of type Date or of a java.time type
+ * like LocalDate, LocalDateTime and Instant (both properties of the same type). The getters are determined once per
+ * class.
  */
 public class DateRangeValidator implements ConstraintValidator<DateRange, Object> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DateRangeValidator.class);
 
+    // Getters of the date properties, per class and property name.
+    private static final ClassValue<ConcurrentMap<String, DateGetter>> DATE_GETTERS = new ClassValue<ConcurrentMap<String, DateGetter>>() {
+        @Override
+        protected ConcurrentMap<String, DateGetter> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
     private String start;
     private String end;
     private boolean equalsAllowed;
 
+    // Getters for the last validated class.
+    private volatile BoundGetters boundGetters;
+
     public void initialize(DateRange dateRange) {
         start = dateRange.start();
         end = dateRange.end();
@@ -44,23 +60,15 @@ public class DateRangeValidator implements ConstraintValidator<DateRange, Object
     public boolean isValid(Object object,
                            ConstraintValidatorContext constraintValidatorContext) {
         boolean result = true;
-        Class<?> clazz = object.getClass();
+        BoundGetters getters = bind(object.getClass());
 
-        MethodHandle handleStart = MethodHandleUtils.getGetterHandle(clazz, start);
-        if (handleStart == null) {
-            throw new DateRangeValidatorPropertyException(String.format("Unknown object property defined for 'start' : %s", start));
-        }
-        MethodHandle handleEnd = MethodHandleUtils.getGetterHandle(clazz, end);
-        if (handleEnd == null) {
-            throw new DateRangeValidatorPropertyException(String.format("Unknown object property defined for 'end' : %s", end));
-        }
         try {
-            Date startDate = (Date) handleStart.invokeWithArguments(object);
-            Date endDate = (Date) handleEnd.invokeWithArguments(object);
+            Object startDate = getters.start.getter.apply(object);
+            Object endDate = getters.end.getter.apply(object);
             if (startDate != null && endDate != null) {
-                result = endDate.after(startDate);
+                result = isAfter(endDate, startDate);
                 if (!result && equalsAllowed) {
-                    result = endDate.equals(startDate);
+                    result = isSame(endDate, startDate);
                 }
             }
         } catch (Throwable throwable) {
@@ -71,4 +79,101 @@ public class DateRangeValidator implements ConstraintValidator<DateRange, Object
         return result;
     }
 
+    /**
+     * Checks if the start and end properties of the @DateRange constraint on the class can be read, so that mistakes
+     * are reported at startup and not when the user submits the values.
+     *
+     * @param type The class with the @DateRange annotation.
+     * @throws DateRangeValidatorPropertyException When a property isn't found or isn't a supported date type.
+     */
+    public static void verifyProperties(Class<?> type) {
+        DateRange dateRange = type.getAnnotation(DateRange.class);
+        if (dateRange != null) {
+            DateRangeValidator validator = new DateRangeValidator();
+            validator.initialize(dateRange);
+            validator.bind(type);
+        }
+    }
+
+    private BoundGetters bind(Class<?> type) {
+        BoundGetters result = boundGetters;
+        if (result == null || result.type != type) {
+            DateGetter startGetter = getDateGetter(type, start, "start");
+            DateGetter endGetter = getDateGetter(type, end, "end");
+            if (startGetter.comparableType != endGetter.comparableType) {
+                throw new DateRangeValidatorPropertyException(String.format("The properties '%s' and '%s' don't have the same type", start, end));
+            }
+            result = new BoundGetters(type, startGetter, endGetter);
+            boundGetters = result;
+        }
+        return result;
+    }
+
+    private static DateGetter getDateGetter(Class<?> type, String property, String role) {
+        ConcurrentMap<String, DateGetter> getters = DATE_GETTERS.get(type);
+        DateGetter result = getters.get(property);
+        if (result == null) {
+            Class<?> propertyType = MethodHandleUtils.getPropertyType(type, property);
+            if (propertyType == null) {
+                // Unknown property, the getter lookup below logs the warning and results in the exception.
+                propertyType = Date.class;
+            } else if (!isSupported(propertyType)) {
+                throw new DateRangeValidatorPropertyException(String.format("Unsupported type %s of the object property defined for '%s' : %s", propertyType.getName(), role, property));
+            }
+            Function<Object, ?> getter = MethodHandleUtils.getGetter(type, property, propertyType);
+            if (getter == null) {
+                throw new DateRangeValidatorPropertyException(String.format("Unknown object property defined for '%s' : %s", role, property));
+            }
+            result = new DateGetter(getter, Date.class.isAssignableFrom(propertyType) ? Date.class : propertyType);
+            getters.putIfAbsent(property, result);
+        }
+        return result;
+    }
+
+    private static boolean isSupported(Class<?> propertyType) {
+        return Date.class.isAssignableFrom(propertyType)
+                || Temporal.class.isAssignableFrom(propertyType) && Comparable.class.isAssignableFrom(propertyType);
+    }
+
+    private static boolean isAfter(Object endDate, Object startDate) {
+        if (endDate instanceof Date) {
+            return ((Date) endDate).after((Date) startDate);
+        }
+        return compare(endDate, startDate) > 0;
+    }
+
+    private static boolean isSame(Object endDate, Object startDate) {
+        if (endDate instanceof Date) {
+            return endDate.equals(startDate);
+        }
+        return compare(endDate, startDate) == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compare(Object endDate, Object startDate) {
+        return ((Comparable<Object>) endDate).compareTo(startDate);
+    }
+
+    private static class DateGetter {
+        private final Function<Object, ?> getter;
+        // Date for all Date subclasses, as they are compared with each other.
+        private final Class<?> comparableType;
+
+        DateGetter(Function<Object, ?> getter, Class<?> comparableType) {
+            this.getter = getter;
+            this.comparableType = comparableType;
+        }
+    }
+
+    private static class BoundGetters {
+        private final Class<?> type;
+        private final DateGetter start;
+        private final DateGetter end;
+
+        BoundGetters(Class<?> type, DateGetter start, DateGetter end) {
+            this.type = type;
+            this.start = start;
+            this.end = end;
+        }
+    }
 }
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2014-2020 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.ee.jsf.valerie.el;
+
+import be.atbash.ee.jsf.valerie.property.PropertyDetails;
+
+import javax.el.ELContext;
+import javax.el.ELResolver;
+import javax.el.ValueExpression;
+import java.beans.FeatureDescriptor;
+import java.util.*;
+
+/**
+ * The structure of a value expression of the form #{bean.property.property} or #{bean.map['key'].property}, parsed
+ * once. The leading bean is resolved by the expression itself (so that variables mapped by the VariableMapper of the
+ * expression, like ui:param, are honoured) and the evaluation is stopped right after it. The intermediate properties
+ * are resolved directly with the ELResolver, without recording. Expressions which can't be resolved this way (like
+ * #{bean[dynamic]}, method calls or operators) result in {@link #NOT_COMPILABLE}.
+ */
+final class CompiledValueBinding {
+
+    static final CompiledValueBinding NOT_COMPILABLE = new CompiledValueBinding(null, new String[0]);
+
+    private static final Set<String> RESERVED_WORDS = new HashSet<>(Arrays.asList(
+            "and", "or", "not", "eq", "ne", "lt", "gt", "le", "ge", "true", "false", "null", "instanceof", "empty",
+            "div", "mod"));
+
+    private final String root;
+    private final String[] properties;
+    private final String path;
+
+    private CompiledValueBinding(String root, String[] properties) {
+        this.root = root;
+        this.properties = properties;
+
+        StringBuilder builder = new StringBuilder();
+        builder.append(root);
+        for (String property : properties) {
+            builder.append('.').append(property);
+        }
+        path = builder.toString();
+    }
+
+    boolean isCompilable() {
+        return root != null;
+    }
+
+    /**
+     * Resolves the object which holds the last property of the expression. Returns null when the expression isn't
+     * compilable, when the leading bean is mapped by the VariableMapper of the expression or when the value of an
+     * intermediate property can't be determined (null value, property not resolved, ...), so that the caller can fall
+     * back to the recording of the expression evaluation.
+     */
+    PropertyDetails resolve(ValueExpression valueExpression, ELResolver elResolver, ELContext elContext) {
+        if (root == null) {
+            return null;
+        }
+        boolean propertyResolved = elContext.isPropertyResolved();
+        try {
+            Object base = resolveRoot(valueExpression, elResolver, elContext);
+            for (int i = 0; i < properties.length - 1 && base != null; i++) {
+                elContext.setPropertyResolved(false);
+                Object value = elResolver.getValue(elContext, base, properties[i]);
+                base = elContext.isPropertyResolved() ? value : null;
+            }
+            if (base == null) {
+                return null;
+            }
+            return new PropertyDetails(path, base, properties[properties.length - 1]);
+        } finally {
+            elContext.setPropertyResolved(propertyResolved);
+        }
+    }
+
+    /**
+     * Starts the evaluation of the expression and stops it at the first resolution of a top level identifier. When
+     * that identifier isn't the root of the expression (or there is none), the root is mapped to another expression
+     * or value by the VariableMapper of the expression and null is returned.
+     */
+    private Object resolveRoot(ValueExpression valueExpression, ELResolver elResolver, ELContext elContext) {
+        RootProbe probe = new RootProbe(elResolver);
+        try {
+            valueExpression.getValue(RecordingELResolver.createContextWrapper(elContext, probe));
+        } catch (RuntimeException e) {
+            if (!isRootResolved(e)) {
+                // The evaluation of the expression by the caller reports the problem.
+                return null;
+            }
+        }
+        return probe.resolved && root.equals(probe.identifier) ? probe.value : null;
+    }
+
+    private static boolean isRootResolved(Throwable throwable) {
+        Throwable current = throwable;
+        while (current != null) {
+            if (current == RootResolved.INSTANCE) {
+                return true;
+            }
+            current = current.getCause();
+        }
+        return false;
+    }
+
+    /**
+     * Parses the expression string. Returns {@link #NOT_COMPILABLE} when the expression doesn't consist of a leading
+     * bean name followed by properties (.property or ['key']).
+     */
+    static CompiledValueBinding compile(String expressionString) {
+        if (!(expressionString.startsWith("#{") || expressionString.startsWith("${")) || !expressionString.endsWith("}")) {
+            return NOT_COMPILABLE;
+        }
+
+        ValueBindingExpression expression;
+        try {
+            expression = new ValueBindingExpression(expressionString);
+        } catch (RuntimeException e) {
+            return NOT_COMPILABLE;
+        }
+
+        if (!expressionString.equals(expression.getExpressionString())) {
+            return NOT_COMPILABLE;
+        }
+
+        LinkedList<String> properties = new LinkedList<>();
+        ValueBindingExpression current = expression;
+        while (current.getBaseExpression() != null) {
+            String currentString = current.getExpressionString();
+            String property = current.getProperty();
+            if (currentString.endsWith("']}")) {
+                if (property.indexOf('\'') != -1 || property.indexOf('\\') != -1) {
+                    return NOT_COMPILABLE;
+                }
+            } else if (currentString.endsWith("]}") || !isIdentifier(property)) {
+                // Dynamic property or no plain property
+                return NOT_COMPILABLE;
+            }
+            properties.addFirst(property);
+            current = current.getBaseExpression();
+        }
+
+        String root = current.getProperty();
+        if (properties.isEmpty() || !isIdentifier(root)) {
+            return NOT_COMPILABLE;
+        }
+        return new CompiledValueBinding(root, properties.toArray(new String[0]));
+    }
+
+    private static boolean isIdentifier(String value) {
+        if (value.isEmpty() || !Character.isJavaIdentifierStart(value.charAt(0))) {
+            return false;
+        }
+        for (int i = 1; i < value.length(); i++) {
+            if (!Character.isJavaIdentifierPart(value.charAt(i))) {
+                return false;
+            }
+        }
+        return !RESERVED_WORDS.contains(value);
+    }
+
+    /**
+     * Thrown to stop the evaluation once the root is resolved, without stack trace as it is a control flow signal.
+     */
+    private static final class RootResolved extends RuntimeException {
+
+        private static final RootResolved INSTANCE = new RootResolved();
+
+        private RootResolved() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final class RootProbe extends ELResolver {
+
+        private final ELResolver wrapped;
+        private boolean resolved;
+        private Object identifier;
+        private Object value;
+
+        private RootProbe(ELResolver wrapped) {
+            this.wrapped = wrapped;
+        }
+
+        @Override
+        public Object getValue(ELContext context, Object base, Object property) {
+            Object result = wrapped.getValue(context, base, property);
+            if (base == null) {
+                resolved = context.isPropertyResolved();
+                identifier = property;
+                value = result;
+                throw RootResolved.INSTANCE;
+            }
+            return result;
+        }
+
+        @Override
+        public Class<?> getType(ELContext context, Object base, Object property) {
+            return wrapped.getType(context, base, property);
+        }
+
+        @Override
+        public void setValue(ELContext context, Object base, Object property, Object value) {
+            wrapped.setValue(context, base, property, value);
+        }
+
+        @Override
+        public boolean isReadOnly(ELContext context, Object base, Object property) {
+            return wrapped.isReadOnly(context, base, property);
+        }
+
+        @Override
+        public Iterator<FeatureDescriptor> getFeatureDescriptors(ELContext context, Object base) {
+            return wrapped.getFeatureDescriptors(context, base);
+        }
+
+        @Override
+        public Class<?> getCommonPropertyType(ELContext context, Object base) {
+            return wrapped.getCommonPropertyType(context, base);
+        }
+    }
+}
@@ -20,10 +20,14 @@ import be.atbash.ee.jsf.valerie.metadata.ValerieHandler;
 import be.atbash.ee.jsf.valerie.property.PropertyDetails;
 
 import javax.el.ELContext;
+import javax.el.ELResolver;
 import javax.el.ValueExpression;
 import javax.enterprise.context.ApplicationScoped;
 import javax.faces.component.UIComponent;
 import javax.faces.context.FacesContext;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * in order to centralize the jsf version dependency within the core
@@ -41,6 +45,14 @@ public class ELHelper {
 
     //protected final boolean projectStageDevelopment = JsfProjectStage.is(JsfProjectStage.Development);
 
+    // Reusable recorders (with their ELContext), so that they aren't created for each component. An array instead of
+    // a ThreadLocal so that they don't outlive the application on the threads of the server.
+    private final AtomicReferenceArray<RecordingELResolver> recorders =
+            new AtomicReferenceArray<>(Runtime.getRuntime().availableProcessors() * 2);
+
+    // Parsed structure of the expressions, the number of expression strings is limited by the pages of the application.
+    private final ConcurrentMap<String, CompiledValueBinding> compiledBindings = new ConcurrentHashMap<>();
+
     public PropertyDetails getPropertyDetailsOfValueBinding(FacesContext facesContext, UIComponent uiComponent) {
 
         ValueExpression valueExpression = uiComponent.getValueExpression("value");
@@ -66,24 +78,69 @@ public class ELHelper {
     }
 
     private PropertyDetails buildPropertyDetails(FacesContext facesContext, ValueExpression valueExpression) {
-        RecordingELResolver elResolver =
-                new RecordingELResolver(facesContext.getApplication().getELResolver(), true /* TODO this.projectStageDevelopment */);
+        ELResolver applicationResolver = facesContext.getApplication().getELResolver();
+
+        CompiledValueBinding compiledBinding = compiledBindings.computeIfAbsent(valueExpression.getExpressionString(), CompiledValueBinding::compile);
+        if (compiledBinding.isCompilable()) {
+            PropertyDetails result = compiledBinding.resolve(valueExpression, applicationResolver, facesContext.getELContext());
+            if (result != null) {
+                return result;
+            }
+        }
 
-        ELContext elContext = RecordingELResolver.createContextWrapper(facesContext.getELContext(), elResolver);
+        return recordPropertyDetails(applicationResolver, facesContext.getELContext(), valueExpression);
+    }
 
+    /**
+     * Evaluates the expression with a {@link RecordingELResolver} to find out the base object and property. Used when the
+     * expression can't be compiled, like #{bean[otherBean.property]}, or can't be resolved by the compiled binding.
+     */
+    private PropertyDetails recordPropertyDetails(ELResolver applicationResolver, ELContext context, ValueExpression valueExpression) {
+        RecordingELResolver elResolver = borrowRecorder(applicationResolver);
         try {
-            valueExpression.setValue(elContext, null);
-        } catch (Exception e) {
-            throw new IllegalStateException(
-                    "error at binding: " + valueExpression.getExpressionString() +
-                            " -- an el-resolver error occurred! maybe you used an invalid binding. ", e);
+            ELContext elContext = elResolver.wrapContext(context);
+
+            try {
+                valueExpression.setValue(elContext, null);
+            } catch (Exception e) {
+                throw new IllegalStateException(
+                        "error at binding: " + valueExpression.getExpressionString() +
+                                " -- an el-resolver error occurred! maybe you used an invalid binding. ", e);
+            }
+
+            if (elResolver.getPath() == null || elResolver.getBaseObject() == null || elResolver.getProperty() == null) {
+                return null;
+            }
+
+            return new PropertyDetails(elResolver.getPath(), elResolver.getBaseObject(), elResolver.getProperty());
+        } finally {
+            returnRecorder(elResolver);
         }
+    }
 
-        if (elResolver.getPath() == null || elResolver.getBaseObject() == null || elResolver.getProperty() == null) {
-            return null;
+    /**
+     * Takes a free recorder from the pool, or creates one when none is available.
+     */
+    private RecordingELResolver borrowRecorder(ELResolver applicationResolver) {
+        for (int i = 0; i < recorders.length(); i++) {
+            RecordingELResolver recorder = recorders.get(i);
+            if (recorder != null && recorders.compareAndSet(i, recorder, null)) {
+                if (recorder.getWrapped() == applicationResolver) {
+                    return recorder;
+                }
+            }
         }
+        return new RecordingELResolver(applicationResolver, true /* TODO this.projectStageDevelopment */);
+    }
 
-        return new PropertyDetails(elResolver.getPath(), elResolver.getBaseObject(), elResolver.getProperty());
+    private void returnRecorder(RecordingELResolver recorder) {
+        recorder.reset();
+        for (int i = 0; i < recorders.length(); i++) {
+            if (recorders.compareAndSet(i, null, recorder)) {
+                return;
+            }
+        }
+        // Pool is full, recorder is garbage collected.
     }
 
     private UIComponent findCompositeParent(UIComponent uiComponent) {
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2014-2020 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.ee.jsf.valerie.el;
+
+import be.atbash.util.ProxyUtils;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The readable properties of a class (public getXxx or isXxx methods without parameters), determined once per class.
+ * The first character of the property name is accepted in the case of the getter and lower cased, as the property name
+ * is capitalized to find the getter.
+ */
+final class PropertyGetters {
+
+    private static final ClassValue<Set<String>> PROPERTIES = new ClassValue<Set<String>>() {
+        @Override
+        protected Set<String> computeValue(Class<?> type) {
+            return determineProperties(ProxyUtils.getUnproxiedClass(type));
+        }
+    };
+
+    private PropertyGetters() {
+    }
+
+    static boolean hasGetter(Class<?> type, String property) {
+        return PROPERTIES.get(type).contains(property);
+    }
+
+    private static Set<String> determineProperties(Class<?> type) {
+        Set<String> result = new HashSet<>();
+        for (Method method : type.getMethods()) {
+            if (method.getParameterCount() != 0) {
+                continue;
+            }
+            String name = method.getName();
+            String propertyName;
+            if (name.startsWith("get") && name.length() > 3) {
+                propertyName = name.substring(3);
+            } else if (name.startsWith("is") && name.length() > 2) {
+                propertyName = name.substring(2);
+            } else {
+                continue;
+            }
+            // Property names are capitalized to find the getter, so getter names with a lower case character aren't found.
+            // Whether getXxx or isXxx is used to read the property doesn't matter, both make it readable.
+            if (Character.toUpperCase(propertyName.charAt(0)) == propertyName.charAt(0)) {
+                result.add(propertyName);
+                result.add(Character.toLowerCase(propertyName.charAt(0)) + propertyName.substring(1));
+            }
+        }
+        return Collections.unmodifiableSet(result);
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2014-2020 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.ee.jsf.valerie.el;
+
+import javax.el.ELContext;
+import javax.el.ELResolver;
+import javax.el.FunctionMapper;
+import javax.el.VariableMapper;
+import java.util.Locale;
+
+/**
+ * ELContext which uses the {@link RecordingELResolver} and delegates everything else to the ELContext of the request.
+ * It can be reused for another ELContext, see {@link #wrap(ELContext)}.
+ */
+class RecordingELContext extends ELContext {
+
+    private final ELResolver resolver;
+    private ELContext context;
+
+    RecordingELContext(ELResolver resolver) {
+        this.resolver = resolver;
+    }
+
+    RecordingELContext wrap(ELContext context) {
+        this.context = context;
+        super.setPropertyResolved(false);
+        return this;
+    }
+
+    void release() {
+        context = null;
+    }
+
+    @Override
+    public Locale getLocale() {
+        return context.getLocale();
+    }
+
+    @Override
+    public void setPropertyResolved(boolean value) {
+        super.setPropertyResolved(value);
+        context.setPropertyResolved(value);
+    }
+
+    @Override
+    public void putContext(Class clazz, Object object) {
+        // Not kept in this instance as it is reused.
+        context.putContext(clazz, object);
+    }
+
+    @Override
+    public Object getContext(Class clazz) {
+        return context.getContext(clazz);
+    }
+
+    @Override
+    public void setLocale(Locale locale) {
+        context.setLocale(locale);
+    }
+
+    @Override
+    public ELResolver getELResolver() {
+        return resolver;
+    }
+
+    @Override
+    public FunctionMapper getFunctionMapper() {
+        return context.getFunctionMapper();
+    }
+
+    @Override
+    public VariableMapper getVariableMapper() {
+        return context.getVariableMapper();
+    }
+}
@@ -15,38 +15,51 @@
  */
 package be.atbash.ee.jsf.valerie.el;
 
-import be.atbash.util.ProxyUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.el.ELContext;
 import javax.el.ELResolver;
-import javax.el.FunctionMapper;
-import javax.el.VariableMapper;
 import java.beans.FeatureDescriptor;
 import java.util.Iterator;
-import java.util.Locale;
 import java.util.Map;
 
 /**
- *
+ * Records the path, base object and property of a value expression. An instance can be reused for other expressions
+ * after {@link #reset()}, it can only be used by one thread at a time.
  */
 public class RecordingELResolver extends ELResolver {
     protected final Logger logger = LoggerFactory.getLogger(RecordingELResolver.class);
 
-    private ELResolver wrapped;
+    private final ELResolver wrapped;
+
+    private final RecordingELContext elContext;
 
     private boolean projectStageDevelopment;
 
     private Object baseObject;
     private String property;
     //forms the id for cross-validation within complex components
-    private String expression;
+    private final StringBuilder expression = new StringBuilder();
+    private boolean expressionStarted = false;
     private boolean isPathRecordingStopped = false;
 
     public RecordingELResolver(ELResolver elResolver, boolean projectStageDevelopment) {
         this.wrapped = elResolver;
         this.projectStageDevelopment = projectStageDevelopment;
+        this.elContext = new RecordingELContext(this);
+    }
+
+    ELResolver getWrapped() {
+        return wrapped;
+    }
+
+    /**
+     * Returns an ELContext which uses this resolver and delegates to the context. The same ELContext instance is
+     * returned each time, so it is only valid until the next call or {@link #reset()}.
+     */
+    public ELContext wrapContext(ELContext context) {
+        return elContext.wrap(context);
     }
 
     public Object getBaseObject() {
@@ -58,16 +71,20 @@ public class RecordingELResolver extends ELResolver {
     }
 
     public String getPath() {
+        String result = expressionStarted ? expression.toString() : null;
         if (logger.isTraceEnabled()) {
-            logger.trace("extracted path: " + this.expression);
+            logger.trace("extracted path: " + result);
         }
-        return this.expression;
+        return result;
     }
 
     public void reset() {
         this.baseObject = null;
         this.property = null;
-        this.expression = null;
+        this.expression.setLength(0);
+        this.expressionStarted = false;
+        this.isPathRecordingStopped = false;
+        this.elContext.release();
     }
 
     /**
@@ -90,41 +107,28 @@ public class RecordingELResolver extends ELResolver {
         Object result = this.wrapped.getValue(elContext, base, property);
 
         //very first call for an expression
-        if (this.expression == null) {
-            this.expression = (String) property;
+        if (!this.expressionStarted) {
+            this.expression.append((String) property);
+            this.expressionStarted = true;
         }
         //#{bean[dynBase.propertyName]} -> base of dynBase is null -> stop path recording
         else if (base == null) {
             this.isPathRecordingStopped = true;
         } else {
-            boolean propertyExists = false;
-            String propertyName = property.toString();
-            propertyName = propertyName.substring(0, 1).toUpperCase() + propertyName.substring(1);
-
-            try {
-                if (base instanceof Map) {
-                    if (((Map<?,?>) base).containsKey(property)) {
-                        propertyExists = true;
-                    }
-                } else if (ProxyUtils.getUnproxiedClass(base.getClass()).getMethod("get" + propertyName) != null) {
-                    propertyExists = true;
-                }
-            } catch (NoSuchMethodException e) {
-                try {
-                    if (ProxyUtils.getUnproxiedClass(base.getClass()).getMethod("is" + propertyName) != null) {
-                        propertyExists = true;
-                    }
-                } catch (NoSuchMethodException e1) {
-                    if (logger.isTraceEnabled()) {
-                        logger.trace("property: " + property +
-                                " isn't used for path - it isn't a property of " + base.getClass());
-                    }
+            boolean propertyExists;
+            if (base instanceof Map) {
+                propertyExists = ((Map<?, ?>) base).containsKey(property);
+            } else {
+                propertyExists = PropertyGetters.hasGetter(base.getClass(), property.toString());
+                if (!propertyExists && logger.isTraceEnabled()) {
+                    logger.trace("property: " + property +
+                            " isn't used for path - it isn't a property of " + base.getClass());
                 }
             }
 
             //e.g.: #{bean.subBase.property} -> here we are at subBase
             if (propertyExists && !this.isPathRecordingStopped) {
-                this.expression += "." + property;
+                this.expression.append('.').append(property);
             } else if (propertyExists && result instanceof String) {
                 this.isPathRecordingStopped = false;
             }
@@ -146,10 +150,11 @@ public class RecordingELResolver extends ELResolver {
 
     public void setValue(ELContext elContext, Object o, Object o1, Object o2) {
         if (o1 instanceof String) {
-            if (expression == null) {
-                expression = (String) o1;
+            if (!expressionStarted) {
+                expression.append((String) o1);
+                expressionStarted = true;
             } else {
-                expression += "." + o1;
+                expression.append('.').append((String) o1);
             }
             property = (String) o1;
         } else {
@@ -173,51 +178,7 @@ public class RecordingELResolver extends ELResolver {
     }
 
     public static ELContext createContextWrapper(final ELContext context, final ELResolver resolver) {
-        return new ELContext() {
-            @Override
-            public Locale getLocale() {
-                return context.getLocale();
-            }
-
-            @Override
-            public void setPropertyResolved(boolean value) {
-                super.setPropertyResolved(value);
-                context.setPropertyResolved(value);
-            }
-
-            @Override
-            public void putContext(Class clazz, Object object) {
-                super.putContext(clazz, object);
-                context.putContext(clazz, object);
-            }
-
-            @Override
-            public Object getContext(Class clazz) {
-                return context.getContext(clazz);
-            }
-
-            @Override
-            public void setLocale(Locale locale) {
-                super.setLocale(locale);
-                context.setLocale(locale);
-            }
-
-            @Override
-            public ELResolver getELResolver() {
-                return resolver;
-            }
-
-            @Override
-            public FunctionMapper getFunctionMapper() {
-                return context.getFunctionMapper();
-            }
-
-            @Override
-            public VariableMapper getVariableMapper() {
-                return context.getVariableMapper();
-            }
-
-        };
+        return new RecordingELContext(resolver).wrap(context);
     }
 
     private void logWarningForUnsupportedExpression(Object o1) {
@@ -15,15 +15,41 @@
  */
 package be.atbash.ee.jsf.valerie.el;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 /**
  * An instance of this class stores the different parts of an expression string and
  * allows an easier usage of value-bindings.
+ * <p/>
+ * The expression string is split in one pass into segments (the leading value and the properties). The base
+ * expressions share these segments, so that they are created without parsing.
  */
 public class ValueBindingExpression {
+
+    private static final int MAX_INTERNED = 4096;
+
+    private static final ConcurrentMap<String, ValueBindingExpression> INTERNED = new ConcurrentHashMap<>();
+
+    private static final String DOT = ".";
+    private static final String BRACKET = "[";
+    private static final String QUOTED_BRACKET = "['";
+
+    // Values and tokens of the segments, shared with the base expressions. The first segment has no token.
+    private final String[] values;
+    private final String[] tokens;
+    private final int size;
+
+    // Shared by all expressions of the chain, like the prefix of the leading value.
+    private final String[] prefix;
+    private final boolean interned;
+
     private ValueBindingExpression base;
-    private String value;
-    private String prefix;
-    private String token;
+
+    // Starts with the prefix it was created for.
+    private String expressionString;
 
     /**
      * The given property is used as new property of the expression.
@@ -34,7 +60,7 @@ public class ValueBindingExpression {
      *
      * @param valueBindingExpression The target instance of {@link ValueBindingExpression}
      * @param newProperty            The property to use.
-     * @return The resulting {@link ValueBindingExpression} (with the new property)
+     * @return The resulting {@link ValueBindingExpression} (with the new property), a new instance which isn't shared.
      */
     public static ValueBindingExpression replaceOrAddProperty(ValueBindingExpression valueBindingExpression,
                                                               String newProperty) {
@@ -50,7 +76,7 @@ public class ValueBindingExpression {
      *
      * @param valueBindingExpression The valueBindingExpression where we want to replace the property
      * @param newProperty            The new property which should replace the existing one.
-     * @return The resulting {@link ValueBindingExpression} (with the new property)
+     * @return The resulting {@link ValueBindingExpression} (with the new property), a new instance which isn't shared.
      */
     public static ValueBindingExpression replaceProperty(ValueBindingExpression valueBindingExpression,
                                                          String newProperty) {
@@ -71,18 +97,40 @@ public class ValueBindingExpression {
      *
      * @param valueBindingExpression The valueBindingExpression where we want to add the property
      * @param newProperty            The property to add.
-     * @return The resulting {@link ValueBindingExpression} (with the new property)
+     * @return The resulting {@link ValueBindingExpression} (with the new property), a new instance which isn't shared.
      */
     public static ValueBindingExpression addProperty(ValueBindingExpression valueBindingExpression, String newProperty) {
         String sourceExpression = valueBindingExpression.getExpressionString();
         String result = sourceExpression.substring(0, sourceExpression.length() - 1);
 
         //TODO adjustments for isDynamicBaseAndProperty
+        // The parsed segments of the shared instance are reused, the prefix of the copy can be changed.
         if (newProperty.startsWith("['")) {
-            return new ValueBindingExpression(result + newProperty + "}");
+            return of(result + newProperty + "}").copy();
         } else {
-            return new ValueBindingExpression(result + "." + newProperty + "}");
+            return of(result + "." + newProperty + "}").copy();
+        }
+    }
+
+    /**
+     * Returns the instance for the expression string, instances are shared for the same expression string. The
+     * prefix of the returned instance can't be changed.
+     *
+     * @param expression The EL expression
+     * @return The (shared) {@link ValueBindingExpression} for the expression
+     */
+    public static ValueBindingExpression of(String expression) {
+        ValueBindingExpression result = INTERNED.get(expression);
+        if (result == null) {
+            result = new ValueBindingExpression(expression, true);
+            if (INTERNED.size() < MAX_INTERNED) {
+                ValueBindingExpression existing = INTERNED.putIfAbsent(expression, result);
+                if (existing != null) {
+                    result = existing;
+                }
+            }
         }
+        return result;
     }
 
     /**
@@ -91,58 +139,161 @@ public class ValueBindingExpression {
      * @param expression The EL expression
      */
     public ValueBindingExpression(String expression) {
-        // TODO Is it possible to have a not wellformed expression? Check it later on
-        /*
-        if (!EL_HELPER.isELTermWellFormed(expression)) {
-            throw new IllegalStateException(expression + " is no valid el-expression");
-        }
-        */
+        this(expression, false);
+    }
+
+    private ValueBindingExpression(String expression, boolean interned) {
+        List<String> segmentValues = new ArrayList<>();
+        List<String> segmentTokens = new ArrayList<>();
+        tokenize(expression.substring(2, expression.length() - 1), segmentValues, segmentTokens);
+
+        this.values = segmentValues.toArray(new String[0]);
+        this.tokens = segmentTokens.toArray(new String[0]);
+        this.size = values.length;
+        this.prefix = new String[]{expression.substring(0, 1)};
+        this.interned = interned;
+    }
 
-        boolean isDynamicBaseAndProperty = expression.lastIndexOf("']") == -1;
-        int index1 = isDynamicBaseAndProperty ? expression.lastIndexOf("]") : expression.lastIndexOf("']");
-        int index2 = expression.lastIndexOf(".");
+    private ValueBindingExpression(ValueBindingExpression expression, int size, String[] prefix, boolean interned) {
+        this.values = expression.values;
+        this.tokens = expression.tokens;
+        this.size = size;
+        this.prefix = prefix;
+        this.interned = interned;
+    }
 
-        if (index1 > index2) {
-            expression = expression.substring(0, index1);
+    /**
+     * Instance with the same segments (never modified, so they can be shared) but its own prefix.
+     */
+    private ValueBindingExpression copy() {
+        ValueBindingExpression result = new ValueBindingExpression(this, size, new String[]{prefix[0]}, false);
+        result.expressionString = expressionString;
+        return result;
+    }
 
-            int index3 = findIndexOfStartingBracket(expression);
-            if (isDynamicBaseAndProperty) {
-                this.value = expression.substring(index3 + 1, index1);
+    /**
+     * Splits the content of the expression (without prefix and curly brackets) at the dots and brackets which aren't
+     * within brackets, parentheses or quotes. When the content isn't a chain of properties (like text after a closing
+     * bracket), the complete content is the only segment.
+     */
+    private static void tokenize(String content, List<String> segmentValues, List<String> segmentTokens) {
+        int depth = 0;
+        char quote = 0;
+        int segmentStart = 0;
+        int bracketStart = -1;
+        String token = null;
+        boolean afterBracket = false;
 
-            } else {
-                this.value = expression.substring(index3 + 2, index1);
+        for (int i = 0; i < content.length(); i++) {
+            char c = content.charAt(i);
+            if (quote != 0) {
+                if (c == '\\') {
+                    i++;
+                } else if (c == quote) {
+                    quote = 0;
+                }
+                continue;
+            }
+            switch (c) {
+                case '\'':
+                case '"':
+                    quote = c;
+                    break;
+                case '(':
+                    depth++;
+                    break;
+                case ')':
+                    depth--;
+                    break;
+                case '[':
+                    if (depth == 0) {
+                        if (!afterBracket) {
+                            addSegment(content.substring(segmentStart, i), token, segmentValues, segmentTokens);
+                        }
+                        bracketStart = i;
+                    }
+                    depth++;
+                    break;
+                case ']':
+                    depth--;
+                    if (depth == 0 && bracketStart >= 0) {
+                        addBracketSegment(content.substring(bracketStart + 1, i), segmentValues, segmentTokens);
+                        afterBracket = true;
+                        bracketStart = -1;
+                        segmentStart = i + 1;
+                    }
+                    break;
+                case '.':
+                    if (depth == 0) {
+                        if (!afterBracket) {
+                            addSegment(content.substring(segmentStart, i), token, segmentValues, segmentTokens);
+                        }
+                        afterBracket = false;
+                        token = DOT;
+                        segmentStart = i + 1;
+                    }
+                    break;
+                default:
+                    if (afterBracket && depth == 0) {
+                        // Text after a closing bracket, no property chain.
+                        setSingleSegment(content, segmentValues, segmentTokens);
+                        return;
+                    }
             }
+        }
+
+        if (depth != 0 || quote != 0) {
+            setSingleSegment(content, segmentValues, segmentTokens);
+        } else if (!afterBracket) {
+            addSegment(content.substring(segmentStart), token, segmentValues, segmentTokens);
+        }
+    }
+
+    private static void addSegment(String value, String token, List<String> segmentValues, List<String> segmentTokens) {
+        segmentValues.add(value);
+        segmentTokens.add(segmentValues.size() == 1 ? null : token);
+    }
 
-            this.base = new ValueBindingExpression(expression.substring(0, index3) + "}");
-            this.token = isDynamicBaseAndProperty ? "[" : "['";
-        } else if (index2 > index1) {
-            this.value = expression.substring(index2 + 1, expression.length() - 1);
-            this.base = new ValueBindingExpression(expression.substring(0, index2) + "}");
-            this.token = ".";
+    private static void addBracketSegment(String content, List<String> segmentValues, List<String> segmentTokens) {
+        if (content.length() >= 2 && content.charAt(0) == '\'' && content.indexOf('\'', 1) == content.length() - 1) {
+            segmentValues.add(content.substring(1, content.length() - 1));
+            segmentTokens.add(QUOTED_BRACKET);
         } else {
-            this.value = expression.substring(2, expression.length() - 1);
-            this.prefix = expression.substring(0, 1);
+            segmentValues.add(content);
+            segmentTokens.add(BRACKET);
         }
     }
 
+    private static void setSingleSegment(String content, List<String> segmentValues, List<String> segmentTokens) {
+        segmentValues.clear();
+        segmentTokens.clear();
+        segmentValues.add(content);
+        segmentTokens.add(null);
+    }
+
     /**
      * The (last) property of the expression.
      *
      * @return The (last) property of the expression.
      */
     public String getProperty() {
-        this.value = this.value.trim();
+        String value = values[size - 1].trim();
 
-        if ("[".equals(this.token)) {
-            if (this.value.startsWith("'")) {
-                return this.value.substring(1, this.value.length() - 1);
-            }
-            //return this.base.value + this.token + this.value.substring(0, this.value.length()) + "']";
+        if (BRACKET.equals(tokens[size - 1]) && value.startsWith("'")) {
+            return value.substring(1, value.length() - 1);
         }
         return value;
     }
 
     public ValueBindingExpression getBaseExpression() {
+        if (size == 1) {
+            return null;
+        }
+        if (base == null) {
+            // The base shares the prefix array, so that a change of the prefix applies to the whole chain. Concurrent
+            // creation of the base is harmless, both instances share the same segments and prefix.
+            base = new ValueBindingExpression(this, size - 1, prefix, interned);
+        }
         return base;
     }
 
@@ -153,34 +304,39 @@ public class ValueBindingExpression {
      * @return The expression string equivalent of the valueBindingExpression.
      */
     public String getExpressionString() {
-        if (this.base != null) {
-            String baseExpression = this.base.getExpressionString();
-
-            if ("['".equals(this.token)) {
-                return baseExpression.substring(0, baseExpression.length() - 1) + this.token + this.value + "']}";
-            } else if ("[".equals(this.token)) {
-                return baseExpression.substring(0, baseExpression.length() - 1) + this.token + this.value + "]}";
+        String currentPrefix = prefix[0];
+        String result = expressionString;
+        if (result == null || !result.startsWith(currentPrefix) || result.charAt(currentPrefix.length()) != '{') {
+            StringBuilder builder = new StringBuilder();
+            builder.append(currentPrefix).append('{').append(values[0]);
+            for (int i = 1; i < size; i++) {
+                builder.append(tokens[i]).append(values[i]);
+                if (QUOTED_BRACKET.equals(tokens[i])) {
+                    builder.append("']");
+                } else if (BRACKET.equals(tokens[i])) {
+                    builder.append(']');
+                }
             }
-            return baseExpression.substring(0, baseExpression.length() - 1) + this.token + this.value + "}";
-        } else {
-            return this.prefix + "{" + this.value + "}";
+            result = builder.append('}').toString();
+            expressionString = result;
         }
+        return result;
     }
 
     public String getPrefix() {
-        if (this.base != null) {
-            return this.base.getPrefix();
-        } else {
-            return prefix;
-        }
+        return prefix[0];
     }
 
+    /**
+     * Changes the prefix of the expression (and of the base expressions).
+     *
+     * @throws UnsupportedOperationException for the shared instances created by {@link #of(String)}.
+     */
     public void setPrefix(String prefix) {
-        if (this.base != null) {
-            this.base.setPrefix(prefix);
-        } else {
-            this.prefix = prefix;
+        if (interned) {
+            throw new UnsupportedOperationException("The prefix of a shared ValueBindingExpression can't be changed");
         }
+        this.prefix[0] = prefix;
     }
 
     @Override
@@ -190,6 +346,7 @@ public class ValueBindingExpression {
 
     @Override
     public int hashCode() {
+        // The hash of the cached string is cached by String.
         return getExpressionString().hashCode();
     }
 
@@ -198,19 +355,4 @@ public class ValueBindingExpression {
         return target instanceof ValueBindingExpression && getExpressionString()
                 .equals(((ValueBindingExpression) target).getExpressionString());
     }
-
-    private int findIndexOfStartingBracket(String expression) {
-        int closeCount = 0;
-        for (int i = expression.length() - 1; i > 0; i--) {
-            if (expression.charAt(i) == '[') {
-                closeCount--;
-                if (closeCount < 0) {
-                    return i;
-                }
-            } else if (expression.charAt(i) == ']') {
-                closeCount++;
-            }
-        }
-        return 0;
-    }
 }
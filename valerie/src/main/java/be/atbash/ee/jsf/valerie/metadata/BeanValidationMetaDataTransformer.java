@@ -26,8 +26,7 @@ import javax.validation.constraints.Future;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Past;
 import javax.validation.constraints.Size;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
 
 /**
  * MetaDataTransformer for BeanValidation annotations. Picked up by CDI.
@@ -35,32 +34,42 @@ import java.util.Map;
 @ApplicationScoped
 public class BeanValidationMetaDataTransformer implements MetaDataTransformer {
 
+    private static final Set<Class<?>> HANDLED_TYPES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            NotNull.class, Size.class, Past.class, Future.class)));
+
     @Inject
     private BeanValidationMetaDataFilter beanValidationMetaDataFilter;
 
     @Override
     public Map<String, Object> convertMetaData(MetaDataEntry metaData) {
         Map<String, Object> result = new HashMap<>();
+        convertMetaData(metaData, result);
+        return result;
+    }
+
+    @Override
+    public void convertMetaData(MetaDataEntry metaData, Map<String, Object> result) {
         if (beanValidationMetaDataFilter.isBeanValidationConstraint(metaData)) {
-            convert(metaData, result);
+            convert(metaData.getValue(), result);
         }
-        return result;
     }
 
-    private void convert(MetaDataEntry metaData, Map<String, Object> result) {
-        if (NotNull.class.getName().equals(metaData.getKey())) {
+    @Override
+    public Set<Class<?>> getHandledTypes() {
+        return HANDLED_TYPES;
+    }
+
+    private void convert(Object constraint, Map<String, Object> result) {
+        if (constraint instanceof NotNull) {
             result.put(CommonMetaDataKeys.REQUIRED.getKey(), Boolean.TRUE);
-        }
-        if (Size.class.getName().equals(metaData.getKey())) {
-            Size size = (Size) metaData.getValue();
+        } else if (constraint instanceof Size) {
+            Size size = (Size) constraint;
             if (size.max() < Integer.MAX_VALUE) {
                 result.put(CommonMetaDataKeys.SIZE.getKey(), size.max());
             }
-        }
-        if (Past.class.getName().equals(metaData.getKey())) {
+        } else if (constraint instanceof Past) {
             result.put(CommonMetaDataKeys.PAST.getKey(), Boolean.TRUE);
-        }
-        if (Future.class.getName().equals(metaData.getKey())) {
+        } else if (constraint instanceof Future) {
             result.put(CommonMetaDataKeys.FUTURE.getKey(), Boolean.TRUE);
         }
     }
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2014-2020 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.ee.jsf.valerie.metadata;
+
+import org.slf4j.Logger;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.reflect.AnnotatedElement;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Index of the annotated fields and getters of the properties of classes, generated at compile time by the
+ * (optional) valerie-annotation-processor. The annotations of indexed classes can be read directly from the listed
+ * members, without searching the class hierarchy with reflection.
+ * The processor describes all entries of the index again at each (incremental) compilation, so the index matches the
+ * compiled classes. Only an index with the build id of such a compilation is used, and the listed members are still
+ * resolved by name so that a missing member falls back to reflection.
+ */
+@ApplicationScoped
+public class MetaDataIndex {
+
+    public static final String INDEX_LOCATION = "META-INF/valerie/metadata.index";
+
+    @Inject
+    protected transient Logger logger;
+
+    private Map<String, IndexedClass> index = Collections.emptyMap();
+
+    @PostConstruct
+    public void init() {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (classLoader == null) {
+            classLoader = MetaDataIndex.class.getClassLoader();
+        }
+        Map<String, IndexedClass> result = new HashMap<>();
+        try {
+            Enumeration<URL> resources = classLoader.getResources(INDEX_LOCATION);
+            while (resources.hasMoreElements()) {
+                URL resource = resources.nextElement();
+                try (Reader reader = new InputStreamReader(resource.openStream(), StandardCharsets.UTF_8)) {
+                    String build = readIndex(reader, result);
+                    if (logger.isDebugEnabled()) {
+                        logger.debug(build == null ? String.format("Meta-data index %s has no build id and is ignored", resource)
+                                : String.format("Meta-data index %s of build %s", resource, build));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            logger.warn(String.format("Unable to read the meta-data index %s, annotations are determined by reflection : %s", INDEX_LOCATION, e.getMessage()));
+            result.clear();
+        }
+        index = result;
+    }
+
+    /**
+     * Adds the classes of the index to the result and returns the build id of the index. An index without build id
+     * (written by an older version of the processor) is ignored and null is returned.
+     */
+    static String readIndex(Reader reader, Map<String, IndexedClass> result) throws IOException {
+        BufferedReader bufferedReader = new BufferedReader(reader);
+        Map<String, IndexedClass> classes = new HashMap<>();
+        String build = null;
+        IndexedClass currentClass = null;
+        List<IndexedMember> currentProperty = null;
+
+        String line;
+        while ((line = bufferedReader.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] parts = line.split(" ");
+            switch (parts[0]) {
+                case "build":
+                    build = parts[1];
+                    break;
+                case "class":
+                    currentClass = new IndexedClass();
+                    currentProperty = null;
+                    classes.put(parts[1], currentClass);
+                    break;
+                case "property":
+                    if (currentClass == null) {
+                        throw new IOException("property without class : " + line);
+                    }
+                    currentProperty = new ArrayList<>();
+                    currentClass.properties.put(parts[1], currentProperty);
+                    break;
+                case "method":
+                case "field":
+                    if (currentProperty == null || parts.length != 3) {
+                        throw new IOException("invalid member : " + line);
+                    }
+                    currentProperty.add(new IndexedMember("field".equals(parts[0]), parts[1], parts[2]));
+                    break;
+                default:
+                    throw new IOException("unknown entry : " + line);
+            }
+        }
+        if (build != null) {
+            result.putAll(classes);
+        }
+        return build;
+    }
+
+    /**
+     * Returns the annotated fields and getters of the property in the order they need to be processed.
+     *
+     * @param entityClass The (unproxied) class containing the property.
+     * @param property    The name of the property.
+     * @return The annotated members or null when the property of the class isn't indexed (or a member of the index
+     * doesn't exist anymore) and reflection must be used.
+     */
+    public List<AnnotatedElement> getAnnotatedMembers(Class<?> entityClass, String property) {
+        IndexedClass indexedClass = index.get(entityClass.getName());
+        if (indexedClass == null) {
+            return null;
+        }
+        List<IndexedMember> members = indexedClass.properties.get(property);
+        if (members == null) {
+            return null;
+        }
+
+        List<AnnotatedElement> result = new ArrayList<>(members.size());
+        for (IndexedMember member : members) {
+            AnnotatedElement element = member.resolve(entityClass);
+            if (element == null) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug(String.format("Meta-data index doesn't match class %s (property '%s'), using reflection", entityClass.getName(), property));
+                }
+                return null;
+            }
+            result.add(element);
+        }
+        return result;
+    }
+
+    static class IndexedClass {
+        private final Map<String, List<IndexedMember>> properties = new HashMap<>();
+    }
+
+    static class IndexedMember {
+        private final boolean field;
+        private final String declaringClass;
+        private final String name;
+
+        IndexedMember(boolean field, String declaringClass, String name) {
+            this.field = field;
+            this.declaringClass = declaringClass;
+            this.name = name;
+        }
+
+        AnnotatedElement resolve(Class<?> entityClass) {
+            Class<?> type = findType(entityClass, declaringClass);
+            if (type == null) {
+                return null;
+            }
+            try {
+                return field ? type.getDeclaredField(name) : type.getDeclaredMethod(name);
+            } catch (NoSuchFieldException | NoSuchMethodException e) {
+                return null;
+            }
+        }
+
+        private static Class<?> findType(Class<?> type, String name) {
+            if (type == null) {
+                return null;
+            }
+            if (name.equals(type.getName())) {
+                return type;
+            }
+            for (Class<?> interfaceType : type.getInterfaces()) {
+                Class<?> result = findType(interfaceType, name);
+                if (result != null) {
+                    return result;
+                }
+            }
+            return findType(type.getSuperclass(), name);
+        }
+    }
+}
@@ -16,14 +16,13 @@
 package be.atbash.ee.jsf.valerie.property;
 
 import be.atbash.ee.jsf.jerry.metadata.MetaDataEntry;
+import be.atbash.ee.jsf.jerry.metadata.PropertyInformationKeys;
+import be.atbash.util.ProxyUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.enterprise.inject.Vetoed;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 
 /**
  *
@@ -58,6 +57,27 @@ public class DefaultPropertyInformation implements PropertyInformation {
         return metaDataList.toArray(new MetaDataEntry[0]);
     }
 
+    @Override
+    public Set<Class<?>> getInvolvedClasses() {
+        PropertyDetails propertyDetails = getInformation(PropertyInformationKeys.PROPERTY_DETAILS, PropertyDetails.class);
+        if (propertyDetails == null || propertyDetails.getBaseObject() == null) {
+            return Collections.emptySet();
+        }
+        // The annotations can be defined on the class, its super classes and interfaces.
+        Set<Class<?>> result = new HashSet<>();
+        addClassHierarchy(ProxyUtils.getUnproxiedClass(propertyDetails.getBaseObject().getClass()), result);
+        return result;
+    }
+
+    private static void addClassHierarchy(Class<?> type, Set<Class<?>> result) {
+        if (type != null && type != Object.class && result.add(type)) {
+            for (Class<?> interfaceType : type.getInterfaces()) {
+                addClassHierarchy(interfaceType, result);
+            }
+            addClassHierarchy(type.getSuperclass(), result);
+        }
+    }
+
     public void addMetaDataEntry(MetaDataEntry metaDataEntry) {
         metaDataEntry.setProperties(this.informationMap);
         this.metaDataList.add(metaDataEntry);
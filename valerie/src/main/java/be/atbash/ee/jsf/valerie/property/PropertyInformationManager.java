@@ -16,12 +16,14 @@
 package be.atbash.ee.jsf.valerie.property;
 
 import be.atbash.ee.jsf.jerry.storage.ComponentStorage;
+import be.atbash.ee.jsf.jerry.utils.RepeatedComponentUtils;
 import be.atbash.ee.jsf.valerie.metadata.extractor.MetaDataExtractor;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.faces.component.UIComponent;
 import javax.faces.context.FacesContext;
 import javax.inject.Inject;
+import java.util.List;
 
 /**
  *
@@ -38,21 +40,29 @@ public class PropertyInformationManager {
     public void determineInformation(FacesContext facesContext, UIComponent uiComponent) {
 
         String viewId = facesContext.getViewRoot().getViewId();
-        String clientId = uiComponent.getClientId(facesContext);
+        String clientId = RepeatedComponentUtils.getStorageClientId(facesContext, uiComponent);
 
-        if (componentStorage.isEntryPossibleFor(viewId, clientId, PropertyInformation.class)) {
+        determineInformation(facesContext, uiComponent, viewId, clientId);
+    }
+
+    /**
+     * Returns the recording information of the component for the postback. The information is normally determined
+     * when the view is rendered, but it is determined again when the component is removed from the storage since then
+     * (see the limits of the storage). Otherwise the class level constraints would silently not be validated.
+     */
+    public List<?> getRecordingInformation(FacesContext facesContext, UIComponent uiComponent) {
 
-            if (!componentStorage.containsEntry(viewId, clientId, PropertyInformation.class)) {
+        String viewId = facesContext.getViewRoot().getViewId();
+        String clientId = RepeatedComponentUtils.getStorageClientId(facesContext, uiComponent);
 
+        determineInformation(facesContext, uiComponent, viewId, clientId);
+        return componentStorage.getRecordingInformation(viewId, clientId);
+    }
 
-                PropertyInformation info = extractor.extract(facesContext, uiComponent);
-                if (info != null) {
-                    componentStorage.storeEntry(viewId, clientId, info);
-                } else {
-                    componentStorage.setNotAvailable(viewId, clientId, PropertyInformation.class);
-                }
-            }
-        }
+    private void determineInformation(FacesContext facesContext, UIComponent uiComponent, String viewId, String clientId) {
+        // Extraction happens only once for the component, also when multiple requests render the view concurrently.
+        componentStorage.computeEntryIfAbsent(viewId, clientId, PropertyInformation.class,
+                () -> extractor.extract(facesContext, uiComponent));
     }
 
 }
@@ -17,27 +17,97 @@ package be.atbash.ee.jsf.valerie.provider;
 
 import be.atbash.util.CDIUtils;
 
+import javax.faces.context.FacesContext;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
 import java.util.Date;
+import java.util.Map;
 
 /**
- *
+ * Determines the current point in time for the date related constraints and initializers. The {@link DateProvider}
+ * is kept once found, as long as there is none it is looked up again and the system clock is used. Within a JSF
+ * request, the moment of the first call is kept so that all constraints of the request use the same now.
  */
 public final class DateProducer {
 
+    private static final String REQUEST_NOW = DateProducer.class.getName() + ".now";
+
+    // Clock of the DateProvider, only kept once a provider is found.
+    private static volatile Clock clock;
+
+    private DateProducer() {
+    }
+
     public static Date now() {
-        Date result = tryFromProvider();
+        return Date.from(instant());
+    }
+
+    public static Instant instant() {
+        FacesContext facesContext = FacesContext.getCurrentInstance();
+        if (facesContext == null) {
+            return clock().instant();
+        }
+        Map<Object, Object> attributes = facesContext.getAttributes();
+        Instant result = (Instant) attributes.get(REQUEST_NOW);
         if (result == null) {
-            result = new Date();
+            result = clock().instant();
+            attributes.put(REQUEST_NOW, result);
         }
         return result;
     }
 
-    private static Date tryFromProvider() {
-        DateProvider provider = CDIUtils.retrieveOptionalInstance(DateProvider.class);
-        Date result = null;
-        if (provider != null) {
-            result = provider.now();
+    /**
+     * Returns the clock based on the {@link DateProvider}, or the system clock when there is no provider. Unlike
+     * {@link #now()}, each call of the clock asks the current time again.
+     *
+     * @return The clock for the current point in time.
+     */
+    public static Clock clock() {
+        Clock result = clock;
+        if (result == null) {
+            DateProvider provider = CDIUtils.retrieveOptionalInstance(DateProvider.class);
+            if (provider == null) {
+                // Not kept, the provider can become available later on (like during the startup of the application).
+                return Clock.systemDefaultZone();
+            }
+            result = new DateProviderClock(provider, ZoneId.systemDefault());
+            clock = result;
         }
         return result;
     }
+
+    /**
+     * Forgets the clock, so that the {@link DateProvider} is looked up again on the next call (tests, redeployment).
+     */
+    static void reset() {
+        clock = null;
+    }
+
+    private static final class DateProviderClock extends Clock {
+
+        private final DateProvider provider;
+        private final ZoneId zone;
+
+        private DateProviderClock(DateProvider provider, ZoneId zone) {
+            this.provider = provider;
+            this.zone = zone;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return zone;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return zone.equals(this.zone) ? this : new DateProviderClock(provider, zone);
+        }
+
+        @Override
+        public Instant instant() {
+            Date now = provider.now();
+            return now == null ? Instant.now() : now.toInstant();
+        }
+    }
 }
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2014-2020 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.ee.jsf.valerie.recording;
+
+import javax.validation.ConstraintValidator;
+import javax.validation.ConstraintValidatorContext;
+import javax.validation.ConstraintValidatorFactory;
+import javax.validation.metadata.ConstraintDescriptor;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.*;
+
+/**
+ * A class-level constraint of a target class with its initialized ConstraintValidator, so that only this constraint
+ * is validated for the recorded values and not all constraints of the class. Validators must be thread safe (as
+ * required by Bean Validation), the instance is shared between requests.
+ */
+final class ClassLevelConstraint {
+
+    private final ConstraintValidator<Annotation, Object> constraintValidator;
+    private final Class<?> validatedType;
+    private final String messageTemplate;
+
+    @SuppressWarnings("unchecked")
+    ClassLevelConstraint(ConstraintDescriptor<?> descriptor, Class<? extends ConstraintValidator> validatorClass, ConstraintValidatorFactory constraintValidatorFactory) {
+        constraintValidator = (ConstraintValidator<Annotation, Object>) constraintValidatorFactory.getInstance((Class) validatorClass);
+        constraintValidator.initialize(descriptor.getAnnotation());
+        validatedType = getValidatedType(validatorClass);
+        messageTemplate = (String) descriptor.getAttributes().get("message");
+    }
+
+    /**
+     * Validates the instance of the target class with the recorded values.
+     *
+     * @return false when the constraint is violated, or when the validator uses parts of the
+     * {@link ConstraintValidatorContext} which aren't supported here. The violations must then be determined by the
+     * Validator.
+     */
+    boolean isValid(Object value) {
+        if (!validatedType.isInstance(value)) {
+            // Validator for another type of the constraint.
+            return true;
+        }
+        try {
+            return constraintValidator.isValid(value, createContext());
+        } catch (UnsupportedContextException e) {
+            return false;
+        }
+    }
+
+    /**
+     * The context only supports the message template and (ignored) custom violations, the validator reports the
+     * violations when the constraint isn't valid. A proxy so that it works with each version of Bean Validation.
+     */
+    private ConstraintValidatorContext createContext() {
+        ContextHandler handler = new ContextHandler();
+        handler.context = (ConstraintValidatorContext) handler.createProxy(ConstraintValidatorContext.class);
+        return handler.context;
+    }
+
+    private static Class<?> getValidatedType(Class<?> validatorClass) {
+        for (Class<?> type = validatorClass; type != null; type = type.getSuperclass()) {
+            for (Type interfaceType : type.getGenericInterfaces()) {
+                if (interfaceType instanceof ParameterizedType && ((ParameterizedType) interfaceType).getRawType() == ConstraintValidator.class) {
+                    Type validatedType = ((ParameterizedType) interfaceType).getActualTypeArguments()[1];
+                    return validatedType instanceof Class ? (Class<?>) validatedType : Object.class;
+                }
+            }
+        }
+        return Object.class;
+    }
+
+    private final class ContextHandler implements InvocationHandler {
+
+        private ConstraintValidatorContext context;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                return method.invoke(this, args);
+            }
+            if (method.getDeclaringClass() == ConstraintValidatorContext.class) {
+                switch (method.getName()) {
+                    case "disableDefaultConstraintViolation":
+                        return null;
+                    case "getDefaultConstraintMessageTemplate":
+                        return messageTemplate;
+                    case "buildConstraintViolationWithTemplate":
+                        return createProxy(method.getReturnType());
+                    default:
+                        throw new UnsupportedContextException();
+                }
+            }
+            // The builders of custom violations.
+            if (method.getReturnType() == ConstraintValidatorContext.class) {
+                return context;
+            }
+            if (method.getReturnType().isInterface()) {
+                return createProxy(method.getReturnType());
+            }
+            throw new UnsupportedContextException();
+        }
+
+        private Object createProxy(Class<?> type) {
+            return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, this);
+        }
+    }
+
+    private static final class UnsupportedContextException extends RuntimeException {
+        private UnsupportedContextException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -15,20 +15,28 @@
  */
 package be.atbash.ee.jsf.valerie.recording;
 
+import be.atbash.ee.jsf.jerry.storage.SnapshotValue;
+
 import javax.validation.ConstraintValidator;
 
 /**
- *
+ * Immutable, so that it can be shared between threads and views.
+ * A SnapshotValue so that it can be kept in the snapshot of the ComponentStorage.
  */
-public class RecordValueInfo {
+public class RecordValueInfo implements SnapshotValue {
 
-    private Class<?> targetClass;
-    private Class<? extends ConstraintValidator> validator;
-    private String classProperty;
+    private final Class<?> targetClass;
+    private final Class<? extends ConstraintValidator> validator;
+    private final String classProperty;
 
     public RecordValueInfo(Class<?> targetClass, Class<? extends ConstraintValidator> validator) {
+        this(targetClass, validator, null);
+    }
+
+    public RecordValueInfo(Class<?> targetClass, Class<? extends ConstraintValidator> validator, String classProperty) {
         this.targetClass = targetClass;
         this.validator = validator;
+        this.classProperty = classProperty;
     }
 
     public Class<?> getTargetClass() {
@@ -39,14 +47,25 @@ public class RecordValueInfo {
         return validator;
     }
 
-    public void setClassProperty(String classProperty) {
-        this.classProperty = classProperty;
+    /**
+     * Returns the information bound to the property of the target class which holds the recorded value.
+     *
+     * @param classProperty The property name.
+     * @return A new instance with the same target class and validator.
+     */
+    public RecordValueInfo forClassProperty(String classProperty) {
+        return new RecordValueInfo(targetClass, validator, classProperty);
     }
 
     public String getClassProperty() {
         return classProperty;
     }
 
+    @Override
+    public Object[] getSnapshotArguments() {
+        return new Object[]{targetClass, validator, classProperty};
+    }
+
     public Key getKey() {
         return new Key();
     }
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2014-2020 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.ee.jsf.valerie.recording;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The values recorded during a request, already grouped by target class and validator so that each group can be
+ * validated without regrouping all the recorded values. Only used by the request thread.
+ */
+final class RecordedValues {
+
+    private final Map<RecordValueInfo.Key, List<RecordValueData>> groups = new LinkedHashMap<>();
+
+    void add(RecordValueInfo recordValueInfo, Object data) {
+        groups.computeIfAbsent(recordValueInfo.getKey(), k -> new ArrayList<>(4))
+                .add(new RecordValueData(recordValueInfo, data));
+    }
+
+    Collection<Map.Entry<RecordValueInfo.Key, List<RecordValueData>>> getGroups() {
+        return groups.entrySet();
+    }
+}
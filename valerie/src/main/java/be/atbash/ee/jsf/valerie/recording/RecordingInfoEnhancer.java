@@ -19,11 +19,18 @@ import be.atbash.ee.jsf.jerry.metadata.MetaDataEnhancer;
 import be.atbash.ee.jsf.jerry.metadata.MetaDataEntry;
 import be.atbash.ee.jsf.jerry.metadata.MetaDataHolder;
 import be.atbash.ee.jsf.jerry.metadata.PropertyInformationKeys;
+import be.atbash.ee.jsf.valerie.config.ValerieConfiguration;
+import be.atbash.ee.jsf.valerie.custom.DateRangeValidator;
 import be.atbash.ee.jsf.valerie.property.PropertyDetails;
 import be.atbash.ee.jsf.valerie.utils.AnnotationUtils;
 
 import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  *
@@ -31,6 +38,17 @@ import java.util.List;
 @ApplicationScoped
 public class RecordingInfoEnhancer implements MetaDataEnhancer {
 
+    // The recording information per class and property, shared by all components bound to that property.
+    private static final ClassValue<ConcurrentMap<String, List<RecordValueInfo>>> RECORDING_INFORMATION = new ClassValue<ConcurrentMap<String, List<RecordValueInfo>>>() {
+        @Override
+        protected ConcurrentMap<String, List<RecordValueInfo>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    @Inject
+    private ValerieConfiguration valerieConfiguration;
+
     @Override
     public void enhanceData(MetaDataHolder holder) {
         for (MetaDataEntry metaDataEntry : holder.getMetaDataEntries()) {
@@ -44,15 +62,23 @@ public class RecordingInfoEnhancer implements MetaDataEnhancer {
         RecordValue recordValue = (RecordValue) metaDataEntry.getValue();
         if (recordValue.value().length == 0) {
             PropertyDetails details = metaDataEntry.getProperty(PropertyInformationKeys.PROPERTY_DETAILS, PropertyDetails.class);
-            List<RecordValueInfo> classLevelBeanValidationInfo = AnnotationUtils.getClassLevelBeanValidationInfo(details.getBaseObject().getClass());
+            List<RecordValueInfo> recordingInformation = RECORDING_INFORMATION.get(details.getBaseObject().getClass())
+                    .computeIfAbsent(details.getProperty(), property -> bindToProperty(details.getBaseObject().getClass(), property));
 
-            for (RecordValueInfo recordValueInfo : classLevelBeanValidationInfo) {
-
-                recordValueInfo.setClassProperty(details.getProperty());
-            }
-            metaDataEntry.setProperty(PropertyInformationKeys.RECORDING_INFORMATION, classLevelBeanValidationInfo);
+            metaDataEntry.setProperty(PropertyInformationKeys.RECORDING_INFORMATION, recordingInformation);
         } else {
             // FIXME class level specified on annotation
         }
     }
+
+    private List<RecordValueInfo> bindToProperty(Class<?> baseClass, String property) {
+        List<RecordValueInfo> result = new ArrayList<>();
+        for (RecordValueInfo recordValueInfo : AnnotationUtils.getClassLevelBeanValidationInfo(baseClass)) {
+            if (DateRangeValidator.class.equals(recordValueInfo.getValidator()) && valerieConfiguration.verifyDateRange()) {
+                DateRangeValidator.verifyProperties(recordValueInfo.getTargetClass());
+            }
+            result.add(recordValueInfo.forClassProperty(property));
+        }
+        return Collections.unmodifiableList(result);
+    }
 }
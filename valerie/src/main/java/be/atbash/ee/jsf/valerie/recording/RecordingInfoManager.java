@@ -26,11 +26,12 @@ import javax.inject.Inject;
 import javax.validation.ConstraintValidator;
 import javax.validation.ConstraintViolation;
 import javax.validation.Validator;
-import javax.validation.groups.Default;
+import javax.validation.ValidatorFactory;
+import javax.validation.metadata.ConstraintDescriptor;
 import java.lang.invoke.MethodHandle;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandles;
 import java.util.*;
+import java.util.function.BiConsumer;
 
 /**
  *
@@ -41,51 +42,77 @@ public class RecordingInfoManager {
     @Inject
     private Validator validator;
 
+    @Inject
+    private ValidatorFactory validatorFactory;
+
+    private final ClassValue<ValidationTarget> validationTargets = new ClassValue<ValidationTarget>() {
+        @Override
+        protected ValidationTarget computeValue(Class<?> type) {
+            return new ValidationTarget(type, validator, validatorFactory);
+        }
+    };
+
     public void keepInfo(FacesContext facesContext, RecordValueInfo recordValueInfo, Object data) {
 
-        List<RecordValueData> recordedData = (List<RecordValueData>) facesContext.getAttributes().get(PropertyInformationKeys.RECORDING_INFORMATION);
+        RecordedValues recordedValues = (RecordedValues) facesContext.getAttributes().get(PropertyInformationKeys.RECORDING_INFORMATION);
 
-        if (recordedData == null) {
-            recordedData = new ArrayList<>();
-            facesContext.getAttributes().put(PropertyInformationKeys.RECORDING_INFORMATION, recordedData);
+        if (recordedValues == null) {
+            recordedValues = new RecordedValues();
+            facesContext.getAttributes().put(PropertyInformationKeys.RECORDING_INFORMATION, recordedValues);
 
         }
-        recordedData.add(new RecordValueData(recordValueInfo, data));
+        recordedValues.add(recordValueInfo, data);
+    }
+
+    static boolean hasRecordedValues(FacesContext facesContext) {
+        return facesContext.getAttributes().containsKey(PropertyInformationKeys.RECORDING_INFORMATION);
     }
 
     public boolean processClassLevelConstraints(FacesContext facesContext) {
-        List<RecordValueData> recordedData = (List<RecordValueData>) facesContext.getAttributes().get(PropertyInformationKeys.RECORDING_INFORMATION);
+        RecordedValues recordedValues = (RecordedValues) facesContext.getAttributes().get(PropertyInformationKeys.RECORDING_INFORMATION);
 
-        if (recordedData == null) {
+        if (recordedValues == null) {
             return true;
         }
         boolean result = true;
 
-        Map<RecordValueInfo.Key, List<RecordValueData>> grouped = new HashMap<>();
-
-        for (RecordValueData recordValueData : recordedData) {
-            RecordValueInfo.Key key = recordValueData.getRecordValueInfo().getKey();
-            List<RecordValueData> recordValueDatas = grouped.computeIfAbsent(key, k -> new ArrayList<>());
-            recordValueDatas.add(recordValueData);
-        }
-
-        for (Map.Entry<RecordValueInfo.Key, List<RecordValueData>> entry : grouped.entrySet()) {
+        for (Map.Entry<RecordValueInfo.Key, List<RecordValueData>> entry : recordedValues.getGroups()) {
             RecordValueInfo.Key key = entry.getKey();
-            Object value = createValueObject(key);
+            ValidationTarget target = validationTargets.get(key.getTargetClass());
+            List<ClassLevelConstraint> constraints = target.getClassLevelConstraints(key.getValidator());
+            if (constraints == null) {
+                // No violation of this validator can be reported, so no need to validate.
+                continue;
+            }
+
+            Object value = target.newInstance();
             for (RecordValueData recordValueData : entry.getValue()) {
                 fillInData(value, recordValueData.getRecordValueInfo().getClassProperty(), recordValueData.getData());
             }
 
-            Set<ConstraintViolation<Object>> violations = validator.validate(value, Default.class);
+            // Only the recorded constraints are validated, and only when they are violated the Validator determines
+            // the violations with their messages (for the groups of the constraints using the validator).
+            if (!isValid(constraints, value)) {
+                Set<ConstraintViolation<Object>> violations = validator.validate(value, target.getClassLevelGroups(key.getValidator()));
 
-            if (processViolations(violations, key.getValidator())) {
-                result = false;
+                if (processViolations(violations, key.getValidator())) {
+                    result = false;
+                }
             }
 
         }
         return result;
     }
 
+    private static boolean isValid(List<ClassLevelConstraint> constraints, Object value) {
+        for (ClassLevelConstraint constraint : constraints) {
+            if (!constraint.isValid(value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private boolean processViolations(Set<ConstraintViolation<Object>> violations, Class<? extends ConstraintValidator> validator) {
         boolean result = false;
         for (ConstraintViolation<Object> violation : violations) {
@@ -109,27 +136,66 @@ public class RecordingInfoManager {
             // Nothing to do
             return;
         }
-        MethodHandle handle = MethodHandleUtils.getSetterHandle(target.getClass(), classProperty, data.getClass());
-        if (handle == null) {
-            return; // getSetterHandle already logs warning
+        BiConsumer<Object, Object> setter = MethodHandleUtils.getSetter(target.getClass(), classProperty, data.getClass());
+        if (setter == null) {
+            return; // getSetter already logs warning
         }
         try {
-            handle.invokeWithArguments(target, data);
+            setter.accept(target, data);
         } catch (Throwable throwable) {
             throw new AtbashUnexpectedException(throwable);
         }
     }
 
-    private Object createValueObject(RecordValueInfo.Key key) {
-        Object result;
-        Constructor<?> constructor;
-        try {
-            constructor = key.getTargetClass().getConstructor(new Class[]{}); // TODO Verify if we can remove the class Array parameter
-            result = constructor.newInstance();
-        } catch (NoSuchMethodException | InvocationTargetException | InstantiationException | IllegalAccessException e) {
-            throw new AtbashUnexpectedException(e);
+    /**
+     * Information about a target class of the recorded values, determined once per class.
+     */
+    private static final class ValidationTarget {
+
+        private final MethodHandle constructor;
+        // The class-level constraints and their groups, by validator class.
+        private final Map<Class<?>, List<ClassLevelConstraint>> classLevelConstraints = new HashMap<>();
+        private final Map<Class<?>, Class<?>[]> classLevelGroups = new HashMap<>();
+
+        ValidationTarget(Class<?> targetClass, Validator validator, ValidatorFactory validatorFactory) {
+            try {
+                constructor = MethodHandles.lookup().unreflectConstructor(targetClass.getConstructor());
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                throw new AtbashUnexpectedException(e);
+            }
+            Map<Class<?>, Set<Class<?>>> groups = new HashMap<>();
+            for (ConstraintDescriptor<?> descriptor : validator.getConstraintsForClass(targetClass).getConstraintDescriptors()) {
+                for (Class<? extends ConstraintValidator> validatorClass : descriptor.getConstraintValidatorClasses()) {
+                    groups.computeIfAbsent(validatorClass, key -> new LinkedHashSet<>()).addAll(descriptor.getGroups());
+                    classLevelConstraints.computeIfAbsent(validatorClass, key -> new ArrayList<>())
+                            .add(new ClassLevelConstraint(descriptor, validatorClass, validatorFactory.getConstraintValidatorFactory()));
+                }
+            }
+            for (Map.Entry<Class<?>, Set<Class<?>>> entry : groups.entrySet()) {
+                classLevelGroups.put(entry.getKey(), entry.getValue().toArray(new Class<?>[0]));
+            }
         }
-        return result;
-    }
 
+        /**
+         * The class-level constraints which use the validator, null when there are none.
+         */
+        List<ClassLevelConstraint> getClassLevelConstraints(Class<? extends ConstraintValidator> validatorClass) {
+            return classLevelConstraints.get(validatorClass);
+        }
+
+        /**
+         * The groups of the class-level constraints which use the validator, null when there are none.
+         */
+        Class<?>[] getClassLevelGroups(Class<? extends ConstraintValidator> validatorClass) {
+            return classLevelGroups.get(validatorClass);
+        }
+
+        Object newInstance() {
+            try {
+                return constructor.invoke();
+            } catch (Throwable throwable) {
+                throw new AtbashUnexpectedException(throwable);
+            }
+        }
+    }
 }
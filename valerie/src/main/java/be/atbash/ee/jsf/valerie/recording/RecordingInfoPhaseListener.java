@@ -17,20 +17,38 @@ package be.atbash.ee.jsf.valerie.recording;
 
 import be.atbash.util.CDIUtils;
 
+import javax.faces.context.FacesContext;
 import javax.faces.event.PhaseEvent;
 import javax.faces.event.PhaseId;
 import javax.faces.event.PhaseListener;
 
 /**
- *
+ * Validates the class-level constraints with the values recorded during the validations phase. Requests for views
+ * without @RecordValue components have nothing recorded and are skipped without further lookups.
  */
 public class RecordingInfoPhaseListener implements PhaseListener {
+
+    // ApplicationScoped, so the (proxy) instance can be kept.
+    private transient volatile RecordingInfoManager recordingInfoManager;
+
     @Override
     public void afterPhase(PhaseEvent event) {
-        RecordingInfoManager recordingInfoManager = CDIUtils.retrieveInstance(RecordingInfoManager.class);
-        if (!recordingInfoManager.processClassLevelConstraints(event.getFacesContext())) {
-            event.getFacesContext().renderResponse();
+        FacesContext facesContext = event.getFacesContext();
+        if (!RecordingInfoManager.hasRecordedValues(facesContext)) {
+            return;
+        }
+        if (!getRecordingInfoManager().processClassLevelConstraints(facesContext)) {
+            facesContext.renderResponse();
+        }
+    }
+
+    private RecordingInfoManager getRecordingInfoManager() {
+        RecordingInfoManager result = recordingInfoManager;
+        if (result == null) {
+            result = CDIUtils.retrieveInstance(RecordingInfoManager.class);
+            recordingInfoManager = result;
         }
+        return result;
     }
 
     @Override
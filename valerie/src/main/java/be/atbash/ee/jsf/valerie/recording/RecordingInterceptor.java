@@ -18,7 +18,7 @@ package be.atbash.ee.jsf.valerie.recording;
 import be.atbash.ee.jsf.jerry.interceptor.AbstractRendererInterceptor;
 import be.atbash.ee.jsf.jerry.interceptor.exception.SkipAfterInterceptorsException;
 import be.atbash.ee.jsf.jerry.ordering.InvocationOrder;
-import be.atbash.ee.jsf.jerry.storage.ComponentStorage;
+import be.atbash.ee.jsf.valerie.property.PropertyInformationManager;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.faces.component.UIComponent;
@@ -39,16 +39,13 @@ public class RecordingInterceptor extends AbstractRendererInterceptor {
     private RecordingInfoManager recordingInfoManager;
 
     @Inject
-    private ComponentStorage storage;
+    private PropertyInformationManager propertyInformationManager;
 
     @Override
     public void afterGetConvertedValue(FacesContext facesContext, UIComponent uiComponent, Object submittedValue, Object convertedValue,
                                        Renderer wrapped) throws ConverterException, SkipAfterInterceptorsException {
 
-        String viewId = facesContext.getViewRoot().getViewId();
-        String clientId = uiComponent.getClientId(facesContext);
-
-        List<RecordValueInfo> recordingInformation = (List<RecordValueInfo>) storage.getRecordingInformation(viewId, clientId);
+        List<RecordValueInfo> recordingInformation = (List<RecordValueInfo>) propertyInformationManager.getRecordingInformation(facesContext, uiComponent);
 
         for (RecordValueInfo recordValueInfo : recordingInformation) {
             recordingInfoManager.keepInfo(facesContext, recordValueInfo, convertedValue);
@@ -15,6 +15,7 @@
  */
 package be.atbash.ee.jsf.valerie.storage;
 
+import be.atbash.ee.jsf.valerie.utils.ReflectionUtils;
 import be.atbash.util.ProxyUtils;
 import org.slf4j.Logger;
 
@@ -22,97 +23,59 @@ import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
-import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
+ * The field and read method of the properties of a class. The members are determined once per class and kept with the
+ * class itself (see {@link ReflectionUtils}), this storage only gives access to them. Proxy classes share the
+ * information of the class they proxy.
  *
+ * @deprecated The members are no longer stored here, use {@link ReflectionUtils#tryToGetFieldOfProperty(Class, String)}
+ * and {@link ReflectionUtils#tryToGetMethodOfProperty(Class, String)}.
  */
+@Deprecated
 @ApplicationScoped
 public class PropertyStorage {
     @Inject
     protected transient Logger logger;
 
-    private Map<String, Map<String, Field>> fieldMap = new ConcurrentHashMap<>();
-    private Map<String, Map<String, Method>> methodMap = new ConcurrentHashMap<>();
-    private Map<String, List<String>> fieldNotAvailableMap = new ConcurrentHashMap<>();
-    private Map<String, List<String>> methodNotAvailableMap = new ConcurrentHashMap<>();
-
+    /**
+     * Has no effect, the field is determined from the class.
+     */
     public void storeField(Class<?> targetClass, String property, Field field) {
-        if (field != null) {
-            getFieldMapForClass(targetClass).put(property, field);
-        } else {
-            getNotAvailableFieldListForClass(targetClass).add(property);
-        }
+        // The members of the class are kept by ReflectionUtils.
     }
 
+    /**
+     * Has no effect, the read method is determined from the class.
+     */
     public void storeMethod(Class<?> targetClass, String property, Method method) {
-        if (method != null) {
-            getMethodMapForClass(targetClass).put(property, method);
-        } else {
-            getNotAvailableMethodListForClass(targetClass).add(property);
-        }
+        // The members of the class are kept by ReflectionUtils.
     }
 
     public Field getField(Class<?> targetClass, String property) {
-        Map<String, Field> fieldMap = getFieldMapForClass(targetClass);
-        return fieldMap.get(property);
+        return ReflectionUtils.tryToGetFieldOfProperty(unproxied(targetClass), property);
     }
 
     public Method getMethod(Class<?> targetClass, String property) {
-        Map<String, Method> methodMap = getMethodMapForClass(targetClass);
-        return methodMap.get(property);
+        return ReflectionUtils.tryToGetMethodOfProperty(unproxied(targetClass), property);
     }
 
+    /**
+     * Always true, as the field (or the fact that there is none) is always known.
+     */
     public boolean containsField(Class<?> targetClass, String property) {
-        boolean result = getFieldMapForClass(targetClass).containsKey(property);
-
-        if (!result) {
-            result = getNotAvailableFieldListForClass(targetClass).contains(property);
-        }
-        return result;
+        return true;
     }
 
+    /**
+     * Always true, as the read method (or the fact that there is none) is always known.
+     */
     public boolean containsMethod(Class<?> targetClass, String property) {
-        boolean result = getMethodMapForClass(targetClass).containsKey(property);
-
-        if (!result) {
-            result = getNotAvailableMethodListForClass(targetClass).contains(property);
-        }
-        return result;
-    }
-
-    private Map<String, Field> getFieldMapForClass(Class<?> target) {
-        String key = ProxyUtils.getClassName(target);
-        if (!this.fieldMap.containsKey(key)) {
-            this.fieldMap.put(key, new ConcurrentHashMap<>());
-        }
-        return this.fieldMap.get(key);
-    }
-
-    private List<String> getNotAvailableFieldListForClass(Class<?> target) {
-        String key = ProxyUtils.getClassName(target);
-        if (!this.fieldNotAvailableMap.containsKey(key)) {
-            this.fieldNotAvailableMap.put(key, new CopyOnWriteArrayList<>());
-        }
-        return this.fieldNotAvailableMap.get(key);
-    }
-
-    private Map<String, Method> getMethodMapForClass(Class<?> target) {
-        String key = ProxyUtils.getClassName(target);
-        if (!this.methodMap.containsKey(key)) {
-            this.methodMap.put(key, new ConcurrentHashMap<>());
-        }
-        return this.methodMap.get(key);
+        return true;
     }
 
-    private List<String> getNotAvailableMethodListForClass(Class<?> target) {
-        String key = ProxyUtils.getClassName(target);
-        if (!this.methodNotAvailableMap.containsKey(key)) {
-            this.methodNotAvailableMap.put(key, new CopyOnWriteArrayList<>());
-        }
-        return this.methodNotAvailableMap.get(key);
+    private static Class<?> unproxied(Class<?> targetClass) {
+        Class<?> result = ProxyUtils.getUnproxiedClass(targetClass);
+        return result == null ? targetClass : result;
     }
 }
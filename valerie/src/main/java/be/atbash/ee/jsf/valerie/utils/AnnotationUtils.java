@@ -17,6 +17,7 @@ package be.atbash.ee.jsf.valerie.utils;
 
 import be.atbash.ee.jsf.jerry.metadata.MetaDataEntry;
 import be.atbash.ee.jsf.jerry.metadata.PropertyInformationKeys;
+import be.atbash.ee.jsf.valerie.metadata.MetaDataIndex;
 import be.atbash.ee.jsf.valerie.property.DefaultPropertyInformation;
 import be.atbash.ee.jsf.valerie.property.PropertyDetails;
 import be.atbash.ee.jsf.valerie.property.PropertyInformation;
@@ -32,11 +33,10 @@ import java.lang.annotation.Annotation;
 import java.lang.annotation.Documented;
 import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
+import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import java.util.*;
 
 /**
  *
@@ -45,13 +45,39 @@ public final class AnnotationUtils {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(AnnotationUtils.class);
 
-    private static List<Class<?>> excludedAnnotations = new ArrayList<>();
+    private static final Set<Class<? extends Annotation>> EXCLUDED_ANNOTATIONS = new HashSet<>(Arrays.asList(
+            Documented.class, Retention.class, Target.class));
+
+    // The meta-annotations of an annotation type, expanded recursively (combined constraints).
+    private static final ClassValue<List<Annotation>> COMBINED_CONSTRAINTS = new ClassValue<List<Annotation>>() {
+        @Override
+        protected List<Annotation> computeValue(Class<?> type) {
+            List<Annotation> result = new ArrayList<>();
+            Set<Class<?>> path = new HashSet<>();
+            path.add(type);
+            expandCombinedConstraints(type, path, result);
+            return result.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(result);
+        }
+    };
+
+    // The class-level constraint validators of a class and its superclasses, not yet bound to a property.
+    private static final ClassValue<List<RecordValueInfo>> CLASS_LEVEL_VALIDATORS = new ClassValue<List<RecordValueInfo>>() {
+        @Override
+        protected List<RecordValueInfo> computeValue(Class<?> type) {
+            List<RecordValueInfo> result = new ArrayList<>();
+            for (Annotation annotation : type.getDeclaredAnnotations()) {
+                for (Class<? extends ConstraintValidator<?, ?>> validationConstraint : getBeanConstraintValidator(annotation.annotationType())) {
+                    result.add(new RecordValueInfo(type, validationConstraint));
+                }
+            }
 
-    static {
-        excludedAnnotations.add(Documented.class);
-        excludedAnnotations.add(Retention.class);
-        excludedAnnotations.add(Target.class);
-    }
+            Class<?> superclass = type.getSuperclass();
+            if (superclass != null && !Object.class.equals(superclass)) {
+                result.addAll(CLASS_LEVEL_VALIDATORS.get(superclass));
+            }
+            return result.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(result);
+        }
+    };
 
     private AnnotationUtils() {
     }
@@ -59,6 +85,7 @@ public final class AnnotationUtils {
     /**
      * Extracts all annotations found on a property. It looks for them on getter method, the field and all getters
      * that are defined in interfaces. The name of the target property is provided by the propertyDetails parameter.
+     * The annotations of a property are determined only once and shared for all views and components.
      *
      * @param entityClass     target class which has to be scanned
      * @param propertyDetails information about the property
@@ -68,38 +95,79 @@ public final class AnnotationUtils {
         PropertyInformation propertyInformation = new DefaultPropertyInformation();
         propertyInformation.setInformation(PropertyInformationKeys.PROPERTY_DETAILS, propertyDetails);
 
-        PropertyStorage storage = CDIUtils.retrieveInstance(PropertyStorage.class);
+        List<Annotation> annotations = BeanPropertyModel.of(entityClass)
+                .getAnnotations(propertyDetails.getProperty(), property -> scanAnnotations(entityClass, property));
+
+        for (Annotation annotation : annotations) {
+            propertyInformation.addMetaDataEntry(createMetaDataEntryForAnnotation(annotation));
+        }
+
+        return propertyInformation;
+    }
+
+    private static List<Annotation> scanAnnotations(Class<?> entityClass, String property) {
+        // With BeanInfo, the getter can be different from the one determined at compile time.
+        if (!ReflectionUtils.useBeanInfo()) {
+            MetaDataIndex metaDataIndex = CDIUtils.retrieveInstance(MetaDataIndex.class);
+            List<AnnotatedElement> members = metaDataIndex.getAnnotatedMembers(entityClass, property);
+            if (members != null) {
+                List<Annotation> result = new ArrayList<>();
+                for (AnnotatedElement member : members) {
+                    collectAnnotations(Arrays.asList(member.getAnnotations()), result);
+                }
+                return result;
+            }
+        }
 
-        while (!Object.class.getName().equals(entityClass.getName())) {
-            addPropertyAccessAnnotations(storage, entityClass, propertyDetails.getProperty(), propertyInformation);
-            addFieldAccessAnnotations(storage, entityClass, propertyDetails.getProperty(), propertyInformation);
+        List<Annotation> result = new ArrayList<>();
+        Class<?> currentClass = entityClass;
+        while (currentClass != null && !Object.class.getName().equals(currentClass.getName())) {
+            collectPropertyAccessAnnotations(currentClass, property, result);
+            collectFieldAccessAnnotations(currentClass, property, result);
 
-            processInterfaces(storage, entityClass, propertyDetails, propertyInformation);
+            collectInterfaceAnnotations(currentClass, property, result);
 
-            entityClass = entityClass.getSuperclass();
+            currentClass = currentClass.getSuperclass();
         }
+        return result;
+    }
 
-        return propertyInformation;
+    /**
+     * @deprecated The storage is no longer used, use {@link #addPropertyAccessAnnotations(Class, String, PropertyInformation)}.
+     */
+    @Deprecated
+    public static void addPropertyAccessAnnotations(PropertyStorage storage,
+                                                    Class<?> entity,
+                                                    String property,
+                                                    PropertyInformation propertyInformation) {
+        addPropertyAccessAnnotations(entity, property, propertyInformation);
     }
 
     /**
      * Extracts all annotations found at the getter method of a property.
      * The annotations are added to the given propertyInformation parameter.
      *
-     * @param storage             {@link PropertyStorage} which is able to cache information of a property
      * @param entity              target class which has to be scanned
      * @param property            Name of the property we are interested in.
      * @param propertyInformation Where the MetaDataEntries for the annotations are added.
      */
-    public static void addPropertyAccessAnnotations(PropertyStorage storage,
-                                                    Class<?> entity,
+    public static void addPropertyAccessAnnotations(Class<?> entity,
                                                     String property,
                                                     PropertyInformation propertyInformation) {
-        Method method = ReflectionUtils.tryToGetMethodOfProperty(storage, entity, property);
+        List<Annotation> annotations = new ArrayList<>();
+        collectPropertyAccessAnnotations(entity, property, annotations);
+        addMetaDataEntries(annotations, propertyInformation);
+    }
 
-        if (method != null) {
-            addAnnotationToAnnotationEntries(Arrays.asList(method.getAnnotations()), propertyInformation);
-        }
+    /**
+     * @deprecated The storage is no longer used, use {@link #addFieldAccessAnnotations(Class, String, PropertyInformation)}.
+     */
+    @Deprecated
+    public static void addFieldAccessAnnotations(PropertyStorage storage,
+                                                 Class<?> entity,
+                                                 String property,
+                                                 PropertyInformation propertyInformation) {
+        addFieldAccessAnnotations(entity, property, propertyInformation);
     }
 
     /**
@@ -107,62 +175,100 @@ public final class AnnotationUtils {
      * A field name with a _ (underscore) as prefix is also supported.
      * The annotations are added to the given propertyInformation parameter.
      *
-     * @param storage             {@link PropertyStorage} which is able to cache information of a property
      * @param entity              target class which has to be scanned
      * @param property            Name of the property we are interested in.
      * @param propertyInformation Where the MetaDataEntries for the annotations are added.
      */
-    public static void addFieldAccessAnnotations(PropertyStorage storage,
-                                                 Class<?> entity,
+    public static void addFieldAccessAnnotations(Class<?> entity,
                                                  String property,
                                                  PropertyInformation propertyInformation) {
-        Field field = ReflectionUtils.tryToGetFieldOfProperty(storage, entity, property);
+        List<Annotation> annotations = new ArrayList<>();
+        collectFieldAccessAnnotations(entity, property, annotations);
+        addMetaDataEntries(annotations, propertyInformation);
+    }
+
+    private static void addMetaDataEntries(List<Annotation> annotations, PropertyInformation propertyInformation) {
+        for (Annotation annotation : annotations) {
+            propertyInformation.addMetaDataEntry(createMetaDataEntryForAnnotation(annotation));
+        }
+    }
+
+    private static void collectPropertyAccessAnnotations(Class<?> entity, String property,
+                                                         List<Annotation> result) {
+        Method method = ReflectionUtils.tryToGetMethodOfProperty(entity, property);
+
+        if (method != null) {
+            collectAnnotations(Arrays.asList(method.getAnnotations()), result);
+        }
+    }
+
+    private static void collectFieldAccessAnnotations(Class<?> entity, String property,
+                                                      List<Annotation> result) {
+        Field field = ReflectionUtils.tryToGetFieldOfProperty(entity, property);
 
         if (field != null) {
-            addAnnotationToAnnotationEntries(Arrays.asList(field.getAnnotations()), propertyInformation);
+            collectAnnotations(Arrays.asList(field.getAnnotations()), result);
         }
     }
 
-    private static void processInterfaces(PropertyStorage storage, Class<?> currentClass,
-                                          PropertyDetails propertyDetails,
-                                          PropertyInformation propertyInformation) {
+    private static void collectInterfaceAnnotations(Class<?> currentClass, String property,
+                                                    List<Annotation> result) {
         for (Class<?> currentInterface : currentClass.getInterfaces()) {
-            addPropertyAccessAnnotations(storage, currentInterface, propertyDetails.getProperty(), propertyInformation);
+            collectPropertyAccessAnnotations(currentInterface, property, result);
 
-            processInterfaces(storage, currentInterface, propertyDetails, propertyInformation);
+            collectInterfaceAnnotations(currentInterface, property, result);
         }
     }
 
-    private static void addAnnotationToAnnotationEntries(List<Annotation> annotations,
-                                                         PropertyInformation propertyInformation) {
+    private static void collectAnnotations(List<Annotation> annotations, List<Annotation> result) {
         for (Annotation annotation : annotations) {
-            propertyInformation.addMetaDataEntry(createMetaDataEntryForAnnotation(annotation));
-
-            addCombinedConstraints(propertyInformation, annotation);
+            result.add(annotation);
+            logFoundAnnotation(annotation);
 
-            if (LOGGER.isTraceEnabled()) {
-                LOGGER.trace(annotation.getClass().getName() + " found");
+            for (Annotation combinedConstraint : getCombinedConstraints(annotation.annotationType())) {
+                result.add(combinedConstraint);
+                logFoundAnnotation(combinedConstraint);
             }
         }
     }
 
-    private static void addCombinedConstraints(PropertyInformation propertyInformation, Annotation annotation) {
-        Annotation[] declaredAnnotations = annotation.annotationType().getDeclaredAnnotations();
-        List<Annotation> annotations = new ArrayList<>();
+    private static void logFoundAnnotation(Annotation annotation) {
+        if (LOGGER.isTraceEnabled()) {
+            LOGGER.trace(annotation.getClass().getName() + " found");
+        }
+    }
+
+    /**
+     * The meta-annotations of the annotation type (except @Documented, @Retention and @Target), each followed by its
+     * own meta-annotations. Determined once per annotation type.
+     */
+    static List<Annotation> getCombinedConstraints(Class<? extends Annotation> annotationType) {
+        return COMBINED_CONSTRAINTS.get(annotationType);
+    }
 
-        for (Annotation foundAnnotation : declaredAnnotations) {
-            if (!excludedAnnotations.contains(foundAnnotation.annotationType())) {
-                annotations.add(foundAnnotation);
+    /**
+     * Adds the meta-annotations of the annotation type, each followed by its own meta-annotations. An annotation type
+     * which is already on the path (annotations annotated with each other) is not expanded again.
+     */
+    private static void expandCombinedConstraints(Class<?> annotationType, Set<Class<?>> path, List<Annotation> result) {
+        for (Annotation foundAnnotation : annotationType.getDeclaredAnnotations()) {
+            Class<? extends Annotation> foundType = foundAnnotation.annotationType();
+            if (!EXCLUDED_ANNOTATIONS.contains(foundType)) {
+                result.add(foundAnnotation);
+
+                if (path.add(foundType)) {
+                    expandCombinedConstraints(foundType, path, result);
+                    path.remove(foundType);
+                }
             }
         }
-
-        addAnnotationToAnnotationEntries(annotations, propertyInformation);
     }
 
     private static MetaDataEntry createMetaDataEntryForAnnotation(Annotation foundAnnotation) {
         MetaDataEntry entry = new MetaDataEntry();
 
         entry.setKey(foundAnnotation.annotationType().getName());
+        entry.setType(foundAnnotation.annotationType());
         entry.setValue(foundAnnotation);
 
         return entry;
@@ -171,9 +277,7 @@ public final class AnnotationUtils {
     public static boolean isBeanConstraint(String annotationName) {
         boolean result = false;
         try {
-            Class<?> annotationClass = Class.forName(annotationName);
-            result = annotationClass.getAnnotation(Constraint.class) != null;
-
+            result = isBeanConstraint(loadClass(annotationName));
         } catch (ClassNotFoundException e) {
             LOGGER.warn(String.format("ClassNotFound %s", annotationName));
         }
@@ -181,6 +285,22 @@ public final class AnnotationUtils {
 
     }
 
+    public static boolean isBeanConstraint(Class<?> annotationClass) {
+        return annotationClass.getAnnotation(Constraint.class) != null;
+    }
+
+    private static Class<?> loadClass(String className) throws ClassNotFoundException {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (classLoader != null) {
+            try {
+                return Class.forName(className, false, classLoader);
+            } catch (ClassNotFoundException e) {
+                // Try with the class loader of Valerie
+            }
+        }
+        return Class.forName(className);
+    }
+
     private static List<Class<? extends ConstraintValidator<?, ?>>> getBeanConstraintValidator(Class<?> annotationClass) {
         Constraint annotation = annotationClass.getAnnotation(Constraint.class);
 
@@ -193,19 +313,14 @@ public final class AnnotationUtils {
 
     }
 
+    /**
+     * Returns the validators of the class-level constraints of the class and its superclasses. The list is determined
+     * once per class and is shared, the {@link RecordValueInfo}s are not bound to a property.
+     *
+     * @param clazz The class to inspect.
+     * @return The immutable list of class-level constraint validators.
+     */
     public static List<RecordValueInfo> getClassLevelBeanValidationInfo(Class<?> clazz) {
-        List<RecordValueInfo> result = new ArrayList<>();
-
-        for (Annotation annotation : clazz.getDeclaredAnnotations()) {
-            List<Class<? extends ConstraintValidator<?, ?>>> beanValidationConstraints = getBeanConstraintValidator(annotation.annotationType());
-            for (Class<? extends ConstraintValidator<?, ?>> validationConstraint : beanValidationConstraints) {
-                result.add(new RecordValueInfo(clazz, validationConstraint));
-            }
-        }
-
-        if (!Object.class.equals(clazz.getSuperclass())) {
-            result.addAll(getClassLevelBeanValidationInfo(clazz.getSuperclass()));
-        }
-        return result;
+        return CLASS_LEVEL_VALIDATORS.get(clazz);
     }
 }
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2014-2020 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.ee.jsf.valerie.utils;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * The read methods, fields and annotations of the properties of a class, determined once for the class (with one
+ * introspection when BeanInfo is used). The fields and the isXxx()/getXxx() methods are those declared by the class
+ * itself, the super classes and interfaces have their own model. The read methods of the BeanInfo however also
+ * contain the getters inherited from the super classes, as the Introspector returns them.
+ * The annotations of a property are those of the class and all its super classes and interfaces, as determined by
+ * {@link AnnotationUtils}.
+ */
+final class BeanPropertyModel {
+
+    private static volatile ClassValue<BeanPropertyModel> models = createModels();
+
+    // Read methods of the BeanInfo, by property name.
+    private final Map<String, Method> beanInfoReadMethods;
+    // Declared methods isXxx() and getXxx(), by the part after is/get.
+    private final Map<String, Method> isMethods;
+    private final Map<String, Method> getMethods;
+    private final Map<String, Field> fields;
+    // Annotations of the property, including those of the super classes and interfaces.
+    private final ConcurrentMap<String, List<Annotation>> annotations = new ConcurrentHashMap<>();
+
+    BeanPropertyModel(Class<?> type, boolean useBeanInfo) {
+        beanInfoReadMethods = useBeanInfo ? determineBeanInfoReadMethods(type) : Collections.<String, Method>emptyMap();
+
+        Map<String, Method> is = new HashMap<>();
+        Map<String, Method> get = new HashMap<>();
+        for (Method method : type.getDeclaredMethods()) {
+            if (method.getParameterCount() == 0) {
+                String name = method.getName();
+                if (name.startsWith("is")) {
+                    putMostSpecific(is, name.substring(2), method);
+                } else if (name.startsWith("get")) {
+                    putMostSpecific(get, name.substring(3), method);
+                }
+            }
+        }
+        isMethods = is;
+        getMethods = get;
+
+        Map<String, Field> declaredFields = new HashMap<>();
+        for (Field field : type.getDeclaredFields()) {
+            declaredFields.put(field.getName(), field);
+        }
+        fields = declaredFields;
+    }
+
+    static BeanPropertyModel of(Class<?> type) {
+        return models.get(type);
+    }
+
+    /**
+     * Removes the models of all classes, so that the tests don't share the models (and cached annotations).
+     */
+    static void invalidateAll() {
+        models = createModels();
+    }
+
+    /**
+     * The read method from the BeanInfo (when used), otherwise the declared method isXxx() or getXxx().
+     */
+    Method getReadMethod(String property) {
+        Method result = beanInfoReadMethods.get(property);
+        if (result == null) {
+            String capitalized = property.substring(0, 1).toUpperCase() + property.substring(1);
+            result = isMethods.get(capitalized);
+            if (result == null) {
+                result = getMethods.get(capitalized);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The declared field with the name of the property, the name prefixed with _ (underscore) or the name with
+     * a lower case first character.
+     */
+    Field getField(String property) {
+        Field result = fields.get(property);
+        if (result == null) {
+            result = fields.get("_" + property);
+        }
+        if (result == null) {
+            if (property.length() > 1
+                    && Character.isUpperCase(property.charAt(0))
+                    && Character.isUpperCase(property.charAt(1))) {
+                //don't use Introspector#decapitalize here
+                result = fields.get(property.substring(0, 1).toLowerCase() + property.substring(1));
+            } else {
+                result = fields.get(Introspector.decapitalize(property));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The annotations of the property. When not known yet, they are determined by the scanner.
+     *
+     * @return The unmodifiable list of annotations.
+     */
+    List<Annotation> getAnnotations(String property, Function<String, List<Annotation>> scanner) {
+        return annotations.computeIfAbsent(property,
+                key -> Collections.unmodifiableList(new ArrayList<>(scanner.apply(key))));
+    }
+
+    private static ClassValue<BeanPropertyModel> createModels() {
+        return new ClassValue<BeanPropertyModel>() {
+            @Override
+            protected BeanPropertyModel computeValue(Class<?> type) {
+                return new BeanPropertyModel(type, ReflectionUtils.useBeanInfo());
+            }
+        };
+    }
+
+    private static Map<String, Method> determineBeanInfoReadMethods(Class<?> type) {
+        Map<String, Method> result = new HashMap<>();
+        try {
+            BeanInfo beanInfo = Introspector.getBeanInfo(type);
+            for (PropertyDescriptor propertyDescriptor : beanInfo.getPropertyDescriptors()) {
+                if (propertyDescriptor.getReadMethod() != null) {
+                    result.putIfAbsent(propertyDescriptor.getName(), propertyDescriptor.getReadMethod());
+                }
+            }
+        } catch (IntrospectionException e) {
+            //do nothing
+        }
+        return result;
+    }
+
+    /**
+     * Like Class.getDeclaredMethod, the method with the most specific return type is taken when there are several
+     * (bridge methods for covariant return types).
+     */
+    private static void putMostSpecific(Map<String, Method> methods, String name, Method method) {
+        Method current = methods.get(name);
+        if (current == null || current.getReturnType().isAssignableFrom(method.getReturnType())) {
+            methods.put(name, method);
+        }
+    }
+}
@@ -15,31 +15,45 @@
  */
 package be.atbash.ee.jsf.valerie.utils;
 
+import be.atbash.util.exception.AtbashUnexpectedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.lang.invoke.MethodHandle;
-import java.lang.invoke.MethodHandles;
-import java.lang.invoke.MethodType;
+import java.lang.invoke.*;
+import java.lang.reflect.Modifier;
 import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
+/**
+ * Getters and setters of properties as MethodHandle or as functional interface. They are determined once per class and
+ * property, also when the property can't be found (so that the warning is only logged once).
+ */
 public class MethodHandleUtils {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandleUtils.class);
-    private static final MethodType DATE_GETTER = MethodType.methodType(Date.class);
 
-    public static MethodHandle getSetterHandle(Class<?> target, String property, Class<?> propertyType) {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
 
-        MethodType methodType = MethodType.methodType(void.class, propertyType);
+    private static final MethodType FUNCTION_FACTORY = MethodType.methodType(Function.class);
+    private static final MethodType FUNCTION_SIGNATURE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType BI_CONSUMER_FACTORY = MethodType.methodType(BiConsumer.class);
+    private static final MethodType BI_CONSUMER_SIGNATURE = MethodType.methodType(void.class, Object.class, Object.class);
 
-        try {
-            return MethodHandles.lookup().findVirtual(target, setAccessorMethodName(property), methodType);
-        } catch (NoSuchMethodException | IllegalAccessException e) {
-            LOGGER.warn(String.format("Unable to find/access the %s property '%s' of class %s", propertyType.getSimpleName(), property, target.getName()), e);
+    private static final Accessor NOT_FOUND = new Accessor(null, null);
+
+    private static final ClassValue<ClassAccessors> ACCESSORS = new ClassValue<ClassAccessors>() {
+        @Override
+        protected ClassAccessors computeValue(Class<?> type) {
+            return new ClassAccessors();
         }
-        return null;
-    }
+    };
 
+    public static MethodHandle getSetterHandle(Class<?> target, String property, Class<?> propertyType) {
+        return getSetterAccessor(target, property, propertyType).handle;
+    }
 
     /**
      * Only for a Date Property!
@@ -49,16 +63,145 @@ public class MethodHandleUtils {
      * @return
      */
     public static MethodHandle getGetterHandle(Class<?> target, String property) {
+        return getGetterAccessor(target, property, Date.class).handle;
+    }
+
+    /**
+     * Returns the setter of the property, with a parameter of exactly the property type, as a BiConsumer (target,
+     * value), or null (and a logged warning) when there is no such setter.
+     */
+    public static BiConsumer<Object, Object> getSetter(Class<?> target, String property, Class<?> propertyType) {
+        return getSetterAccessor(target, property, propertyType).setter();
+    }
+
+    /**
+     * Returns the getter of the property, which returns exactly the property type, as a Function, or null (and a logged
+     * warning) when there is no such getter.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Function<Object, T> getGetter(Class<?> target, String property, Class<T> propertyType) {
+        return (Function<Object, T>) getGetterAccessor(target, property, propertyType).getter();
+    }
+
+    /**
+     * Returns the return type of the public getter of the property, or null when there is no such getter. No warning
+     * is logged.
+     */
+    public static Class<?> getPropertyType(Class<?> target, String property) {
+        try {
+            Class<?> result = target.getMethod(getAccessorMethodName(property)).getReturnType();
+            return result == void.class ? null : result;
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static Accessor getSetterAccessor(Class<?> target, String property, Class<?> propertyType) {
+        ConcurrentMap<Class<?>, Accessor> accessors = ACCESSORS.get(target).setters(property);
+        Accessor result = accessors.get(propertyType);
+        if (result != null) {
+            return result;
+        }
+        return accessors.computeIfAbsent(propertyType, k -> {
+            MethodType methodType = MethodType.methodType(void.class, propertyType);
+            try {
+                return createSetterAccessor(target, LOOKUP.findVirtual(target, setAccessorMethodName(property), methodType));
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                LOGGER.warn(String.format("Unable to find/access the %s property '%s' of class %s", propertyType.getSimpleName(), property, target.getName()), e);
+                return NOT_FOUND;
+            }
+        });
+    }
+
+    private static Accessor getGetterAccessor(Class<?> target, String property, Class<?> propertyType) {
+        ConcurrentMap<Class<?>, Accessor> accessors = ACCESSORS.get(target).getters(property);
+        Accessor result = accessors.get(propertyType);
+        if (result != null) {
+            return result;
+        }
+        return accessors.computeIfAbsent(propertyType, k -> {
+            MethodType methodType = MethodType.methodType(propertyType);
+            try {
+                return createGetterAccessor(target, LOOKUP.findVirtual(target, getAccessorMethodName(property), methodType));
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                LOGGER.warn(String.format("Unable to find/access the %s property '%s' of class %s", propertyType.getSimpleName(), property, target.getName()), e);
+                return NOT_FOUND;
+            }
+        });
+    }
+
+    private static Accessor createGetterAccessor(Class<?> target, MethodHandle handle) {
+        Object function = null;
+        if (canUseLambda(target, handle)) {
+            function = createLambda("apply", FUNCTION_FACTORY, FUNCTION_SIGNATURE, handle, handle.type().wrap());
+        }
+        if (function == null) {
+            MethodHandle generic = handle.asType(FUNCTION_SIGNATURE);
+            function = (Function<Object, Object>) object -> invokeGetter(generic, object);
+        }
+        return new Accessor(handle, function);
+    }
+
+    private static Accessor createSetterAccessor(Class<?> target, MethodHandle handle) {
+        Object consumer = null;
+        if (canUseLambda(target, handle)) {
+            consumer = createLambda("accept", BI_CONSUMER_FACTORY, BI_CONSUMER_SIGNATURE, handle, handle.type().wrap().changeReturnType(void.class));
+        }
+        if (consumer == null) {
+            MethodHandle generic = handle.asType(BI_CONSUMER_SIGNATURE);
+            consumer = (BiConsumer<Object, Object>) (object, value) -> invokeSetter(generic, object, value);
+        }
+        return new Accessor(handle, consumer);
+    }
 
+    /**
+     * The generated lambda class calls the method directly from this class, so the class declaring the method must be
+     * public and visible from the class loader of Valerie.
+     */
+    private static boolean canUseLambda(Class<?> target, MethodHandle handle) {
+        Class<?> declaringClass = LOOKUP.revealDirect(handle).getDeclaringClass();
+        return Modifier.isPublic(declaringClass.getModifiers()) && Modifier.isPublic(target.getModifiers())
+                && isVisible(declaringClass) && isVisible(target);
+    }
+
+    private static boolean isVisible(Class<?> type) {
         try {
-            return MethodHandles.lookup().findVirtual(target, getAccessorMethodName(property), DATE_GETTER);
-        } catch (NoSuchMethodException | IllegalAccessException e) {
-            LOGGER.warn(String.format("Unable to find/access the Date property '%s' of class %s", property, target.getName()), e);
+            return Class.forName(type.getName(), false, MethodHandleUtils.class.getClassLoader()) == type;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
         }
-        return null;
     }
 
-    // FIXME We should cache this.
+    private static Object createLambda(String methodName, MethodType factoryType, MethodType signature, MethodHandle handle, MethodType instantiatedType) {
+        try {
+            CallSite callSite = LambdaMetafactory.metafactory(LOOKUP, methodName, factoryType, signature, handle, instantiatedType);
+            return callSite.getTarget().invoke();
+        } catch (Throwable throwable) {
+            // Use the MethodHandle itself
+            LOGGER.debug(String.format("Unable to create lambda for %s", handle), throwable);
+            return null;
+        }
+    }
+
+    private static Object invokeGetter(MethodHandle handle, Object object) {
+        try {
+            return handle.invokeExact(object);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable throwable) {
+            throw new AtbashUnexpectedException(throwable);
+        }
+    }
+
+    private static void invokeSetter(MethodHandle handle, Object object, Object value) {
+        try {
+            handle.invokeExact(object, value);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable throwable) {
+            throw new AtbashUnexpectedException(throwable);
+        }
+    }
 
     private static String setAccessorMethodName(String property) {
         String builder;
@@ -72,4 +215,44 @@ public class MethodHandleUtils {
                 property.substring(1);
     }
 
+    /**
+     * The getters and setters of a class, by property name and property type.
+     */
+    private static class ClassAccessors {
+        private final ConcurrentMap<String, ConcurrentMap<Class<?>, Accessor>> getters = new ConcurrentHashMap<>();
+        private final ConcurrentMap<String, ConcurrentMap<Class<?>, Accessor>> setters = new ConcurrentHashMap<>();
+
+        ConcurrentMap<Class<?>, Accessor> getters(String property) {
+            return byProperty(getters, property);
+        }
+
+        ConcurrentMap<Class<?>, Accessor> setters(String property) {
+            return byProperty(setters, property);
+        }
+
+        private static ConcurrentMap<Class<?>, Accessor> byProperty(ConcurrentMap<String, ConcurrentMap<Class<?>, Accessor>> accessors, String property) {
+            ConcurrentMap<Class<?>, Accessor> result = accessors.get(property);
+            return result != null ? result : accessors.computeIfAbsent(property, k -> new ConcurrentHashMap<>(2));
+        }
+    }
+
+    private static class Accessor {
+        private final MethodHandle handle;
+        private final Object function;
+
+        Accessor(MethodHandle handle, Object function) {
+            this.handle = handle;
+            this.function = function;
+        }
+
+        @SuppressWarnings("unchecked")
+        Function<Object, Object> getter() {
+            return (Function<Object, Object>) function;
+        }
+
+        @SuppressWarnings("unchecked")
+        BiConsumer<Object, Object> setter() {
+            return (BiConsumer<Object, Object>) function;
+        }
+    }
 }
@@ -21,15 +21,12 @@ import be.atbash.util.CDIUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.beans.BeanInfo;
-import java.beans.IntrospectionException;
-import java.beans.Introspector;
-import java.beans.PropertyDescriptor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 
 /**
  * Utilities for reflection of Fields and methods.  We need to keep reflection API as we need to extract the annotations.
+ * The members of a class are determined once and kept with the class, see {@link BeanPropertyModel}.
  */
 public class ReflectionUtils {
 
@@ -37,45 +34,30 @@ public class ReflectionUtils {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ReflectionUtils.class);
 
+    /**
+     * @deprecated The storage is no longer used, use {@link #tryToGetMethodOfProperty(Class, String)}.
+     */
+    @Deprecated
     public static Method tryToGetMethodOfProperty(PropertyStorage storage, Class<?> entity, String property) {
+        return tryToGetMethodOfProperty(entity, property);
+    }
 
-        if (isCachedMethod(storage, entity, property)) {
-            return getCachedMethod(storage, entity, property);
-        }
-
-        Method method = tryToGetReadMethod(entity, property);
-
-        tryToCacheMethod(storage, entity, property, method);
-
-        return method;
+    public static Method tryToGetMethodOfProperty(Class<?> entity, String property) {
+        return tryToGetReadMethod(entity, property);
     }
 
     private static Method tryToGetReadMethod(Class<?> baseBeanClass, String property) {
-        Method method = ReflectionUtils.tryToGetReadMethodViaBeanInfo(baseBeanClass, property);
+        Method method = BeanPropertyModel.of(baseBeanClass).getReadMethod(property);
 
-        if (method == null) {
-            method = ReflectionUtils.tryToGetReadMethodManually(baseBeanClass, property);
+        if (method == null && LOGGER.isTraceEnabled()) {
+            String capitalized = property.substring(0, 1).toUpperCase() + property.substring(1);
+            LOGGER.trace("method not found - class: " + baseBeanClass.getName()
+                    + " - methods: " + "get" + capitalized + " " + "is" + capitalized);
         }
         return method;
     }
 
-    private static Method tryToGetReadMethodViaBeanInfo(Class<?> entity, String property) {
-        if (useBeanInfo()) {
-            try {
-                BeanInfo beanInfo = Introspector.getBeanInfo(entity);
-                for (PropertyDescriptor propertyDescriptor : beanInfo.getPropertyDescriptors()) {
-                    if (property.equals(propertyDescriptor.getName()) && propertyDescriptor.getReadMethod() != null) {
-                        return propertyDescriptor.getReadMethod();
-                    }
-                }
-            } catch (IntrospectionException e) {
-                //do nothing
-            }
-        }
-        return null;
-    }
-
-    private static boolean useBeanInfo() {
+    static boolean useBeanInfo() {
         if (USE_BEANINFO == null) {
             USE_BEANINFO = CDIUtils.retrieveInstance(ValerieConfiguration.class).useBeanInfo();
 
@@ -83,86 +65,21 @@ public class ReflectionUtils {
         return USE_BEANINFO;
     }
 
-    private static Method tryToGetReadMethodManually(Class<?> entity, String property) {
-        property = property.substring(0, 1).toUpperCase() + property.substring(1);
-
-        try {
-            //changed to official bean spec. due to caching there is no performance issue any more
-            return entity.getDeclaredMethod("is" + property);
-        } catch (NoSuchMethodException e) {
-            try {
-                return entity.getDeclaredMethod("get" + property);
-            } catch (NoSuchMethodException e1) {
-                if (LOGGER.isTraceEnabled()) {
-                    LOGGER.trace("method not found - class: " + entity.getName()
-                            + " - methods: " + "get" + property + " " + "is" + property);
-                }
-                return null;
-            }
-        }
-    }
-
+    /**
+     * @deprecated The storage is no longer used, use {@link #tryToGetFieldOfProperty(Class, String)}.
+     */
+    @Deprecated
     public static Field tryToGetFieldOfProperty(PropertyStorage storage, Class<?> entity, String property) {
-        if (isCachedField(storage, entity, property)) {
-            return getCachedField(storage, entity, property);
-        }
-
-        Field field = null;
-
-        try {
-            field = entity.getDeclaredField(property);
-        } catch (Exception e) {
-            try {
-                try {
-                    field = entity.getDeclaredField("_" + property);
-                } catch (Exception e1) {
-                    if (property.length() > 1
-                            && Character.isUpperCase(property.charAt(0))
-                            && Character.isUpperCase(property.charAt(1))) {
-                        //don't use Introspector#decapitalize here
-                        field = entity.getDeclaredField(property.substring(0, 1).toLowerCase() + property.substring(1));
-                    } else {
-                        field = entity.getDeclaredField(Introspector.decapitalize(property));
-                    }
-                }
-            } catch (NoSuchFieldException e1) {
-                if (LOGGER.isTraceEnabled()) {
-                    LOGGER.trace("field " + property + " or _" + property + " not found", e1);
-                }
-            }
-        }
-
-        tryToCacheField(storage, entity, property, field);
-
-        return field;
+        return tryToGetFieldOfProperty(entity, property);
     }
 
-    private static void tryToCacheField(PropertyStorage storage, Class<?> entity, String property, Field field) {
-        if (!storage.containsField(entity, property)) {
-            storage.storeField(entity, property, field);
-        }
-    }
-
-    private static boolean isCachedField(PropertyStorage storage, Class<?> entity, String property) {
-        return storage.containsField(entity, property);
-    }
+    public static Field tryToGetFieldOfProperty(Class<?> entity, String property) {
+        Field field = BeanPropertyModel.of(entity).getField(property);
 
-    private static Field getCachedField(PropertyStorage storage, Class<?> entity, String property) {
-        return storage.getField(entity, property);
-    }
-
-    private static boolean isCachedMethod(PropertyStorage storage, Class<?> entity, String property) {
-        return storage.containsMethod(entity, property);
-    }
-
-    private static void tryToCacheMethod(PropertyStorage storage, Class<?> entity, String property, Method method) {
-        if (!storage.containsMethod(entity, property)) {
-            storage.storeMethod(entity, property, method);
+        if (field == null && LOGGER.isTraceEnabled()) {
+            LOGGER.trace("field " + property + " or _" + property + " not found");
         }
-    }
 
-    private static Method getCachedMethod(PropertyStorage storage, Class<?> entity, String property) {
-        return storage.getMethod(entity, property);
+        return field;
     }
 }
-
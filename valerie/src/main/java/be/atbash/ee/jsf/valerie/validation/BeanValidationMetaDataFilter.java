@@ -19,25 +19,34 @@ import be.atbash.ee.jsf.jerry.metadata.MetaDataEntry;
 import be.atbash.ee.jsf.valerie.utils.AnnotationUtils;
 
 import javax.enterprise.context.ApplicationScoped;
-import java.util.HashMap;
-import java.util.Map;
+import java.lang.annotation.Annotation;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
- * Test if the MetaDataEntry is for a  Bean Validation constraint.
+ * Test if the MetaDataEntry is for a  Bean Validation constraint. The result is determined once per annotation type,
+ * which is taken from the entry itself. Only for entries without type, the class is loaded based on the key.
  */
 @ApplicationScoped
 public class BeanValidationMetaDataFilter {
 
-    private Map<String, Boolean> cache = new HashMap<>();
+    private static final ClassValue<Boolean> BEAN_CONSTRAINTS = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return AnnotationUtils.isBeanConstraint(type);
+        }
+    };
+
+    private ConcurrentMap<String, Boolean> cache = new ConcurrentHashMap<>();
 
     public boolean isBeanValidationConstraint(MetaDataEntry entry) {
-        boolean result;
-        if (cache.containsKey(entry.getKey())) {
-            result = cache.get(entry.getKey());
-        } else {
-            result = AnnotationUtils.isBeanConstraint(entry.getKey());
-            cache.put(entry.getKey(), result);
+        Class<?> type = entry.getType();
+        if (type == null && entry.getValue() instanceof Annotation) {
+            type = ((Annotation) entry.getValue()).annotationType();
+        }
+        if (type != null) {
+            return BEAN_CONSTRAINTS.get(type);
         }
-        return result;
+        return cache.computeIfAbsent(entry.getKey(), AnnotationUtils::isBeanConstraint);
     }
 }
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2014-2020 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.ee.jsf.valerie.warmup;
+
+import be.atbash.ee.jsf.jerry.storage.ComponentStorage;
+import be.atbash.ee.jsf.valerie.config.ValerieConfiguration;
+import be.atbash.ee.jsf.valerie.custom.DateRangeValidatorPropertyException;
+import be.atbash.ee.jsf.valerie.property.PropertyInformationManager;
+import be.atbash.util.CDIUtils;
+import org.slf4j.Logger;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.control.RequestContextController;
+import javax.faces.application.ViewHandler;
+import javax.faces.component.EditableValueHolder;
+import javax.faces.component.UIComponent;
+import javax.faces.component.UIViewRoot;
+import javax.faces.context.FacesContext;
+import javax.inject.Inject;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Determines the information of the components of the configured views at startup, so that the first requests
+ * don't need to do it. Only the input components with a value binding are processed, as only these have information
+ * (see {@link be.atbash.ee.jsf.valerie.metadata.extractor.MetaDataExtractor}). The component trees are built sequentially as this requires the FacesContext of the startup
+ * thread, the conversion of the meta-data into the component info happens in parallel on a bounded executor.
+ * Only active with valerie.warmup.enabled, and requires CDI 2.0 for activating the request context.
+ */
+@ApplicationScoped
+public class ViewWarmUp {
+
+    private static final String REQUEST_CONTEXT_CONTROLLER = "javax.enterprise.context.control.RequestContextController";
+
+    @Inject
+    protected transient Logger logger;
+
+    @Inject
+    private ValerieConfiguration valerieConfiguration;
+
+    @Inject
+    private PropertyInformationManager propertyInformationManager;
+
+    @Inject
+    private ComponentStorage componentStorage;
+
+    public void warmUp(FacesContext facesContext) {
+        if (!valerieConfiguration.isWarmUpEnabled()) {
+            return;
+        }
+        List<String> viewIds = determineViewIds(facesContext);
+        if (viewIds.isEmpty()) {
+            return;
+        }
+        if (!isRequestContextControllerAvailable()) {
+            logger.warn("Warm-up of the views requires CDI 2.0 (RequestContextController), warm-up skipped");
+            return;
+        }
+
+        long start = System.nanoTime();
+
+        ExecutorService executor = Executors.newFixedThreadPool(valerieConfiguration.getWarmUpThreads(), new WarmUpThreadFactory());
+        List<Future<?>> conversions = new ArrayList<>();
+
+        RequestContextController requestContextController = CDIUtils.retrieveInstance(RequestContextController.class);
+        UIViewRoot originalViewRoot = facesContext.getViewRoot();
+        requestContextController.activate();
+        try {
+            for (String viewId : viewIds) {
+                Future<?> conversion = warmUpView(facesContext, viewId, executor);
+                if (conversion != null) {
+                    conversions.add(conversion);
+                }
+            }
+        } finally {
+            requestContextController.deactivate();
+            facesContext.setViewRoot(originalViewRoot);
+        }
+
+        try {
+            for (Future<?> conversion : conversions) {
+                waitFor(conversion);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        logger.info(String.format("Warm-up of %s views finished in %s ms", viewIds.size(), toMillis(System.nanoTime() - start)));
+    }
+
+    private static boolean isRequestContextControllerAvailable() {
+        try {
+            Class.forName(REQUEST_CONTEXT_CONTROLLER, false, ViewWarmUp.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    List<String> determineViewIds(FacesContext facesContext) {
+        String views = valerieConfiguration.getWarmUpViews().trim();
+        if (views.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if ("*".equals(views)) {
+            ViewHandler viewHandler = facesContext.getApplication().getViewHandler();
+            return viewHandler.getViews(facesContext, "/").collect(Collectors.toList());
+        }
+        List<String> result = new ArrayList<>();
+        for (String viewId : views.split(",")) {
+            if (!viewId.trim().isEmpty()) {
+                result.add(viewId.trim());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Builds the component tree of the view and determines the information of each component. Returns the task
+     * which converts the meta-data into the component info, or null when the view couldn't be processed.
+     */
+    private Future<?> warmUpView(FacesContext facesContext, String viewId, ExecutorService executor) {
+        long start = System.nanoTime();
+        AtomicInteger failures = new AtomicInteger();
+        try {
+            ViewHandler viewHandler = facesContext.getApplication().getViewHandler();
+            UIViewRoot viewRoot = viewHandler.createView(facesContext, viewId);
+            facesContext.setViewRoot(viewRoot);
+            viewHandler.getViewDeclarationLanguage(facesContext, viewId).buildView(facesContext, viewRoot);
+
+            determineInformation(facesContext, viewRoot, failures);
+        } catch (DateRangeValidatorPropertyException e) {
+            // Verification of @DateRange properties (valerie.daterange.verify) must stop the application.
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            logger.warn(String.format("Warm-up of view '%s' failed : %s", viewId, e.getMessage()));
+            return null;
+        }
+        long buildTime = System.nanoTime() - start;
+
+        return executor.submit(() -> {
+            long conversionStart = System.nanoTime();
+            Set<String> clientIds = componentStorage.getClientIds(viewId);
+            for (String clientId : clientIds) {
+                componentStorage.getComponentInfo(viewId, clientId);
+            }
+            long conversionTime = System.nanoTime() - conversionStart;
+
+            logger.info(String.format("Warm-up of view '%s' took %s ms (build %s ms, conversion %s ms), %s components stored, %s components failed"
+                    , viewId, toMillis(buildTime + conversionTime), toMillis(buildTime), toMillis(conversionTime), clientIds.size(), failures.get()));
+        });
+    }
+
+    private void determineInformation(FacesContext facesContext, UIComponent uiComponent, AtomicInteger failures) {
+        if (isWarmUpCandidate(uiComponent)) {
+            try {
+                propertyInformationManager.determineInformation(facesContext, uiComponent);
+            } catch (DateRangeValidatorPropertyException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                // Value binding not resolvable outside a real request (like session scoped beans), determined at first use.
+                failures.incrementAndGet();
+                if (logger.isDebugEnabled()) {
+                    logger.debug(String.format("Warm-up of component '%s' in view '%s' failed : %s", uiComponent.getClientId(facesContext)
+                            , facesContext.getViewRoot().getViewId(), e.getMessage()));
+                }
+            }
+        }
+
+        Iterator<UIComponent> children = uiComponent.getFacetsAndChildren();
+        while (children.hasNext()) {
+            determineInformation(facesContext, children.next(), failures);
+        }
+    }
+
+    /**
+     * Other components would only store an entry without information in the storage.
+     */
+    static boolean isWarmUpCandidate(UIComponent uiComponent) {
+        return uiComponent instanceof EditableValueHolder && uiComponent.getValueExpression("value") != null;
+    }
+
+    private void waitFor(Future<?> conversion) {
+        try {
+            conversion.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.warn(String.format("Warm-up conversion failed : %s", e.getCause().getMessage()));
+        }
+    }
+
+    private static long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    private static class WarmUpThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "valerie-warmup-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2014-2020 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.ee.jsf.valerie.warmup;
+
+import be.atbash.util.CDIUtils;
+
+import javax.faces.application.Application;
+import javax.faces.context.FacesContext;
+import javax.faces.event.PostConstructApplicationEvent;
+import javax.faces.event.SystemEvent;
+import javax.faces.event.SystemEventListener;
+
+/**
+ * Starts the {@link ViewWarmUp} when the JSF application is started.
+ */
+public class ViewWarmUpListener implements SystemEventListener {
+
+    @Override
+    public void processEvent(SystemEvent event) {
+        if (event instanceof PostConstructApplicationEvent) {
+            CDIUtils.retrieveInstance(ViewWarmUp.class).warmUp(FacesContext.getCurrentInstance());
+        }
+    }
+
+    @Override
+    public boolean isListenerForSource(Object source) {
+        return source instanceof Application;
+    }
+}
@@ -19,6 +19,9 @@ import be.atbash.ee.jsf.valerie.custom.model.DateRangeModel1;
 import be.atbash.ee.jsf.valerie.custom.model.DateRangeModel2;
 import be.atbash.ee.jsf.valerie.custom.model.DateRangeModel3;
 import be.atbash.ee.jsf.valerie.custom.model.DateRangeModel4;
+import be.atbash.ee.jsf.valerie.custom.model.DateRangeModel5;
+import be.atbash.ee.jsf.valerie.custom.model.DateRangeModel6;
+import be.atbash.ee.jsf.valerie.custom.model.DateRangeModel7;
 import be.atbash.ee.jsf.valerie.utils.MethodHandleUtils;
 import org.junit.After;
 import org.junit.Before;
@@ -29,9 +32,12 @@ import uk.org.lidalia.slf4jtest.TestLoggerFactory;
 import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.Date;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
 
 /**
  *
@@ -189,4 +195,95 @@ public class DateRangeValidatorTest {
         }
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testIsValid_localDate() {
+        DateRangeModel5 model = new DateRangeModel5();
+        model.setStartDate(LocalDate.of(2015, 9, 14));
+        model.setEndDate(LocalDate.of(2015, 9, 15));
+
+        validator.initialize(model.getClass().getAnnotation(DateRange.class));
+
+        boolean valid = validator.isValid(model, null);
+        assertThat(valid).isTrue();
+    }
+
+    @Test
+    public void testIsValid_localDate_endBeforeStart() {
+        DateRangeModel5 model = new DateRangeModel5();
+        model.setStartDate(LocalDate.of(2015, 9, 15));
+        model.setEndDate(LocalDate.of(2015, 9, 14));
+
+        validator.initialize(model.getClass().getAnnotation(DateRange.class));
+
+        boolean valid = validator.isValid(model, null);
+        assertThat(valid).isFalse();
+    }
+
+    @Test
+    public void testIsValid_localDate_equalsAllowed_sameDates() {
+        DateRangeModel5 model = new DateRangeModel5();
+        model.setStartDate(LocalDate.of(2015, 9, 14));
+        model.setEndDate(LocalDate.of(2015, 9, 14));
+
+        validator.initialize(model.getClass().getAnnotation(DateRange.class));
+
+        boolean valid = validator.isValid(model, null);
+        assertThat(valid).isTrue();
+    }
+
+    @Test
+    public void testIsValid_otherClass() {
+        DateRangeModel1 model1 = new DateRangeModel1();
+        model1.setStartDate(date1);
+        model1.setEndDate(date2);
+        DateRangeModel2 model2 = new DateRangeModel2();
+        model2.setStartDate(date2);
+        model2.setEndDate(date1);
+
+        validator.initialize(model1.getClass().getAnnotation(DateRange.class));
+
+        assertThat(validator.isValid(model1, null)).isTrue();
+        assertThat(validator.isValid(model2, null)).isFalse();
+        assertThat(validator.isValid(model1, null)).isTrue();
+    }
+
+    @Test(expected = DateRangeValidatorPropertyException.class)
+    public void testIsValid_differentTypes() {
+        DateRangeModel6 model = new DateRangeModel6();
+        model.setStartDate(date1);
+        model.setEndDate(Instant.now());
+
+        validator.initialize(model.getClass().getAnnotation(DateRange.class));
+
+        validator.isValid(model, null);
+    }
+
+    @Test
+    public void testIsValid_unsupportedType() {
+        DateRangeModel7 model = new DateRangeModel7();
+        model.setStartDate("2015-09-14");
+        model.setEndDate(date3);
+
+        validator.initialize(model.getClass().getAnnotation(DateRange.class));
+
+        try {
+            validator.isValid(model, null);
+            fail("DateRangeValidatorPropertyException expected");
+        } catch (DateRangeValidatorPropertyException e) {
+            assertThat(e.getMessage()).isEqualTo("Unsupported type java.lang.String of the object property defined for 'start' : startDate");
+        }
+        assertThat(logger.getLoggingEvents()).isEmpty();
+    }
+
+    @Test(expected = DateRangeValidatorPropertyException.class)
+    public void verifyProperties_differentTypes() {
+        DateRangeValidator.verifyProperties(DateRangeModel6.class);
+    }
+
+    @Test
+    public void verifyProperties() {
+        DateRangeValidator.verifyProperties(DateRangeModel5.class);
+        assertThat(logger.getLoggingEvents()).isEmpty();
+    }
+}
@@ -0,0 +1,314 @@
+/*
+ * Copyright 2014-2020 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.ee.jsf.valerie.el;
+
+import be.atbash.ee.jsf.valerie.property.PropertyDetails;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.el.*;
+import java.beans.FeatureDescriptor;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CompiledValueBindingTest {
+
+    private Order order;
+    private ELResolver elResolver;
+    private ELContext elContext;
+
+    @Before
+    public void setup() {
+        order = new Order();
+        elResolver = new TestELResolver(order);
+        elContext = new TestELContext();
+    }
+
+    @Test
+    public void compile() {
+        assertThat(CompiledValueBinding.compile("#{order.customer.address.zip}").isCompilable()).isTrue();
+        assertThat(CompiledValueBinding.compile("#{order.values['key'].zip}").isCompilable()).isTrue();
+        assertThat(CompiledValueBinding.compile("#{order.number}").isCompilable()).isTrue();
+    }
+
+    @Test
+    public void compile_notCompilable() {
+        assertThat(CompiledValueBinding.compile("#{order}").isCompilable()).isFalse();
+        assertThat(CompiledValueBinding.compile("#{order[bean.property]}").isCompilable()).isFalse();
+        assertThat(CompiledValueBinding.compile("#{order.values[bean.key].zip}").isCompilable()).isFalse();
+        assertThat(CompiledValueBinding.compile("#{order.method()}").isCompilable()).isFalse();
+        assertThat(CompiledValueBinding.compile("#{empty order.number}").isCompilable()).isFalse();
+        assertThat(CompiledValueBinding.compile("#{order.number + 1}").isCompilable()).isFalse();
+        assertThat(CompiledValueBinding.compile("Text").isCompilable()).isFalse();
+    }
+
+    @Test
+    public void resolve() {
+        PropertyDetails details = resolve("#{order.customer.address.zip}");
+
+        assertThat(details).isNotNull();
+        assertThat(details.getKey()).isEqualTo("order.customer.address.zip");
+        assertThat(details.getBaseObject()).isSameAs(order.getCustomer().getAddress());
+        assertThat(details.getProperty()).isEqualTo("zip");
+        assertThat(elContext.isPropertyResolved()).isFalse();
+    }
+
+    @Test
+    public void resolve_map() {
+        PropertyDetails details = resolve("#{order.values['key'].zip}");
+
+        assertThat(details).isNotNull();
+        assertThat(details.getKey()).isEqualTo("order.values.key.zip");
+        assertThat(details.getBaseObject()).isSameAs(order.getValues().get("key"));
+    }
+
+    @Test
+    public void resolve_nullIntermediate() {
+        order.getCustomer().setAddress(null);
+
+        PropertyDetails details = resolve("#{order.customer.address.zip}");
+
+        assertThat(details).isNull();
+    }
+
+    @Test
+    public void resolve_unknownRoot() {
+        PropertyDetails details = resolve("#{other.customer.address.zip}");
+
+        assertThat(details).isNull();
+    }
+
+    @Test
+    public void resolve_noGetter() {
+        PropertyDetails details = resolve("#{order.unknown.zip}");
+
+        assertThat(details).isNull();
+    }
+
+    @Test
+    public void resolve_rootMappedByVariableMapper() {
+        // <ui:param name="order" value="#{otherOrder}"/>
+        Map<String, String> mapping = new HashMap<>();
+        mapping.put("order", "otherOrder");
+
+        PropertyDetails details = CompiledValueBinding.compile("#{order.customer.address.zip}")
+                .resolve(new TestValueExpression("#{order.customer.address.zip}", mapping), elResolver, elContext);
+
+        assertThat(details).isNull();
+        assertThat(elContext.isPropertyResolved()).isFalse();
+    }
+
+    @Test
+    public void resolve_rootMappedToLiteral() {
+        // <ui:param name="order" value="literal"/>
+        Map<String, String> mapping = new HashMap<>();
+        mapping.put("order", null);
+
+        PropertyDetails details = CompiledValueBinding.compile("#{order.customer.address.zip}")
+                .resolve(new TestValueExpression("#{order.customer.address.zip}", mapping), elResolver, elContext);
+
+        assertThat(details).isNull();
+    }
+
+    private PropertyDetails resolve(String expression) {
+        return CompiledValueBinding.compile(expression).resolve(new TestValueExpression(expression, new HashMap<>()), elResolver, elContext);
+    }
+
+    public static class Order {
+        private Customer customer = new Customer();
+        private Map<String, Address> values = new HashMap<>();
+
+        public Order() {
+            values.put("key", new Address());
+        }
+
+        public Customer getCustomer() {
+            return customer;
+        }
+
+        public Map<String, Address> getValues() {
+            return values;
+        }
+    }
+
+    public static class Customer {
+        private Address address = new Address();
+
+        public Address getAddress() {
+            return address;
+        }
+
+        public void setAddress(Address address) {
+            this.address = address;
+        }
+    }
+
+    public static class Address {
+        private String zip;
+
+        public String getZip() {
+            return zip;
+        }
+    }
+
+    private static class TestELResolver extends ELResolver {
+
+        private Order order;
+
+        TestELResolver(Order order) {
+            this.order = order;
+        }
+
+        @Override
+        public Object getValue(ELContext context, Object base, Object property) {
+            if (base == null && "order".equals(property)) {
+                context.setPropertyResolved(true);
+                return order;
+            }
+            if (base instanceof Map) {
+                context.setPropertyResolved(true);
+                return ((Map<?, ?>) base).get(property);
+            }
+            if (base != null) {
+                String name = property.toString();
+                try {
+                    Method getter = base.getClass().getMethod("get" + Character.toUpperCase(name.charAt(0)) + name.substring(1));
+                    context.setPropertyResolved(true);
+                    return getter.invoke(base);
+                } catch (ReflectiveOperationException e) {
+                    return null;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public Class<?> getType(ELContext context, Object base, Object property) {
+            return null;
+        }
+
+        @Override
+        public void setValue(ELContext context, Object base, Object property, Object value) {
+        }
+
+        @Override
+        public boolean isReadOnly(ELContext context, Object base, Object property) {
+            return false;
+        }
+
+        @Override
+        public Iterator<FeatureDescriptor> getFeatureDescriptors(ELContext context, Object base) {
+            return null;
+        }
+
+        @Override
+        public Class<?> getCommonPropertyType(ELContext context, Object base) {
+            return null;
+        }
+    }
+
+    /**
+     * Evaluates the root like an EL implementation, with the variables of the mapping replaced by another identifier
+     * (or a literal when mapped to null) like a VariableMapper of the expression.
+     */
+    private static class TestValueExpression extends ValueExpression {
+
+        private final String expression;
+        private final Map<String, String> mapping;
+
+        TestValueExpression(String expression, Map<String, String> mapping) {
+            this.expression = expression;
+            this.mapping = mapping;
+        }
+
+        @Override
+        public Object getValue(ELContext context) {
+            String root = expression.substring(2, expression.indexOf('.'));
+            if (mapping.containsKey(root)) {
+                root = mapping.get(root);
+                if (root == null) {
+                    return "literal";
+                }
+            }
+            context.setPropertyResolved(false);
+            Object result = context.getELResolver().getValue(context, null, root);
+            if (!context.isPropertyResolved()) {
+                throw new PropertyNotFoundException(root);
+            }
+            return result;  // Remainder of the evaluation not needed for the tests
+        }
+
+        @Override
+        public void setValue(ELContext context, Object value) {
+        }
+
+        @Override
+        public boolean isReadOnly(ELContext context) {
+            return false;
+        }
+
+        @Override
+        public Class<?> getType(ELContext context) {
+            return null;
+        }
+
+        @Override
+        public Class<?> getExpectedType() {
+            return Object.class;
+        }
+
+        @Override
+        public String getExpressionString() {
+            return expression;
+        }
+
+        @Override
+        public boolean isLiteralText() {
+            return false;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof TestValueExpression && expression.equals(((TestValueExpression) o).expression);
+        }
+
+        @Override
+        public int hashCode() {
+            return expression.hashCode();
+        }
+    }
+
+    private static class TestELContext extends ELContext {
+        @Override
+        public ELResolver getELResolver() {
+            return null;
+        }
+
+        @Override
+        public FunctionMapper getFunctionMapper() {
+            return null;
+        }
+
+        @Override
+        public VariableMapper getVariableMapper() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2014-2020 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.ee.jsf.valerie.el;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PropertyGettersTest {
+
+    @Test
+    public void hasGetter() {
+        assertThat(PropertyGetters.hasGetter(Bean.class, "name")).isTrue();
+        assertThat(PropertyGetters.hasGetter(Bean.class, "Name")).isTrue();
+        assertThat(PropertyGetters.hasGetter(Bean.class, "active")).isTrue();
+        assertThat(PropertyGetters.hasGetter(Bean.class, "valid")).isTrue();
+    }
+
+    @Test
+    public void hasGetter_noGetter() {
+        assertThat(PropertyGetters.hasGetter(Bean.class, "value")).isFalse();
+        assertThat(PropertyGetters.hasGetter(Bean.class, "lower")).isFalse();
+        assertThat(PropertyGetters.hasGetter(Bean.class, "unknown")).isFalse();
+        assertThat(PropertyGetters.hasGetter(Bean.class, "hidden")).isFalse();
+    }
+
+    public static class Bean {
+
+        public String getName() {
+            return null;
+        }
+
+        public boolean isActive() {
+            return true;
+        }
+
+        // Both getter and is method
+        public Boolean getValid() {
+            return null;
+        }
+
+        public boolean isValid() {
+            return true;
+        }
+
+        public String getValue(int index) {
+            return null;
+        }
+
+        public String getlower() {
+            return null;
+        }
+
+        private String getHidden() {
+            return null;
+        }
+    }
+}
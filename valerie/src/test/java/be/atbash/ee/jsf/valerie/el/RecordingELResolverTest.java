@@ -0,0 +1,206 @@
+/*
+ * Copyright 2014-2020 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.ee.jsf.valerie.el;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.el.*;
+import java.beans.FeatureDescriptor;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RecordingELResolverTest {
+
+    private RecordingELResolver resolver;
+    private ELContext elContext;
+
+    private Bean bean;
+
+    @Before
+    public void setup() {
+        bean = new Bean();
+        resolver = new RecordingELResolver(new TestELResolver(bean), false);
+        elContext = resolver.wrapContext(new TestELContext());
+    }
+
+    @Test
+    public void recordPath() {
+        // #{bean.sub.name}
+        Object base = resolver.getValue(elContext, null, "bean");
+        base = resolver.getValue(elContext, base, "sub");
+        resolver.setValue(elContext, base, "name", null);
+
+        assertThat(resolver.getPath()).isEqualTo("bean.sub.name");
+        assertThat(resolver.getProperty()).isEqualTo("name");
+        assertThat(resolver.getBaseObject()).isSameAs(bean.getSub());
+        assertThat(elContext.isPropertyResolved()).isTrue();
+    }
+
+    @Test
+    public void recordPath_booleanGetter() {
+        // #{bean.active.name} where active has an is-getter
+        Object base = resolver.getValue(elContext, null, "bean");
+        base = resolver.getValue(elContext, base, "active");
+        resolver.setValue(elContext, base, "name", null);
+
+        assertThat(resolver.getPath()).isEqualTo("bean.active.name");
+    }
+
+    @Test
+    public void recordPath_noProperty() {
+        // #{bean.unknown.name}, unknown isn't a getter so not part of the path
+        Object base = resolver.getValue(elContext, null, "bean");
+        base = resolver.getValue(elContext, base, "unknown");
+        resolver.setValue(elContext, base, "name", null);
+
+        assertThat(resolver.getPath()).isEqualTo("bean.name");
+    }
+
+    @Test
+    public void recordPath_map() {
+        // #{bean.values.key.name}
+        Object base = resolver.getValue(elContext, null, "bean");
+        base = resolver.getValue(elContext, base, "values");
+        base = resolver.getValue(elContext, base, "key");
+        resolver.setValue(elContext, base, "name", null);
+
+        assertThat(resolver.getPath()).isEqualTo("bean.values.key.name");
+    }
+
+    @Test
+    public void reset() {
+        Object base = resolver.getValue(elContext, null, "bean");
+        resolver.setValue(elContext, base, "sub", null);
+        resolver.reset();
+
+        assertThat(resolver.getPath()).isNull();
+        assertThat(resolver.getBaseObject()).isNull();
+
+        elContext = resolver.wrapContext(new TestELContext());
+        base = resolver.getValue(elContext, null, "bean");
+        resolver.setValue(elContext, base, "active", null);
+
+        assertThat(resolver.getPath()).isEqualTo("bean.active");
+        assertThat(resolver.getProperty()).isEqualTo("active");
+    }
+
+    public static class Bean {
+        private Sub sub = new Sub();
+        private Map<String, Sub> values = new HashMap<>();
+
+        public Bean() {
+            values.put("key", new Sub());
+        }
+
+        public Sub getSub() {
+            return sub;
+        }
+
+        public Sub isActive() {
+            return sub;
+        }
+
+        public Map<String, Sub> getValues() {
+            return values;
+        }
+
+        public Sub unknown() {
+            return sub;
+        }
+    }
+
+    public static class Sub {
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    private static class TestELResolver extends ELResolver {
+
+        private Bean bean;
+
+        TestELResolver(Bean bean) {
+            this.bean = bean;
+        }
+
+        @Override
+        public Object getValue(ELContext context, Object base, Object property) {
+            if (base == null) {
+                return bean;
+            }
+            if (base instanceof Map) {
+                return ((Map<?, ?>) base).get(property);
+            }
+            switch (property.toString()) {
+                case "sub":
+                    return bean.getSub();
+                case "active":
+                    return bean.isActive();
+                case "values":
+                    return bean.getValues();
+                default:
+                    return bean.unknown();
+            }
+        }
+
+        @Override
+        public Class<?> getType(ELContext context, Object base, Object property) {
+            return null;
+        }
+
+        @Override
+        public void setValue(ELContext context, Object base, Object property, Object value) {
+        }
+
+        @Override
+        public boolean isReadOnly(ELContext context, Object base, Object property) {
+            return false;
+        }
+
+        @Override
+        public Iterator<FeatureDescriptor> getFeatureDescriptors(ELContext context, Object base) {
+            return null;
+        }
+
+        @Override
+        public Class<?> getCommonPropertyType(ELContext context, Object base) {
+            return null;
+        }
+    }
+
+    private static class TestELContext extends ELContext {
+        @Override
+        public ELResolver getELResolver() {
+            return null;
+        }
+
+        @Override
+        public FunctionMapper getFunctionMapper() {
+            return null;
+        }
+
+        @Override
+        public VariableMapper getVariableMapper() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2014-2020 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.ee.jsf.valerie.el;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ValueBindingExpressionTest {
+
+    @Test
+    public void nested() {
+        ValueBindingExpression expression = new ValueBindingExpression("#{order.customer.address.zip}");
+
+        assertThat(expression.getProperty()).isEqualTo("zip");
+        assertThat(expression.getPrefix()).isEqualTo("#");
+        assertThat(expression.getExpressionString()).isEqualTo("#{order.customer.address.zip}");
+
+        ValueBindingExpression base = expression.getBaseExpression();
+        assertThat(base.getProperty()).isEqualTo("address");
+        assertThat(base.getExpressionString()).isEqualTo("#{order.customer.address}");
+
+        ValueBindingExpression root = base.getBaseExpression().getBaseExpression();
+        assertThat(root.getProperty()).isEqualTo("order");
+        assertThat(root.getBaseExpression()).isNull();
+    }
+
+    @Test
+    public void mapKey() {
+        ValueBindingExpression expression = new ValueBindingExpression("#{bean.values['key'].name}");
+
+        assertThat(expression.getProperty()).isEqualTo("name");
+        assertThat(expression.getBaseExpression().getProperty()).isEqualTo("key");
+        assertThat(expression.getBaseExpression().getExpressionString()).isEqualTo("#{bean.values['key']}");
+        assertThat(expression.getBaseExpression().getBaseExpression().getProperty()).isEqualTo("values");
+        assertThat(expression.getExpressionString()).isEqualTo("#{bean.values['key'].name}");
+    }
+
+    @Test
+    public void dynamicBracket() {
+        ValueBindingExpression expression = new ValueBindingExpression("#{bean[provider.names['first']]}");
+
+        assertThat(expression.getProperty()).isEqualTo("provider.names['first']");
+        assertThat(expression.getBaseExpression().getProperty()).isEqualTo("bean");
+        assertThat(expression.getExpressionString()).isEqualTo("#{bean[provider.names['first']]}");
+    }
+
+    @Test
+    public void singleValue() {
+        ValueBindingExpression expression = new ValueBindingExpression("${bean}");
+
+        assertThat(expression.getProperty()).isEqualTo("bean");
+        assertThat(expression.getPrefix()).isEqualTo("$");
+        assertThat(expression.getBaseExpression()).isNull();
+    }
+
+    @Test
+    public void notAPropertyChain() {
+        ValueBindingExpression expression = new ValueBindingExpression("#{bean['a'] + 1}");
+
+        assertThat(expression.getProperty()).isEqualTo("bean['a'] + 1");
+        assertThat(expression.getBaseExpression()).isNull();
+        assertThat(expression.getExpressionString()).isEqualTo("#{bean['a'] + 1}");
+    }
+
+    @Test
+    public void addProperty() {
+        ValueBindingExpression expression = ValueBindingExpression.addProperty(new ValueBindingExpression("#{bean}"), "name");
+
+        assertThat(expression.getExpressionString()).isEqualTo("#{bean.name}");
+        assertThat(ValueBindingExpression.addProperty(expression, "['key']").getExpressionString()).isEqualTo("#{bean.name['key']}");
+    }
+
+    @Test
+    public void replaceOrAddProperty() {
+        assertThat(ValueBindingExpression.replaceOrAddProperty(new ValueBindingExpression("#{bean.first}"), "second")
+                .getExpressionString()).isEqualTo("#{bean.second}");
+        assertThat(ValueBindingExpression.replaceOrAddProperty(new ValueBindingExpression("#{bean}"), "second")
+                .getExpressionString()).isEqualTo("#{bean.second}");
+    }
+
+    @Test
+    public void setPrefix() {
+        ValueBindingExpression expression = new ValueBindingExpression("#{bean.name}");
+        ValueBindingExpression base = expression.getBaseExpression();
+        assertThat(expression.getExpressionString()).isEqualTo("#{bean.name}");
+
+        expression.setPrefix("$");
+
+        assertThat(expression.getExpressionString()).isEqualTo("${bean.name}");
+        assertThat(base.getExpressionString()).isEqualTo("${bean}");
+    }
+
+    @Test
+    public void of_shared() {
+        ValueBindingExpression expression = ValueBindingExpression.of("#{bean.shared}");
+
+        assertThat(ValueBindingExpression.of("#{bean.shared}")).isSameAs(expression);
+        assertThat(expression).isEqualTo(new ValueBindingExpression("#{bean.shared}"));
+        assertThat(expression.hashCode()).isEqualTo(new ValueBindingExpression("#{bean.shared}").hashCode());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void of_prefixNotChangeable() {
+        ValueBindingExpression.of("#{bean.fixed}").setPrefix("$");
+    }
+
+    @Test
+    public void addProperty_prefixChangeable() {
+        ValueBindingExpression shared = ValueBindingExpression.of("#{bean.added}");
+        ValueBindingExpression expression = ValueBindingExpression.addProperty(new ValueBindingExpression("#{bean}"), "added");
+
+        expression.setPrefix("$");
+
+        assertThat(expression.getExpressionString()).isEqualTo("${bean.added}");
+        assertThat(expression.getBaseExpression().getExpressionString()).isEqualTo("${bean}");
+        assertThat(shared.getExpressionString()).isEqualTo("#{bean.added}");
+        assertThat(ValueBindingExpression.of("#{bean.added}").getBaseExpression().getExpressionString()).isEqualTo("#{bean}");
+    }
+
+    @Test
+    public void replaceProperty_prefixChangeable() {
+        ValueBindingExpression expression = ValueBindingExpression.replaceOrAddProperty(new ValueBindingExpression("#{bean.first}"), "second");
+
+        expression.setPrefix("$");
+
+        assertThat(expression.getExpressionString()).isEqualTo("${bean.second}");
+        assertThat(ValueBindingExpression.of("#{bean.second}").getExpressionString()).isEqualTo("#{bean.second}");
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2014-2020 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.ee.jsf.valerie.metadata;
+
+import be.atbash.util.TestReflectionUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.validation.constraints.NotNull;
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.reflect.AnnotatedElement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MetaDataIndexTest {
+
+    private MetaDataIndex metaDataIndex;
+
+    @Before
+    public void setup() throws IOException, NoSuchFieldException, IllegalAccessException {
+        String content = "# test\n" +
+                "build 0123456789abcdef\n" +
+                "class " + Model.class.getName() + "\n" +
+                "property name\n" +
+                "method " + Named.class.getName() + " getName\n" +
+                "field " + BaseModel.class.getName() + " name\n" +
+                "property other\n" +
+                "property wrong\n" +
+                "field " + BaseModel.class.getName() + " unknown\n";
+
+        Map<String, MetaDataIndex.IndexedClass> index = new HashMap<>();
+        assertThat(MetaDataIndex.readIndex(new StringReader(content), index)).isEqualTo("0123456789abcdef");
+
+        metaDataIndex = new MetaDataIndex();
+        TestReflectionUtils.setFieldValue(metaDataIndex, "index", index);
+        TestReflectionUtils.setFieldValue(metaDataIndex, "logger", org.slf4j.LoggerFactory.getLogger(MetaDataIndex.class));
+    }
+
+    @Test
+    public void getAnnotatedMembers() throws NoSuchMethodException, NoSuchFieldException {
+        List<AnnotatedElement> members = metaDataIndex.getAnnotatedMembers(Model.class, "name");
+
+        assertThat(members).containsExactly(Named.class.getDeclaredMethod("getName"), BaseModel.class.getDeclaredField("name"));
+    }
+
+    @Test
+    public void getAnnotatedMembers_noAnnotations() {
+        List<AnnotatedElement> members = metaDataIndex.getAnnotatedMembers(Model.class, "other");
+
+        assertThat(members).isEmpty();
+    }
+
+    @Test
+    public void getAnnotatedMembers_unknownProperty() {
+        assertThat(metaDataIndex.getAnnotatedMembers(Model.class, "unknown")).isNull();
+    }
+
+    @Test
+    public void getAnnotatedMembers_unknownClass() {
+        assertThat(metaDataIndex.getAnnotatedMembers(BaseModel.class, "name")).isNull();
+    }
+
+    @Test
+    public void getAnnotatedMembers_outdatedIndex() {
+        assertThat(metaDataIndex.getAnnotatedMembers(Model.class, "wrong")).isNull();
+    }
+
+    @Test
+    public void readIndex_noBuild() throws IOException {
+        // Index of an older version of the processor.
+        String content = "class " + NamedModel.class.getName() + "\n" +
+                "property name\n";
+        Map<String, MetaDataIndex.IndexedClass> index = new HashMap<>();
+
+        assertThat(MetaDataIndex.readIndex(new StringReader(content), index)).isNull();
+        assertThat(index).isEmpty();
+    }
+
+    @Test(expected = IOException.class)
+    public void readIndex_invalid() throws IOException {
+        MetaDataIndex.readIndex(new StringReader("property name\n"), new HashMap<>());
+    }
+
+    public interface Named {
+        @NotNull
+        String getName();
+    }
+
+    public static class BaseModel {
+        @NotNull
+        private String name;
+    }
+
+    public static class Model extends BaseModel implements Named {
+        private String other;
+
+        @Override
+        public String getName() {
+            return null;
+        }
+    }
+
+    public static class NamedModel extends BaseModel implements Named {
+        @Override
+        public String getName() {
+            return null;
+        }
+    }
+}
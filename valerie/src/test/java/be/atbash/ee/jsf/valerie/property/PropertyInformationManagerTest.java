@@ -0,0 +1,88 @@
+/*
+ * Copyright 2014-2020 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.ee.jsf.valerie.property;
+
+import be.atbash.ee.jsf.jerry.storage.ComponentStorage;
+import be.atbash.ee.jsf.valerie.metadata.extractor.MetaDataExtractor;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import javax.faces.component.UIComponent;
+import javax.faces.component.UIViewRoot;
+import javax.faces.context.FacesContext;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PropertyInformationManagerTest {
+
+    private static final String VIEW_ID = "/page.xhtml";
+    private static final String CLIENT_ID = "form:field";
+
+    @Mock
+    private MetaDataExtractor extractorMock;
+
+    @Mock
+    private ComponentStorage componentStorageMock;
+
+    @Mock
+    private FacesContext facesContextMock;
+
+    @Mock
+    private UIViewRoot viewRootMock;
+
+    @Mock
+    private UIComponent uiComponentMock;
+
+    @Mock
+    private PropertyInformation propertyInformationMock;
+
+    @InjectMocks
+    private PropertyInformationManager manager;
+
+    @Test
+    public void getRecordingInformation_evictedSinceRendering() {
+        when(facesContextMock.getViewRoot()).thenReturn(viewRootMock);
+        when(viewRootMock.getViewId()).thenReturn(VIEW_ID);
+        when(uiComponentMock.getClientId(facesContextMock)).thenReturn(CLIENT_ID);
+        when(extractorMock.extract(facesContextMock, uiComponentMock)).thenReturn(propertyInformationMock);
+
+        // The entry is no longer in the storage, so the supplier is called.
+        when(componentStorageMock.computeEntryIfAbsent(eq(VIEW_ID), eq(CLIENT_ID), eq(PropertyInformation.class), any(Supplier.class)))
+                .thenAnswer(invocation -> ((Supplier<?>) invocation.getArguments()[3]).get());
+        List recordingInformation = Collections.singletonList("recorded");
+        when(componentStorageMock.getRecordingInformation(VIEW_ID, CLIENT_ID)).thenReturn(recordingInformation);
+
+        List<?> result = manager.getRecordingInformation(facesContextMock, uiComponentMock);
+
+        assertThat(result).containsExactly("recorded");
+        verify(extractorMock).extract(facesContextMock, uiComponentMock);
+
+        InOrder inOrder = inOrder(componentStorageMock);
+        inOrder.verify(componentStorageMock).computeEntryIfAbsent(eq(VIEW_ID), eq(CLIENT_ID), eq(PropertyInformation.class), any(Supplier.class));
+        inOrder.verify(componentStorageMock).getRecordingInformation(VIEW_ID, CLIENT_ID);
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2014-2020 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.ee.jsf.valerie.provider;
+
+import be.atbash.util.BeanManagerFake;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import javax.faces.context.FacesContext;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class DateProducerTest {
+
+    @Mock
+    private FacesContext facesContextMock;
+
+    private BeanManagerFake beanManagerFake;
+
+    private CountingDateProvider dateProvider;
+
+    @Before
+    public void setup() {
+        dateProvider = new CountingDateProvider();
+    }
+
+    @After
+    public void teardown() {
+        beanManagerFake.deregistration();
+        FacesContextSetter.setCurrent(null);
+        DateProducer.reset();
+    }
+
+    @Test
+    public void instant_sameWithinRequest() {
+        registerDateProvider(dateProvider);
+        when(facesContextMock.getAttributes()).thenReturn(new HashMap<>());
+        FacesContextSetter.setCurrent(facesContextMock);
+
+        Instant first = DateProducer.instant();
+        Instant second = DateProducer.instant();
+
+        assertThat(second).isEqualTo(first);
+        assertThat(DateProducer.now()).isEqualTo(Date.from(first));
+        assertThat(dateProvider.calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void instant_noFacesContext() {
+        registerDateProvider(dateProvider);
+
+        Instant first = DateProducer.instant();
+        Instant second = DateProducer.instant();
+
+        // Outside a request, the clock is asked each time.
+        assertThat(second).isNotEqualTo(first);
+        assertThat(dateProvider.calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void instant_providerReturnsNull() {
+        registerDateProvider(() -> null);
+
+        Instant before = Instant.now();
+        Instant result = DateProducer.instant();
+
+        // Falls back to the system time.
+        assertThat(result).isNotNull();
+        assertThat(result.isBefore(before)).isFalse();
+        assertThat(result.isAfter(Instant.now())).isFalse();
+    }
+
+    @Test
+    public void clock_noProvider() {
+        registerDateProvider(null);
+
+        Instant before = Instant.now();
+        Instant result = DateProducer.clock().instant();
+
+        assertThat(result.isBefore(before)).isFalse();
+    }
+
+    @Test
+    public void clock_providerAvailableLater() {
+        registerDateProvider(null);
+        DateProducer.clock();
+
+        // The system clock isn't kept, the provider is looked up again.
+        beanManagerFake.deregistration();
+        registerDateProvider(dateProvider);
+        Instant result = DateProducer.clock().instant();
+
+        assertThat(result).isEqualTo(Instant.ofEpochMilli(1000L));
+        assertThat(dateProvider.calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void reset() {
+        registerDateProvider(dateProvider);
+        DateProducer.instant();
+
+        beanManagerFake.deregistration();
+        DateProducer.reset();
+        CountingDateProvider otherProvider = new CountingDateProvider();
+        registerDateProvider(otherProvider);
+        DateProducer.instant();
+
+        assertThat(dateProvider.calls.get()).isEqualTo(1);
+        assertThat(otherProvider.calls.get()).isEqualTo(1);
+    }
+
+    private void registerDateProvider(DateProvider provider) {
+        beanManagerFake = new BeanManagerFake();
+        if (provider != null) {
+            beanManagerFake.registerBean(provider, DateProvider.class);
+        }
+        beanManagerFake.endRegistration();
+    }
+
+    private static class CountingDateProvider implements DateProvider {
+
+        private final AtomicLong calls = new AtomicLong();
+
+        @Override
+        public Date now() {
+            // A different point in time for each call.
+            return new Date(1000L * calls.incrementAndGet());
+        }
+    }
+
+    // Gives access to the protected FacesContext.setCurrentInstance().
+    private abstract static class FacesContextSetter extends FacesContext {
+
+        static void setCurrent(FacesContext facesContext) {
+            setCurrentInstance(facesContext);
+        }
+    }
+}
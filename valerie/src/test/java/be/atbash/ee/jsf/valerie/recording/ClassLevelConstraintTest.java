@@ -0,0 +1,155 @@
+/*
+ * Copyright 2014-2020 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.ee.jsf.valerie.recording;
+
+import org.junit.Test;
+
+import javax.validation.*;
+import javax.validation.metadata.ConstraintDescriptor;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ClassLevelConstraintTest {
+
+    private static final ConstraintValidatorFactory FACTORY = new ConstraintValidatorFactory() {
+        @Override
+        public <T extends ConstraintValidator<?, ?>> T getInstance(Class<T> key) {
+            try {
+                return key.newInstance();
+            } catch (InstantiationException | IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    };
+
+    @Test
+    public void isValid() {
+        ClassLevelConstraint constraint = new ClassLevelConstraint(new TestDescriptor(), RangeValidator.class, FACTORY);
+
+        assertThat(constraint.isValid(new Range(1, 5))).isTrue();
+        assertThat(constraint.isValid(new Range(5, 1))).isFalse();
+    }
+
+    @Test
+    public void isValid_customViolation() {
+        ClassLevelConstraint constraint = new ClassLevelConstraint(new TestDescriptor(), CustomViolationValidator.class, FACTORY);
+
+        assertThat(constraint.isValid(new Range(5, 1))).isFalse();
+        assertThat(CustomViolationValidator.messageTemplate).isEqualTo("{range.message}");
+    }
+
+    @Test
+    public void isValid_otherType() {
+        // Validator of the constraint for another type is not executed.
+        ClassLevelConstraint constraint = new ClassLevelConstraint(new TestDescriptor(), StringValidator.class, FACTORY);
+
+        assertThat(constraint.isValid(new Range(5, 1))).isTrue();
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface ValidRange {
+    }
+
+    @ValidRange
+    public static class Range {
+        private final int min;
+        private final int max;
+
+        Range(int min, int max) {
+            this.min = min;
+            this.max = max;
+        }
+    }
+
+    public static class RangeValidator implements ConstraintValidator<ValidRange, Range> {
+
+        @Override
+        public void initialize(ValidRange validRange) {
+        }
+
+        @Override
+        public boolean isValid(Range range, ConstraintValidatorContext context) {
+            return range.min <= range.max;
+        }
+    }
+
+    public static class CustomViolationValidator implements ConstraintValidator<ValidRange, Range> {
+
+        private static String messageTemplate;
+
+        @Override
+        public void initialize(ValidRange validRange) {
+        }
+
+        @Override
+        public boolean isValid(Range range, ConstraintValidatorContext context) {
+            messageTemplate = context.getDefaultConstraintMessageTemplate();
+            context.disableDefaultConstraintViolation();
+            context.buildConstraintViolationWithTemplate("{range.max}").addNode("max").addConstraintViolation();
+            return range.min <= range.max;
+        }
+    }
+
+    public static class StringValidator implements ConstraintValidator<ValidRange, String> {
+
+        @Override
+        public void initialize(ValidRange validRange) {
+        }
+
+        @Override
+        public boolean isValid(String value, ConstraintValidatorContext context) {
+            return false;
+        }
+    }
+
+    private static class TestDescriptor implements ConstraintDescriptor<ValidRange> {
+
+        @Override
+        public ValidRange getAnnotation() {
+            return Range.class.getAnnotation(ValidRange.class);
+        }
+
+        @Override
+        public Set<Class<?>> getGroups() {
+            return Collections.emptySet();
+        }
+
+        public Set<Class<? extends Payload>> getPayload() {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public List<Class<? extends ConstraintValidator<ValidRange, ?>>> getConstraintValidatorClasses() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return Collections.singletonMap("message", "{range.message}");
+        }
+
+        public Set<ConstraintDescriptor<?>> getComposingConstraints() {
+            return Collections.emptySet();
+        }
+
+        public boolean isReportAsSingleViolation() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2014-2020 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.ee.jsf.valerie.recording;
+
+import be.atbash.ee.jsf.valerie.custom.DateRangeValidator;
+import be.atbash.ee.jsf.valerie.custom.ValSizeValidator;
+import org.junit.Test;
+
+import javax.validation.ConstraintValidator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RecordedValuesTest {
+
+    @Test
+    public void add_groupedByKey() {
+        RecordedValues recordedValues = new RecordedValues();
+        recordedValues.add(info(String.class, DateRangeValidator.class, "first"), 1);
+        recordedValues.add(info(Integer.class, DateRangeValidator.class, "second"), 2);
+        recordedValues.add(info(String.class, DateRangeValidator.class, "third"), 3);
+        recordedValues.add(info(String.class, ValSizeValidator.class, "fourth"), 4);
+
+        List<Map.Entry<RecordValueInfo.Key, List<RecordValueData>>> groups = new ArrayList<>(recordedValues.getGroups());
+        assertThat(groups).hasSize(3);
+
+        assertThat(groups.get(0).getKey().getTargetClass()).isEqualTo(String.class);
+        assertThat(dataOf(groups.get(0))).containsExactly(1, 3);
+        assertThat(groups.get(1).getKey().getTargetClass()).isEqualTo(Integer.class);
+        assertThat(dataOf(groups.get(1))).containsExactly(2);
+        assertThat(groups.get(2).getKey().getValidator()).isEqualTo(ValSizeValidator.class);
+        assertThat(dataOf(groups.get(2))).containsExactly(4);
+    }
+
+    private static List<Object> dataOf(Map.Entry<RecordValueInfo.Key, List<RecordValueData>> group) {
+        List<Object> result = new ArrayList<>();
+        for (RecordValueData recordValueData : group.getValue()) {
+            result.add(recordValueData.getData());
+        }
+        return result;
+    }
+
+    private static RecordValueInfo info(Class<?> targetClass, Class<? extends ConstraintValidator> validator, String property) {
+        return new RecordValueInfo(targetClass, validator, property);
+    }
+}
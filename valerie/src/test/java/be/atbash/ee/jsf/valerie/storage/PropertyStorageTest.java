@@ -0,0 +1,85 @@
+/*
+ * Copyright 2014-2020 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.ee.jsf.valerie.storage;
+
+import be.atbash.ee.jsf.valerie.utils.ReflectionUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SuppressWarnings("deprecation")
+public class PropertyStorageTest {
+
+    private PropertyStorage storage;
+
+    @Before
+    public void setup() throws ReflectiveOperationException {
+        // Avoid the lookup of the configuration in CDI
+        setUseBeanInfo(Boolean.FALSE);
+        storage = new PropertyStorage();
+    }
+
+    @After
+    public void teardown() throws ReflectiveOperationException {
+        setUseBeanInfo(null);
+    }
+
+    @Test
+    public void getField() throws NoSuchFieldException {
+        assertThat(storage.containsField(Model.class, "name")).isTrue();
+        assertThat(storage.getField(Model.class, "name")).isEqualTo(Model.class.getDeclaredField("name"));
+        assertThat(storage.getField(Model.class, "unknown")).isNull();
+    }
+
+    @Test
+    public void getMethod() throws NoSuchMethodException {
+        assertThat(storage.containsMethod(Model.class, "name")).isTrue();
+        assertThat(storage.getMethod(Model.class, "name")).isEqualTo(Model.class.getDeclaredMethod("getName"));
+        assertThat(storage.getMethod(Model.class, "unknown")).isNull();
+    }
+
+    @Test
+    public void storeField_ignored() throws NoSuchFieldException {
+        storage.storeField(Model.class, "name", Other.class.getDeclaredField("value"));
+        storage.storeMethod(Model.class, "unknown", null);
+
+        // The members are always determined from the class
+        assertThat(storage.getField(Model.class, "name")).isEqualTo(Model.class.getDeclaredField("name"));
+        assertThat(storage.getMethod(Model.class, "unknown")).isNull();
+    }
+
+    private static void setUseBeanInfo(Boolean value) throws ReflectiveOperationException {
+        Field field = ReflectionUtils.class.getDeclaredField("USE_BEANINFO");
+        field.setAccessible(true);
+        field.set(null, value);
+    }
+
+    public static class Model {
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    public static class Other {
+        private String value;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2014-2020 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.ee.jsf.valerie.utils;
+
+import be.atbash.ee.jsf.valerie.custom.DateRangeValidator;
+import be.atbash.ee.jsf.valerie.custom.model.DateRangeModel1;
+import be.atbash.ee.jsf.valerie.recording.RecordValueInfo;
+import org.junit.Test;
+
+import javax.validation.Constraint;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Retention;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AnnotationUtilsTest {
+
+    @Test
+    public void getCombinedConstraints() {
+        List<Annotation> constraints = AnnotationUtils.getCombinedConstraints(Combined.class);
+
+        assertThat(typesOf(constraints)).containsExactly(NotNull.class, Constraint.class, Size.class, Constraint.class, Constraint.class);
+        assertThat(AnnotationUtils.getCombinedConstraints(Combined.class)).isSameAs(constraints);
+    }
+
+    @Test
+    public void getCombinedConstraints_nested() {
+        List<Annotation> constraints = AnnotationUtils.getCombinedConstraints(Nested.class);
+
+        assertThat(typesOf(constraints)).containsExactly(Combined.class, NotNull.class, Constraint.class, Size.class, Constraint.class, Constraint.class);
+    }
+
+    @Test
+    public void getCombinedConstraints_cycle() {
+        List<Annotation> constraints = AnnotationUtils.getCombinedConstraints(CycleA.class);
+
+        assertThat(typesOf(constraints)).containsExactly(CycleB.class, CycleA.class);
+    }
+
+    @Test
+    public void getClassLevelBeanValidationInfo() {
+        List<RecordValueInfo> info = AnnotationUtils.getClassLevelBeanValidationInfo(DateRangeModelChild.class);
+
+        assertThat(info).hasSize(1);
+        assertThat(info.get(0).getTargetClass()).isEqualTo(DateRangeModel1.class);
+        assertThat(info.get(0).getValidator()).isEqualTo(DateRangeValidator.class);
+        assertThat(info.get(0).getClassProperty()).isNull();
+
+        assertThat(AnnotationUtils.getClassLevelBeanValidationInfo(DateRangeModelChild.class)).isSameAs(info);
+        assertThat(AnnotationUtils.getClassLevelBeanValidationInfo(Object.class)).isEmpty();
+    }
+
+    private static List<Class<?>> typesOf(List<Annotation> annotations) {
+        List<Class<?>> result = new ArrayList<>();
+        for (Annotation annotation : annotations) {
+            result.add(annotation.annotationType());
+        }
+        return result;
+    }
+
+    public static class DateRangeModelChild extends DateRangeModel1 {
+    }
+
+    @NotNull
+    @Size(max = 10)
+    @Constraint(validatedBy = {})
+    @Retention(RUNTIME)
+    public @interface Combined {
+    }
+
+    @Combined
+    @Retention(RUNTIME)
+    public @interface Nested {
+    }
+
+    @CycleB
+    @Retention(RUNTIME)
+    public @interface CycleA {
+    }
+
+    @CycleA
+    @Retention(RUNTIME)
+    public @interface CycleB {
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2014-2020 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.ee.jsf.valerie.utils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.validation.constraints.NotNull;
+import java.beans.PropertyDescriptor;
+import java.beans.SimpleBeanInfo;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BeanPropertyModelTest {
+
+    @Before
+    public void setup() throws ReflectiveOperationException {
+        // Avoid the lookup of the configuration in CDI
+        setUseBeanInfo(Boolean.FALSE);
+    }
+
+    @After
+    public void teardown() throws ReflectiveOperationException {
+        setUseBeanInfo(null);
+        BeanPropertyModel.invalidateAll();
+    }
+
+    @Test
+    public void getReadMethod() throws NoSuchMethodException {
+        BeanPropertyModel model = new BeanPropertyModel(Model.class, false);
+
+        assertThat(model.getReadMethod("name")).isEqualTo(Model.class.getDeclaredMethod("getName"));
+        assertThat(model.getReadMethod("active")).isEqualTo(Model.class.getDeclaredMethod("isActive"));
+        assertThat(model.getReadMethod("unknown")).isNull();
+    }
+
+    @Test
+    public void getReadMethod_covariantReturnType() throws NoSuchMethodException {
+        BeanPropertyModel model = new BeanPropertyModel(SpecificModel.class, false);
+
+        assertThat(model.getReadMethod("value")).isEqualTo(SpecificModel.class.getDeclaredMethod("getValue"));
+        assertThat(model.getReadMethod("value").getReturnType()).isEqualTo(String.class);
+    }
+
+    @Test
+    public void getReadMethod_beanInfo() throws NoSuchMethodException {
+        BeanPropertyModel model = new BeanPropertyModel(Model.class, true);
+
+        // The BeanInfo of Model defines a property with another read method.
+        assertThat(model.getReadMethod("label")).isEqualTo(Model.class.getDeclaredMethod("retrieveLabel"));
+        assertThat(model.getReadMethod("name")).isEqualTo(Model.class.getDeclaredMethod("getName"));
+    }
+
+    @Test
+    public void getField() throws NoSuchFieldException {
+        BeanPropertyModel model = new BeanPropertyModel(Model.class, false);
+
+        assertThat(model.getField("name")).isEqualTo(Model.class.getDeclaredField("name"));
+        assertThat(model.getField("active")).isEqualTo(Model.class.getDeclaredField("_active"));
+        assertThat(model.getField("Name")).isEqualTo(Model.class.getDeclaredField("name"));
+        assertThat(model.getField("unknown")).isNull();
+    }
+
+    @Test
+    public void getReadMethod_beanInfoInherited() throws NoSuchMethodException {
+        BeanPropertyModel model = new BeanPropertyModel(SpecificModel.class, true);
+
+        // The Introspector also returns the getters of the super classes.
+        assertThat(model.getReadMethod("base")).isEqualTo(BaseModel.class.getDeclaredMethod("getBase"));
+        assertThat(new BeanPropertyModel(SpecificModel.class, false).getReadMethod("base")).isNull();
+    }
+
+    @Test
+    public void getAnnotations_scannedOnce() {
+        BeanPropertyModel model = new BeanPropertyModel(Model.class, false);
+        AtomicInteger scanCount = new AtomicInteger();
+        Function<String, List<Annotation>> scanner = countingScanner(scanCount);
+
+        List<Annotation> first = model.getAnnotations("name", scanner);
+        List<Annotation> second = model.getAnnotations("name", scanner);
+
+        assertThat(first).hasSize(1);
+        assertThat(second).isSameAs(first);
+        assertThat(scanCount.get()).isEqualTo(1);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void getAnnotations_unmodifiable() {
+        BeanPropertyModel model = new BeanPropertyModel(Model.class, false);
+
+        model.getAnnotations("name", countingScanner(new AtomicInteger())).clear();
+    }
+
+    @Test
+    public void getAnnotations_perProperty() {
+        BeanPropertyModel model = new BeanPropertyModel(Model.class, false);
+        AtomicInteger scanCount = new AtomicInteger();
+        Function<String, List<Annotation>> scanner = countingScanner(scanCount);
+
+        model.getAnnotations("name", scanner);
+        List<Annotation> annotations = model.getAnnotations("active", scanner);
+
+        assertThat(annotations).isEmpty();
+        assertThat(scanCount.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void of_sameModel() {
+        assertThat(BeanPropertyModel.of(Model.class)).isSameAs(BeanPropertyModel.of(Model.class));
+    }
+
+    @Test
+    public void invalidateAll() {
+        BeanPropertyModel model = BeanPropertyModel.of(Model.class);
+        BeanPropertyModel other = BeanPropertyModel.of(SpecificModel.class);
+
+        BeanPropertyModel.invalidateAll();
+
+        assertThat(BeanPropertyModel.of(Model.class)).isNotSameAs(model);
+        assertThat(BeanPropertyModel.of(SpecificModel.class)).isNotSameAs(other);
+    }
+
+    private static void setUseBeanInfo(Boolean value) throws ReflectiveOperationException {
+        Field field = ReflectionUtils.class.getDeclaredField("USE_BEANINFO");
+        field.setAccessible(true);
+        field.set(null, value);
+    }
+
+    private static Function<String, List<Annotation>> countingScanner(AtomicInteger scanCount) {
+        return property -> {
+            scanCount.incrementAndGet();
+            NotNull notNull = BeanPropertyModel.of(Model.class).getField(property).getAnnotation(NotNull.class);
+            return notNull == null ? Collections.<Annotation>emptyList() : Collections.<Annotation>singletonList(notNull);
+        };
+    }
+
+    public static class Model {
+        @NotNull
+        private String name;
+        private boolean _active;
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isActive() {
+            return _active;
+        }
+
+        public String retrieveLabel() {
+            return name;
+        }
+    }
+
+    public static class ModelBeanInfo extends SimpleBeanInfo {
+        @Override
+        public PropertyDescriptor[] getPropertyDescriptors() {
+            try {
+                return new PropertyDescriptor[]{new PropertyDescriptor("label", Model.class, "retrieveLabel", null)};
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    public static class BaseModel {
+        public Object getValue() {
+            return null;
+        }
+
+        public String getBase() {
+            return null;
+        }
+    }
+
+    public static class SpecificModel extends BaseModel {
+        @Override
+        public String getValue() {
+            return "value";
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2014-2020 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.ee.jsf.valerie.utils;
+
+import org.junit.Test;
+
+import java.util.Date;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MethodHandleUtilsTest {
+
+    @Test
+    public void getGetter() {
+        Bean bean = new Bean();
+        bean.setDate(new Date());
+
+        Function<Object, Date> getter = MethodHandleUtils.getGetter(Bean.class, "date", Date.class);
+
+        assertThat(getter.apply(bean)).isSameAs(bean.getDate());
+        assertThat(MethodHandleUtils.getGetter(Bean.class, "date", Date.class)).isSameAs(getter);
+    }
+
+    @Test
+    public void getGetter_primitive() {
+        Bean bean = new Bean();
+        bean.setCount(5);
+
+        Function<Object, Integer> getter = MethodHandleUtils.getGetter(Bean.class, "count", int.class);
+
+        assertThat(getter.apply(bean)).isEqualTo(5);
+    }
+
+    @Test
+    public void getGetter_notPublicClass() {
+        HiddenBean bean = new HiddenBean();
+        bean.setName("Atbash");
+
+        Function<Object, String> getter = MethodHandleUtils.getGetter(HiddenBean.class, "name", String.class);
+
+        assertThat(getter.apply(bean)).isEqualTo("Atbash");
+    }
+
+    @Test
+    public void getGetter_unknown() {
+        assertThat(MethodHandleUtils.getGetter(Bean.class, "unknown", Date.class)).isNull();
+        assertThat(MethodHandleUtils.getGetterHandle(Bean.class, "unknown")).isNull();
+    }
+
+    @Test
+    public void getSetter() {
+        Bean bean = new Bean();
+        Date date = new Date();
+
+        BiConsumer<Object, Object> setter = MethodHandleUtils.getSetter(Bean.class, "date", Date.class);
+        setter.accept(bean, date);
+
+        assertThat(bean.getDate()).isSameAs(date);
+    }
+
+    @Test
+    public void getSetter_notPublicClass() {
+        HiddenBean bean = new HiddenBean();
+
+        MethodHandleUtils.getSetter(HiddenBean.class, "name", String.class).accept(bean, "Atbash");
+
+        assertThat(bean.getName()).isEqualTo("Atbash");
+    }
+
+    @Test
+    public void getSetter_wrongType() {
+        assertThat(MethodHandleUtils.getSetter(Bean.class, "date", String.class)).isNull();
+        assertThat(MethodHandleUtils.getSetterHandle(Bean.class, "date", String.class)).isNull();
+    }
+
+    public static class Bean {
+        private Date date;
+        private int count;
+
+        public Date getDate() {
+            return date;
+        }
+
+        public void setDate(Date date) {
+            this.date = date;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+    }
+
+    static class HiddenBean {
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+}
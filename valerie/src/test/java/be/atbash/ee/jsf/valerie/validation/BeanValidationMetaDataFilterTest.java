@@ -0,0 +1,84 @@
+/*
+ * Copyright 2014-2020 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.ee.jsf.valerie.validation;
+
+import be.atbash.ee.jsf.jerry.metadata.MetaDataEntry;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.validation.constraints.NotNull;
+import java.lang.annotation.Documented;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BeanValidationMetaDataFilterTest {
+
+    private BeanValidationMetaDataFilter filter;
+
+    @Before
+    public void setup() {
+        filter = new BeanValidationMetaDataFilter();
+    }
+
+    @Test
+    public void isBeanValidationConstraint_type() {
+        MetaDataEntry entry = new MetaDataEntry();
+        entry.setKey("not a class name");
+        entry.setType(NotNull.class);
+
+        assertThat(filter.isBeanValidationConstraint(entry)).isTrue();
+    }
+
+    @Test
+    public void isBeanValidationConstraint_typeNoConstraint() {
+        MetaDataEntry entry = new MetaDataEntry();
+        entry.setKey(Documented.class.getName());
+        entry.setType(Documented.class);
+
+        assertThat(filter.isBeanValidationConstraint(entry)).isFalse();
+    }
+
+    @Test
+    public void isBeanValidationConstraint_annotationValue() throws NoSuchFieldException {
+        MetaDataEntry entry = new MetaDataEntry();
+        entry.setKey("not a class name");
+        entry.setValue(Model.class.getDeclaredField("name").getAnnotation(NotNull.class));
+
+        assertThat(filter.isBeanValidationConstraint(entry)).isTrue();
+    }
+
+    @Test
+    public void isBeanValidationConstraint_key() {
+        MetaDataEntry entry = new MetaDataEntry();
+        entry.setKey(NotNull.class.getName());
+
+        assertThat(filter.isBeanValidationConstraint(entry)).isTrue();
+        assertThat(filter.isBeanValidationConstraint(entry)).isTrue();
+    }
+
+    @Test
+    public void isBeanValidationConstraint_unknownKey() {
+        MetaDataEntry entry = new MetaDataEntry();
+        entry.setKey("be.atbash.Unknown");
+
+        assertThat(filter.isBeanValidationConstraint(entry)).isFalse();
+    }
+
+    private static class Model {
+        @NotNull
+        private String name;
+    }
+}
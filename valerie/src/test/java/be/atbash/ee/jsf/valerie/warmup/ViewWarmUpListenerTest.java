@@ -0,0 +1,81 @@
+/*
+ * Copyright 2014-2020 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.ee.jsf.valerie.warmup;
+
+import be.atbash.util.BeanManagerFake;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.faces.application.Application;
+import javax.faces.context.FacesContext;
+import javax.faces.event.PostConstructApplicationEvent;
+import javax.faces.event.PreDestroyApplicationEvent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class ViewWarmUpListenerTest {
+
+    private BeanManagerFake beanManagerFake;
+
+    private CountingViewWarmUp viewWarmUp;
+
+    private ViewWarmUpListener listener = new ViewWarmUpListener();
+
+    @Before
+    public void setup() {
+        viewWarmUp = new CountingViewWarmUp();
+        beanManagerFake = new BeanManagerFake();
+        beanManagerFake.registerBean(viewWarmUp, ViewWarmUp.class);
+        beanManagerFake.endRegistration();
+    }
+
+    @After
+    public void teardown() {
+        beanManagerFake.deregistration();
+    }
+
+    @Test
+    public void processEvent() {
+        listener.processEvent(new PostConstructApplicationEvent(mock(Application.class)));
+
+        assertThat(viewWarmUp.count).isEqualTo(1);
+    }
+
+    @Test
+    public void processEvent_otherEvent() {
+        listener.processEvent(new PreDestroyApplicationEvent(mock(Application.class)));
+
+        assertThat(viewWarmUp.count).isEqualTo(0);
+    }
+
+    @Test
+    public void isListenerForSource() {
+        assertThat(listener.isListenerForSource(mock(Application.class))).isTrue();
+        assertThat(listener.isListenerForSource("source")).isFalse();
+    }
+
+    private static class CountingViewWarmUp extends ViewWarmUp {
+
+        private int count;
+
+        @Override
+        public void warmUp(FacesContext facesContext) {
+            count++;
+        }
+    }
+}
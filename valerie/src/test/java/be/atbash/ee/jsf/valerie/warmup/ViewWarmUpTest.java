@@ -0,0 +1,127 @@
+/*
+ * Copyright 2014-2020 Rudy De Busscher
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package be.atbash.ee.jsf.valerie.warmup;
+
+import be.atbash.ee.jsf.jerry.storage.ComponentStorage;
+import be.atbash.ee.jsf.valerie.config.ValerieConfiguration;
+import be.atbash.ee.jsf.valerie.property.PropertyInformationManager;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.slf4j.Logger;
+
+import javax.el.ValueExpression;
+import javax.faces.application.Application;
+import javax.faces.application.ViewHandler;
+import javax.faces.component.UIInput;
+import javax.faces.component.UIOutput;
+import javax.faces.context.FacesContext;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ViewWarmUpTest {
+
+    @Mock
+    private Logger loggerMock;
+
+    @Mock
+    private ValerieConfiguration valerieConfigurationMock;
+
+    @Mock
+    private PropertyInformationManager propertyInformationManagerMock;
+
+    @Mock
+    private ComponentStorage componentStorageMock;
+
+    @Mock
+    private FacesContext facesContextMock;
+
+    @Mock
+    private Application applicationMock;
+
+    @Mock
+    private ViewHandler viewHandlerMock;
+
+    @Mock
+    private ValueExpression valueExpressionMock;
+
+    @InjectMocks
+    private ViewWarmUp viewWarmUp;
+
+    @Test
+    public void warmUp_disabled() {
+        when(valerieConfigurationMock.isWarmUpEnabled()).thenReturn(false);
+        when(valerieConfigurationMock.getWarmUpViews()).thenReturn("/index.xhtml");
+
+        viewWarmUp.warmUp(facesContextMock);
+
+        verifyZeroInteractions(facesContextMock, propertyInformationManagerMock, componentStorageMock);
+    }
+
+    @Test
+    public void warmUp_noViews() {
+        when(valerieConfigurationMock.isWarmUpEnabled()).thenReturn(true);
+        when(valerieConfigurationMock.getWarmUpViews()).thenReturn(" ");
+
+        viewWarmUp.warmUp(facesContextMock);
+
+        verifyZeroInteractions(facesContextMock, propertyInformationManagerMock, componentStorageMock);
+    }
+
+    @Test
+    public void determineViewIds() {
+        when(valerieConfigurationMock.getWarmUpViews()).thenReturn("/index.xhtml, /pages/order.xhtml,,");
+
+        assertThat(viewWarmUp.determineViewIds(facesContextMock)).containsExactly("/index.xhtml", "/pages/order.xhtml");
+        verifyZeroInteractions(facesContextMock);
+    }
+
+    @Test
+    public void determineViewIds_allViews() {
+        when(valerieConfigurationMock.getWarmUpViews()).thenReturn("*");
+        when(facesContextMock.getApplication()).thenReturn(applicationMock);
+        when(applicationMock.getViewHandler()).thenReturn(viewHandlerMock);
+        when(viewHandlerMock.getViews(facesContextMock, "/")).thenReturn(Stream.of("/index.xhtml", "/other.xhtml"));
+
+        assertThat(viewWarmUp.determineViewIds(facesContextMock)).containsExactly("/index.xhtml", "/other.xhtml");
+    }
+
+    @Test
+    public void isWarmUpCandidate() {
+        UIInput input = new UIInput();
+        input.setValueExpression("value", valueExpressionMock);
+
+        assertThat(ViewWarmUp.isWarmUpCandidate(input)).isTrue();
+    }
+
+    @Test
+    public void isWarmUpCandidate_noValueBinding() {
+        assertThat(ViewWarmUp.isWarmUpCandidate(new UIInput())).isFalse();
+    }
+
+    @Test
+    public void isWarmUpCandidate_noInput() {
+        UIOutput output = new UIOutput();
+        output.setValueExpression("value", valueExpressionMock);
+
+        assertThat(ViewWarmUp.isWarmUpCandidate(output)).isFalse();
+    }
+}